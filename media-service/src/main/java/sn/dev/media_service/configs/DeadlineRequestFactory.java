@@ -0,0 +1,116 @@
+package sn.dev.media_service.configs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Gives each storage call a write timeout, which HttpClient5 lacks: its socket timeout
+ * only bounds reads, so an upload to a peer that stops acknowledging would block in
+ * {@code write} forever. Sending the request, body included, up to the response headers
+ * must finish within the deadline, or the request is aborted; that closes the connection
+ * and fails the call with an I/O error the caller may retry. A streamed response body
+ * read afterwards is bounded by the socket timeout alone.
+ */
+public class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    // Hands the request built inside super.createRequest back to it on the same thread
+    private static final ThreadLocal<Cancellable> CREATED = new ThreadLocal<>();
+
+    private final Duration deadline;
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    public DeadlineRequestFactory(HttpClient httpClient, Duration deadline) {
+        super(httpClient);
+        this.deadline = deadline;
+        this.watchdog = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("storage-deadline").daemon().factory());
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        try {
+            ClientHttpRequest request = super.createRequest(uri, httpMethod);
+            return new DeadlineRequest(request, CREATED.get());
+        } finally {
+            CREATED.remove();
+        }
+    }
+
+    @Override
+    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+        if (request instanceof Cancellable cancellable) {
+            CREATED.set(cancellable);
+        }
+    }
+
+    private final class DeadlineRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final Cancellable abort;
+
+        DeadlineRequest(ClientHttpRequest delegate, Cancellable abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            if (abort == null) {
+                return delegate.execute();
+            }
+            ScheduledFuture<?> timeout = watchdog.schedule(abort::cancel, deadline.toMillis(), TimeUnit.MILLISECONDS);
+            try {
+                return delegate.execute();
+            } finally {
+                timeout.cancel(false);
+            }
+        }
+
+        @Override
+        public void setBody(Body body) {
+            ((StreamingHttpOutputMessage) delegate).setBody(body);
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return delegate.getAttributes();
+        }
+    }
+}
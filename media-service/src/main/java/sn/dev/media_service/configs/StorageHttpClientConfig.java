@@ -0,0 +1,75 @@
+package sn.dev.media_service.configs;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+/**
+ * Pooled keep-alive HTTP client for the Supabase storage API. Retries are done by
+ * {@code CloudStorageServiceImpl}, which can re-open the request body; the client's own
+ * retry is disabled because it cannot replay a streamed upload. Connect and read
+ * timeouts are set on the connections; the write timeout is a deadline kept by
+ * {@link DeadlineRequestFactory}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "supabase", matchIfMissing = true)
+public class StorageHttpClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager storageConnectionManager(
+            @Value("${media.storage.http.max-connections:20}") int maxConnections,
+            @Value("${media.storage.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${media.storage.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${media.storage.http.time-to-live:5m}") Duration timeToLive,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                // Every request goes to the same host, so the per-route cap is the pool size
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(timeToLive.toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "supabase-storage").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient storageHttpClient(PoolingHttpClientConnectionManager storageConnectionManager,
+            @Value("${media.storage.http.pool-timeout:5s}") Duration poolTimeout,
+            @Value("${media.storage.http.read-timeout:30s}") Duration readTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(storageConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate storageRestTemplate(CloseableHttpClient storageHttpClient,
+            @Value("${media.storage.http.write-timeout:60s}") Duration writeTimeout) {
+        return new RestTemplate(new DeadlineRequestFactory(storageHttpClient, writeTimeout));
+    }
+}
@@ -0,0 +1,23 @@
+package sn.dev.media_service.data.entities;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One stored object, keyed by the SHA-256 of its bytes. {@code refCount} is the number
+ * of uploads currently pointing at {@code url}; the object is deleted when it drops to zero.
+ */
+@Data
+@Document(collection = "blobs")
+public class Blob {
+    @Id
+    private String id;
+    private String url;
+    private long size;
+    private long refCount;
+    private Instant createdAt;
+}
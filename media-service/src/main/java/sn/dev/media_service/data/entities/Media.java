@@ -1,5 +1,7 @@
 package sn.dev.media_service.data.entities;
 
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -12,4 +14,13 @@ public class Media {
     private String id;
     private String imageUrl;
     private String productId;
+    // SHA-256 of the image bytes, i.e. the id of the shared Blob; null for media stored before dedupe
+    private String contentHash;
+    // Pixel size read from the image header at upload; null for media stored before that
+    private Integer width;
+    private Integer height;
+    // BlurHash of the image, for a placeholder while it loads; filled in asynchronously
+    private String blurHash;
+    // Filled in asynchronously after upload, smallest first; null until then
+    private List<MediaVariant> variants;
 }
@@ -0,0 +1,16 @@
+package sn.dev.media_service.data.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A resized copy of a {@link Media} image, stored as its own blob. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaVariant {
+    private int width;
+    private int height;
+    private String url;
+    private String contentHash;
+}
@@ -0,0 +1,39 @@
+package sn.dev.media_service.data.entities;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * A client upload that bypasses product-service. The id is random and unguessable; it
+ * is the only credential needed to send the bytes and finalize. With a presigned
+ * target, {@code objectUrl} is known up front; otherwise it is set once the bytes have
+ * been streamed through media-service. Chunked sessions stage their bytes locally and
+ * count them in {@code received}; they are stored at finalize. Sessions are dropped a
+ * day after they expire.
+ */
+@Data
+@Document(collection = "upload_sessions")
+public class UploadSession {
+    public enum Status { PENDING, UPLOADED, FINALIZING, FINALIZED }
+
+    @Id
+    private String id;
+    private String productId;
+    private String fileName;
+    private String contentType;
+    private long size;
+    private boolean presigned;
+    private boolean chunked;
+    // Bytes staged so far; chunked sessions only
+    private long received;
+    private String objectUrl;
+    private Status status;
+    // Set once FINALIZED, so a repeated finalize returns the same media
+    private String mediaId;
+    private Instant createdAt;
+    private Instant expiresAt;
+}
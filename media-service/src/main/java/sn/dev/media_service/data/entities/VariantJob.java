@@ -0,0 +1,28 @@
+package sn.dev.media_service.data.entities;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Pending variant generation for one {@link Media}. While RUNNING, {@code runAfter}
+ * is the worker's lease: once it passes, another worker may pick the job up again.
+ * Finished jobs are deleted; jobs out of attempts are kept as FAILED.
+ */
+@Data
+@Document(collection = "variant_jobs")
+public class VariantJob {
+    public enum Status { PENDING, RUNNING, FAILED }
+
+    @Id
+    private String id;
+    private String mediaId;
+    private Status status;
+    private Instant runAfter;
+    private int attempts;
+    private String lastError;
+    private Instant createdAt;
+}
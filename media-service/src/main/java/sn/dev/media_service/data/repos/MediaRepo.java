@@ -1,5 +1,6 @@
 package sn.dev.media_service.data.repos;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -10,5 +11,8 @@ import sn.dev.media_service.data.entities.Media;
 @Repository
 public interface MediaRepo extends MongoRepository<Media, String> {
     List<Media> findByProductId(String productId);
+    List<Media> findByProductIdIn(Collection<String> productIds);
     void deleteByProductId(String productId);
+    // Atomic find-and-remove, so each deleted document releases its blob exactly once
+    Media removeById(String id);
 }
@@ -0,0 +1,29 @@
+package sn.dev.media_service.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reference-counted, content-addressed storage objects. Identical uploads share one
+ * stored object; it is removed from storage once the last reference is released.
+ */
+public interface BlobService {
+
+    /**
+     * Takes a reference on the object with the given SHA-256 and returns its URL. Only
+     * when no such object exists yet is {@code upload} invoked to store it.
+     */
+    String acquire(String hash, long size, Supplier<String> upload);
+
+    /** Drops one reference; deletes the stored object when none remain. */
+    default void release(String hash) {
+        release(List.of(hash));
+    }
+
+    /**
+     * Drops one reference per hash (a hash listed twice loses two). Objects left without
+     * references are deleted from storage in one batch.
+     */
+    void release(Collection<String> hashes);
+}
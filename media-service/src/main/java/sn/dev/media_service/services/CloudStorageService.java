@@ -1,7 +1,97 @@
 package sn.dev.media_service.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface CloudStorageService {
-    String upload(MultipartFile file);
+
+    /** A stored object as seen by {@link #list}. */
+    record StoredObject(String url, Instant createdAt) {
+    }
+
+    /** One page of {@link #list}; {@code nextCursor} is null on the last page. */
+    record StoredObjectPage(List<StoredObject> objects, String nextCursor) {
+    }
+
+    /**
+     * A one-off target for a client to PUT a file to without going through this service.
+     * Once the client is done, the bytes are at {@code objectUrl}.
+     */
+    record PresignedUpload(String uploadUrl, String objectUrl) {
+    }
+
+    /**
+     * Streams {@code content} to storage and returns its public URL. Implementations
+     * copy through a small fixed buffer and never hold the whole file in memory. The
+     * source may be opened more than once if a failed attempt is retried.
+     *
+     * @param size content length in bytes, or -1 if unknown
+     */
+    String upload(InputStreamSource content, long size, String contentType, String originalFilename);
+
+    /**
+     * {@link #upload} on a virtual thread. Storage calls stay bounded by the
+     * implementation, so many pending futures do not mean many open connections.
+     */
+    default CompletableFuture<String> uploadAsync(InputStreamSource content, long size, String contentType,
+            String originalFilename) {
+        Executor virtualThreads = task -> Thread.ofVirtual().name("storage-upload").start(task);
+        return CompletableFuture.supplyAsync(() -> upload(content, size, contentType, originalFilename), virtualThreads);
+    }
+
+    /** Opens the object behind a URL returned by {@link #upload}; the caller closes the stream. */
+    InputStream download(String url) throws IOException;
+
+    /**
+     * A file on this host holding the object, so it can be served with byte ranges. It may
+     * be evicted at any moment, so open it right away rather than handing the path on.
+     * Empty when the backend keeps no local copy; use {@link #download} then.
+     */
+    default Optional<Path> localFile(String url) throws IOException {
+        return Optional.empty();
+    }
+
+    /**
+     * Like {@link #localFile}, but the path stays valid for a while even if the copy is
+     * evicted, so it can be handed to something that opens it later, such as sendfile.
+     */
+    default Optional<Path> pinnedLocalFile(String url) throws IOException {
+        return localFile(url);
+    }
+
+    /** Deletes the object behind a URL returned by {@link #upload}; a missing object is not an error. */
+    void delete(String url);
+
+    /** Deletes several objects, in as few storage calls as the backend allows. */
+    default void delete(Collection<String> urls) {
+        urls.forEach(this::delete);
+    }
+
+    /**
+     * Lists stored objects in a stable order, at most {@code limit} per call. Pass the
+     * previous page's cursor, or null for the first page.
+     */
+    StoredObjectPage list(String cursor, int limit) throws IOException;
+
+    /**
+     * Reserves a new object and signs a direct upload to it. Empty when the backend cannot
+     * accept uploads that bypass this service; clients then stream through media-service.
+     */
+    default Optional<PresignedUpload> presignUpload(String contentType, String originalFilename) {
+        return Optional.empty();
+    }
+
+    default String upload(MultipartFile file) {
+        return upload(file, file.getSize(), file.getContentType(), file.getOriginalFilename());
+    }
 }
@@ -0,0 +1,13 @@
+package sn.dev.media_service.services;
+
+/**
+ * Finds storage and media left behind by failed or partial deletes and removes them.
+ */
+public interface MediaGcService {
+
+    /** Deletes media whose product no longer exists; returns the number of such products. */
+    int sweepOrphanedMedia();
+
+    /** Deletes stored objects no blob or media record points to; returns how many. */
+    int sweepOrphanedObjects();
+}
@@ -1,18 +1,39 @@
 package sn.dev.media_service.services;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.web.multipart.MultipartFile;
 
 import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.web.dto.MediaUploadResultDto;
 
 public interface MediaService {
     Media uploadAndSave(MultipartFile media, String productId);
 
+    /**
+     * Uploads up to {@code file.upload.max-files} images for one product. Each file
+     * succeeds or fails on its own; results come back in input order.
+     */
+    List<MediaUploadResultDto> uploadAndSaveAll(List<MultipartFile> files, String productId);
+
     String uploadImage(MultipartFile media);
 
+    /** Checks what a client declares it is about to upload, before any bytes are sent. */
+    void validateUpload(String fileName, String contentType, long size);
+
+    /**
+     * Registers a file a client already put in storage at {@code objectUrl}. The object
+     * is read back once to check its signature and hash it; identical bytes stored
+     * before are reused, in which case the returned media points at those instead.
+     */
+    Media saveStoredUpload(String objectUrl, String contentType, String productId);
+
     List<Media> findByProductId(String productId);
 
+    /** The media of several products, in one query. */
+    List<Media> findByProductIds(Collection<String> productIds);
+
     Media findById(String id);
 
     void deleteById(String id);
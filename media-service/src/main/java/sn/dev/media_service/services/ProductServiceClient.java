@@ -0,0 +1,14 @@
+package sn.dev.media_service.services;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface ProductServiceClient {
+
+    /**
+     * Returns the subset of {@code productIds} that still exist in product-service.
+     * Throws if product-service cannot answer, so callers never mistake an outage for
+     * deleted products.
+     */
+    Set<String> findExistingIds(Collection<String> productIds);
+}
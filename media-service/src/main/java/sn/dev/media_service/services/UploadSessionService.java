@@ -0,0 +1,42 @@
+package sn.dev.media_service.services;
+
+import java.io.InputStream;
+
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.web.dto.UploadSessionDto;
+import sn.dev.media_service.web.dto.UploadSessionRequestDto;
+import sn.dev.media_service.web.dto.UploadStatusDto;
+
+/**
+ * Uploads that go from the client to storage without passing through product-service:
+ * open a session, send the bytes to the URL it names, then finalize to get the
+ * {@link Media}.
+ */
+public interface UploadSessionService {
+
+    /** Request and response header carrying the byte offset of a resumable upload. */
+    String UPLOAD_OFFSET = "Upload-Offset";
+
+    /**
+     * Validates the declared file and returns where to send it: a presigned storage URL
+     * when the backend supports one, this service's streaming endpoint otherwise.
+     */
+    UploadSessionDto create(UploadSessionRequestDto request);
+
+    /** Streams the body of a non-presigned session to storage; exactly the declared size is accepted. */
+    void receive(String id, InputStream body, long contentLength);
+
+    /** Like {@link #create}, for a file sent in chunks that can be resumed after a failure. */
+    UploadSessionDto createResumable(UploadSessionRequestDto request);
+
+    /**
+     * Appends a chunk to a resumable upload and returns the bytes received so far.
+     * {@code offset} must equal that count; otherwise 409 tells the client where to resume.
+     */
+    long receiveChunk(String id, long offset, InputStream body);
+
+    UploadStatusDto status(String id);
+
+    /** Checks the uploaded bytes and saves the media. Repeating the call returns the same media. */
+    Media finalizeUpload(String id);
+}
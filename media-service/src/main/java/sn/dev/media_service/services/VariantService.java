@@ -0,0 +1,14 @@
+package sn.dev.media_service.services;
+
+import sn.dev.media_service.data.entities.Media;
+
+/**
+ * Background generation of resized copies of uploaded images and of a BlurHash
+ * placeholder, so neither costs the upload request anything. Work is queued in
+ * MongoDB, so uploads accepted before a restart are still processed afterwards.
+ */
+public interface VariantService {
+
+    /** Queues variant and placeholder generation for a freshly saved media. */
+    void enqueue(Media media);
+}
@@ -0,0 +1,107 @@
+package sn.dev.media_service.services.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import sn.dev.media_service.data.entities.Blob;
+import sn.dev.media_service.services.BlobService;
+import sn.dev.media_service.services.CloudStorageService;
+
+@Service
+public class BlobServiceImpl implements BlobService {
+    private static final Logger log = LoggerFactory.getLogger(BlobServiceImpl.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final CloudStorageService cloudStorageService;
+
+    public BlobServiceImpl(MongoTemplate mongoTemplate, CloudStorageService cloudStorageService) {
+        this.mongoTemplate = mongoTemplate;
+        this.cloudStorageService = cloudStorageService;
+    }
+
+    @Override
+    public String acquire(String hash, long size, Supplier<String> upload) {
+        String uploaded = null;
+        while (true) {
+            Blob existing = incrementRefCount(hash, 1);
+            if (existing != null) {
+                // Lost an insert race after uploading: keep the winner's object, drop ours
+                if (uploaded != null && !uploaded.equals(existing.getUrl())) {
+                    deleteQuietly(List.of(uploaded));
+                }
+                return existing.getUrl();
+            }
+
+            if (uploaded == null) {
+                uploaded = upload.get();
+            }
+
+            Blob blob = new Blob();
+            blob.setId(hash);
+            blob.setUrl(uploaded);
+            blob.setSize(size);
+            blob.setRefCount(1);
+            blob.setCreatedAt(Instant.now());
+            try {
+                mongoTemplate.insert(blob);
+                return uploaded;
+            } catch (DuplicateKeyException e) {
+                // Someone stored the same bytes concurrently; loop to take a reference on theirs
+            }
+        }
+    }
+
+    @Override
+    public void release(Collection<String> hashes) {
+        List<String> unreferenced = new ArrayList<>();
+        for (String hash : hashes) {
+            Blob blob = incrementRefCount(hash, -1);
+            if (blob == null || blob.getRefCount() > 0) {
+                continue;
+            }
+
+            // Guarded on the count so a reference taken since the decrement keeps the blob alive
+            Query zero = Query.query(Criteria.where("_id").is(hash).and("refCount").lte(0));
+            if (mongoTemplate.remove(zero, Blob.class).getDeletedCount() > 0) {
+                unreferenced.add(blob.getUrl());
+            }
+        }
+        if (!unreferenced.isEmpty()) {
+            deleteQuietly(unreferenced);
+        }
+    }
+
+    private Blob incrementRefCount(String hash, int delta) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(hash)),
+                new Update().inc("refCount", delta),
+                FindAndModifyOptions.options().returnNew(true),
+                Blob.class);
+    }
+
+    /**
+     * The blob record is already gone at this point, so a failed delete only leaves an
+     * unreferenced object behind in storage, which the orphan GC collects later; it must
+     * not fail the caller.
+     */
+    private void deleteQuietly(List<String> urls) {
+        try {
+            cloudStorageService.delete(urls);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete stored objects {}: {}", urls, e.getMessage());
+        }
+    }
+}
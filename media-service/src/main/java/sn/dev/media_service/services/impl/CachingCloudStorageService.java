@@ -0,0 +1,153 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import sn.dev.media_service.services.CloudStorageService;
+
+/**
+ * Keeps recently used Supabase objects on local disk. Reads are answered from the local
+ * copy when there is one and fetched once otherwise; uploads are written through, so a
+ * freshly uploaded image (about to be resized and viewed) never comes back over the
+ * network. Object names are unique and never overwritten, so cached copies cannot go
+ * stale; deletes drop them. Concurrent misses for one object share a single fetch.
+ */
+@Service
+@Primary
+@ConditionalOnExpression("'${media.storage.type:supabase}' == 'supabase' and ${media.storage.cache.enabled:true}")
+public class CachingCloudStorageService implements CloudStorageService {
+    private static final Logger log = LoggerFactory.getLogger(CachingCloudStorageService.class);
+
+    // Sendfile opens a pinned path right after the response headers go out
+    private static final Duration PIN_TTL = Duration.ofMinutes(1);
+
+    private final CloudStorageService remote;
+    private final DiskLruCache cache;
+    // Misses being fetched, by URL
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Path>>> fetches = new ConcurrentHashMap<>();
+
+    public CachingCloudStorageService(CloudStorageServiceImpl remote, MeterRegistry meterRegistry,
+            @Value("${media.storage.cache.path:/tmp/media-cache}") Path path,
+            @Value("${media.storage.cache.max-size:1GB}") DataSize maxSize) {
+        this.remote = remote;
+        this.cache = new DiskLruCache(path, maxSize.toBytes(), "storageObjects", meterRegistry);
+    }
+
+    @Override
+    public String upload(InputStreamSource content, long size, String contentType, String originalFilename) {
+        String url = remote.upload(content, size, contentType, originalFilename);
+        try (InputStream in = content.getInputStream()) {
+            cache.put(url, in);
+        } catch (IOException | IllegalStateException e) {
+            // One-shot sources cannot be read again; the object is cached on first read instead
+            log.debug("[StorageCache] Not caching upload {}: {}", url, e.getMessage());
+        }
+        return url;
+    }
+
+    @Override
+    public InputStream download(String url) throws IOException {
+        Optional<Path> local = localFile(url);
+        return local.isPresent() ? Files.newInputStream(local.get()) : remote.download(url);
+    }
+
+    /** Fetches the object into the cache on a miss; empty only if it is too large to cache. */
+    @Override
+    public Optional<Path> localFile(String url) throws IOException {
+        Optional<Path> cached = cache.get(url);
+        return cached.isPresent() ? cached : fetch(url);
+    }
+
+    /** Empty also if the copy was evicted before it could be pinned; read it remotely then. */
+    @Override
+    public Optional<Path> pinnedLocalFile(String url) throws IOException {
+        Optional<Path> local = localFile(url);
+        if (local.isEmpty()) {
+            return local;
+        }
+        try {
+            return Optional.of(cache.pin(local.get()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.storage.cache.pin-sweep:30s}")
+    public void sweepPins() {
+        cache.sweepPins(PIN_TTL);
+    }
+
+    /** Downloads {@code url} into the cache, or waits for the fetch already doing so. */
+    private Optional<Path> fetch(String url) throws IOException {
+        CompletableFuture<Optional<Path>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> running = fetches.putIfAbsent(url, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+        try {
+            // A fetch may have finished between our miss and registering this one
+            Optional<Path> fetched = cache.find(url);
+            if (fetched.isEmpty()) {
+                try (InputStream in = remote.download(url)) {
+                    fetched = cache.put(url, in);
+                }
+            }
+            mine.complete(fetched);
+            return fetched;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            fetches.remove(url, mine);
+        }
+    }
+
+    @Override
+    public void delete(String url) {
+        remote.delete(url);
+        cache.remove(url);
+    }
+
+    @Override
+    public void delete(Collection<String> urls) {
+        remote.delete(urls);
+        urls.forEach(cache::remove);
+    }
+
+    @Override
+    public StoredObjectPage list(String cursor, int limit) throws IOException {
+        return remote.list(cursor, limit);
+    }
+
+    @Override
+    public Optional<PresignedUpload> presignUpload(String contentType, String originalFilename) {
+        return remote.presignUpload(contentType, originalFilename);
+    }
+}
@@ -1,22 +1,53 @@
 package sn.dev.media_service.services.impl;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.multipart.MultipartFile;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import sn.dev.media_service.services.CloudStorageService;
 
 @Service
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "supabase", matchIfMissing = true)
 public class CloudStorageServiceImpl implements CloudStorageService {
 
+    private static final int DELETE_BATCH_SIZE = 100;
+
     @Value("${supabase.project-url}")
     private String projectUrl;
 
@@ -26,41 +57,72 @@ public class CloudStorageServiceImpl implements CloudStorageService {
     @Value("${supabase.bucket-name}")
     private String bucketName;
 
-    private RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+
+    // Caps concurrent storage calls, open download streams included, at the pool size, so
+    // callers queue here rather than timing out while waiting for a pooled connection
+    private final Semaphore permits;
+
+    public CloudStorageServiceImpl(@Qualifier("storageRestTemplate") RestTemplate restTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${media.storage.http.max-connections:20}") int maxConnections,
+            @Value("${media.storage.http.max-attempts:3}") int maxAttempts,
+            @Value("${media.storage.http.retry-backoff:200ms}") Duration retryBackoff) {
+        this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.permits = new Semaphore(maxConnections, true);
+        Gauge.builder("media.storage.in-flight", permits, p -> maxConnections - p.availablePermits())
+                .description("Storage calls currently holding a connection permit")
+                .register(meterRegistry);
+    }
 
     @Override
-    public String upload(MultipartFile file) {
+    public String upload(InputStreamSource content, long size, String contentType, String originalFilename) {
         try {
-            // Generate a unique file name using UUID and the sanitized original file name
-            String sanitizedFileName = sanitizeFileName(file.getOriginalFilename());
-            String fileName = UUID.randomUUID() + "_" + sanitizedFileName;
+            String fileName = newObjectName(originalFilename);
 
-            // Create headers with the API key and content type
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(apiKey);
-            String contentType = file.getContentType();
             if (contentType == null) {
                 throw new IllegalArgumentException("Missing content type on uploaded file");
             }
-            headers.setContentType(MediaType.valueOf(contentType));
 
             // Construct the upload URL
             String uploadUrl = String.format("%s/storage/v1/object/%s/%s", projectUrl, bucketName, fileName);
 
-            // Create the request entity with the file bytes and headers
-            HttpEntity<byte[]> requestEntity = new HttpEntity<>(file.getBytes(), headers);
-
-            // Send the PUT request to upload the file
-            ResponseEntity<String> response = restTemplate.exchange(
+            // Send the PUT request, copying the body straight from a freshly opened stream on
+            // every attempt. With a known size the body is sent fixed-length, otherwise chunked.
+            HttpStatusCode status = call("upload", () -> restTemplate.execute(
                     uploadUrl,
                     HttpMethod.PUT,
-                    requestEntity,
-                    String.class);
+                    request -> {
+                        HttpHeaders headers = request.getHeaders();
+                        headers.setBearerAuth(apiKey);
+                        headers.setContentType(MediaType.valueOf(contentType));
+                        if (size >= 0) {
+                            headers.setContentLength(size);
+                        }
+                        if (request instanceof StreamingHttpOutputMessage streaming) {
+                            streaming.setBody(out -> {
+                                try (InputStream in = content.getInputStream()) {
+                                    in.transferTo(out);
+                                }
+                            });
+                        } else {
+                            try (InputStream in = content.getInputStream()) {
+                                in.transferTo(request.getBody());
+                            }
+                        }
+                    },
+                    response -> response.getStatusCode()));
 
-            if (response.getStatusCode().is2xxSuccessful()) {
+            if (status != null && status.is2xxSuccessful()) {
                 return String.format("%s/storage/v1/object/public/%s/%s", projectUrl, bucketName, fileName);
             } else {
-                throw new RuntimeException("Failed to upload file: " + response.getStatusCode());
+                throw new RuntimeException("Failed to upload file: " + status);
             }
 
         } catch (Exception e) {
@@ -68,6 +130,230 @@ public class CloudStorageServiceImpl implements CloudStorageService {
         }
     }
 
+    /**
+     * Uses Supabase signed upload URLs: the client PUTs the file straight to storage with
+     * the token in the URL, no API key needed. Supabase keeps the token valid for two hours.
+     */
+    @Override
+    public Optional<PresignedUpload> presignUpload(String contentType, String originalFilename) {
+        String fileName = newObjectName(originalFilename);
+        String signUrl = String.format("%s/storage/v1/object/upload/sign/%s/%s", projectUrl, bucketName, fileName);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(apiKey);
+        try {
+            Map<String, Object> signed = call("presign", () -> restTemplate.exchange(signUrl, HttpMethod.POST,
+                    new HttpEntity<>(headers), new ParameterizedTypeReference<Map<String, Object>>() {
+                    }).getBody());
+            if (signed == null || !(signed.get("url") instanceof String path)) {
+                throw new IllegalStateException("Storage returned no signed upload URL");
+            }
+            return Optional.of(new PresignedUpload(projectUrl + "/storage/v1" + path,
+                    String.format("%s/storage/v1/object/public/%s/%s", projectUrl, bucketName, fileName)));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to sign upload to cloud storage", e);
+        }
+    }
+
+    /**
+     * The returned stream holds a pooled connection, so it also holds the concurrency
+     * permit; both are released when it is closed.
+     */
+    @Override
+    public InputStream download(String url) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a storage connection", e);
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            ClientHttpResponse response = attempts("download", () -> {
+                ClientHttpResponse r = restTemplate.getRequestFactory()
+                        .createRequest(URI.create(url), HttpMethod.GET)
+                        .execute();
+                HttpStatusCode status = r.getStatusCode();
+                if (status.is2xxSuccessful()) {
+                    return r;
+                }
+                String statusText = r.getStatusText();
+                r.close();
+                throw status.is5xxServerError()
+                        ? HttpServerErrorException.create(status, statusText, HttpHeaders.EMPTY, null, null)
+                        : HttpClientErrorException.create(status, statusText, HttpHeaders.EMPTY, null, null);
+            });
+            InputStream body;
+            try {
+                body = response.getBody();
+            } catch (IOException | RuntimeException e) {
+                response.close();
+                throw e;
+            }
+            // Closing the stream releases the connection, then the permit
+            return new FilterInputStream(body) {
+                @Override
+                public void close() {
+                    try {
+                        response.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            release.run();
+            throw e;
+        } catch (Exception e) {
+            release.run();
+            throw new IOException("Failed to download " + url, e);
+        }
+    }
+
+    @Override
+    public void delete(String url) {
+        String fileName = fileNameOf(url);
+        String deleteUrl = String.format("%s/storage/v1/object/%s/%s", projectUrl, bucketName, fileName);
+
+        try {
+            call("delete", () -> restTemplate.execute(
+                    deleteUrl,
+                    HttpMethod.DELETE,
+                    request -> request.getHeaders().setBearerAuth(apiKey),
+                    response -> null));
+        } catch (HttpClientErrorException.NotFound e) {
+            // Already gone
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete file from cloud storage", e);
+        }
+    }
+
+    /** Uses the bucket-level remove endpoint, up to {@value #DELETE_BATCH_SIZE} objects per call. */
+    @Override
+    public void delete(Collection<String> urls) {
+        List<String> fileNames = urls.stream().map(this::fileNameOf).toList();
+        String deleteUrl = String.format("%s/storage/v1/object/%s", projectUrl, bucketName);
+        for (int from = 0; from < fileNames.size(); from += DELETE_BATCH_SIZE) {
+            List<String> batch = fileNames.subList(from, Math.min(from + DELETE_BATCH_SIZE, fileNames.size()));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(apiKey);
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            try {
+                call("delete", () -> restTemplate.exchange(deleteUrl, HttpMethod.DELETE,
+                        new HttpEntity<>(Map.of("prefixes", batch), headers), String.class));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to delete files from cloud storage", e);
+            }
+        }
+    }
+
+    /**
+     * Objects sorted by name; the cursor is an offset, so objects deleted between pages
+     * shift later ones back and a few may only be seen on the next listing.
+     */
+    @Override
+    public StoredObjectPage list(String cursor, int limit) throws IOException {
+        int offset = cursor == null ? 0 : Integer.parseInt(cursor);
+        String listUrl = String.format("%s/storage/v1/object/list/%s", projectUrl, bucketName);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(apiKey);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Map<String, Object> body = Map.of(
+                "prefix", "",
+                "limit", limit,
+                "offset", offset,
+                "sortBy", Map.of("column", "name", "order", "asc"));
+        try {
+            List<Map<String, Object>> entries = call("list", () -> restTemplate.exchange(listUrl, HttpMethod.POST,
+                    new HttpEntity<>(body, headers), new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                    }).getBody());
+            if (entries == null) {
+                entries = List.of();
+            }
+            List<StoredObject> objects = new ArrayList<>(entries.size());
+            for (Map<String, Object> entry : entries) {
+                // Folders come back without an id
+                if (entry.get("id") != null && entry.get("created_at") != null) {
+                    objects.add(new StoredObject(
+                            String.format("%s/storage/v1/object/public/%s/%s", projectUrl, bucketName, entry.get("name")),
+                            Instant.parse((String) entry.get("created_at"))));
+                }
+            }
+            return new StoredObjectPage(objects, entries.size() < limit ? null : String.valueOf(offset + entries.size()));
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to list cloud storage", e);
+        }
+    }
+
+    private String fileNameOf(String url) {
+        String publicPrefix = String.format("%s/storage/v1/object/public/%s/", projectUrl, bucketName);
+        if (url == null || !url.startsWith(publicPrefix)) {
+            throw new IllegalArgumentException("Not an object of bucket " + bucketName + ": " + url);
+        }
+        return url.substring(publicPrefix.length());
+    }
+
+    /** Runs one storage call, with its retries, under a concurrency permit. */
+    private <T> T call(String operation, Callable<T> request) throws Exception {
+        permits.acquire();
+        try {
+            return attempts(operation, request);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs a storage call, retrying I/O errors and 5xx responses with jittered exponential
+     * backoff. Each attempt is timed as {@code media.storage.requests}, tagged by operation
+     * and outcome. The caller holds the permit.
+     */
+    private <T> T attempts(String operation, Callable<T> request) throws Exception {
+        for (int attempt = 1;; attempt++) {
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                T result = request.call();
+                outcome = "success";
+                return result;
+            } catch (HttpServerErrorException | ResourceAccessException | IOException e) {
+                outcome = e instanceof HttpServerErrorException ? "server_error" : "io_error";
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+            } catch (HttpClientErrorException e) {
+                outcome = "client_error";
+                throw e;
+            } finally {
+                Timer.builder("media.storage.requests")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            Counter.builder("media.storage.retries").tag("operation", operation).register(meterRegistry).increment();
+            long cap = retryBackoff.toMillis() << Math.min(attempt - 1, 6);
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+        }
+    }
+
+    /** A unique object name: a UUID and the sanitized original file name. */
+    private String newObjectName(String originalFilename) {
+        return UUID.randomUUID() + "_" + sanitizeFileName(originalFilename);
+    }
+
     /**
      * Sanitizes a filename by removing special characters, emojis, and spaces
      * that are not allowed in Supabase Storage keys
@@ -0,0 +1,317 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Files on local disk, keyed by an arbitrary string, evicted least recently used first
+ * once their total size passes {@code maxBytes}. Entries are written to a temp file and
+ * moved into place, so a reader never sees a partial file. The index lives in memory
+ * and is rebuilt from the directory on startup, oldest modification first.
+ *
+ * <p>An entry can be pinned for something that opens the path later, like a deferred
+ * sendfile: it gets a hard link that outlives eviction until {@link #sweepPins} removes
+ * it. By then the reader has the file open, and an open file stays readable.
+ */
+public class DiskLruCache {
+    private static final Logger log = LoggerFactory.getLogger(DiskLruCache.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Not two hex characters, so it cannot clash with a shard directory
+    private static final String PINS = "pins";
+
+    private final Path root;
+    private final Path pins;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Key hash to file size, in access order
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+
+    public DiskLruCache(Path root, long maxBytes, String name, MeterRegistry meterRegistry) {
+        this.root = root;
+        this.pins = root.resolve(PINS);
+        this.maxBytes = maxBytes;
+        // A single object may take at most an eighth of the cache, so one upload cannot flush it
+        this.maxEntryBytes = maxBytes / 8;
+        try {
+            Files.createDirectories(pins);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open disk cache at " + root, e);
+        }
+        new Binder(this, name).bindTo(meterRegistry);
+        Gauge.builder("media.storage.cache.bytes", this, c -> c.locked(() -> c.totalBytes))
+                .tag("cache", name)
+                .description("Bytes held by the disk cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached file for {@code key}, counted as a hit or a miss. It may be evicted at any
+     * moment, so open it right away and expect {@link NoSuchFileException}, or {@link #pin} it.
+     */
+    public Optional<Path> get(String key) {
+        String hash = hash(key);
+        lock.lock();
+        try {
+            if (index.get(hash) == null) {
+                misses++;
+                return Optional.empty();
+            }
+            hits++;
+        } finally {
+            lock.unlock();
+        }
+        return existing(hash);
+    }
+
+    /** Like {@link #get}, but not counted, for a caller that already counted its lookup. */
+    Optional<Path> find(String key) {
+        String hash = hash(key);
+        return locked(() -> index.containsKey(hash)) ? existing(hash) : Optional.empty();
+    }
+
+    /**
+     * A new path to {@code file}, one returned by {@link #get} or {@link #put}, that stays
+     * valid after eviction until {@link #sweepPins} finds it expired.
+     *
+     * @throws NoSuchFileException if the file was evicted already
+     */
+    public Path pin(Path file) throws IOException {
+        Path link = pins.resolve(System.currentTimeMillis() + "-" + UUID.randomUUID());
+        return Files.createLink(link, file);
+    }
+
+    /** Removes pins made more than {@code ttl} ago; returns how many. */
+    public int sweepPins(Duration ttl) {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int removed = 0;
+        try (Stream<Path> links = Files.list(pins)) {
+            for (Path link : (Iterable<Path>) links::iterator) {
+                // A link shares the file's modification time, so the pin time is in its name
+                String name = link.getFileName().toString();
+                if (Long.parseLong(name.substring(0, name.indexOf('-'))) < cutoff && Files.deleteIfExists(link)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[DiskCache] Pin sweep failed: {}", e.getMessage());
+        }
+        return removed;
+    }
+
+    private Optional<Path> existing(String hash) {
+        Path file = pathOf(hash);
+        if (!Files.isRegularFile(file)) {
+            // Removed behind our back
+            forget(hash);
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Copies {@code content} into the cache under {@code key} and returns the file. Entries
+     * larger than an eighth of the cache are not stored; empty is returned for them.
+     */
+    public Optional<Path> put(String key, InputStream content) throws IOException {
+        String hash = hash(key);
+        Path file = pathOf(hash);
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(hash + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        long size;
+        try {
+            size = Files.copy(content, temp);
+            if (size > maxEntryBytes) {
+                Files.delete(temp);
+                return Optional.empty();
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        List<String> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = index.put(hash, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            puts++;
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(hash)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+                evictions++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Readers that already opened an evicted file keep reading it, and pinned paths
+        // still lead to it; only this name goes
+        for (String old : evicted) {
+            Files.deleteIfExists(pathOf(old));
+        }
+        return Optional.of(file);
+    }
+
+    public void remove(String key) {
+        String hash = hash(key);
+        forget(hash);
+        try {
+            Files.deleteIfExists(pathOf(hash));
+        } catch (IOException e) {
+            log.warn("[DiskCache] Could not delete {}: {}", pathOf(hash), e.getMessage());
+        }
+    }
+
+    private void forget(String hash) {
+        lock.lock();
+        try {
+            Long size = index.remove(hash);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        record Found(String hash, long size, long modified) {
+        }
+        List<Found> found = new ArrayList<>();
+        // Pins from before a restart have no reader left
+        try (Stream<Path> links = Files.list(pins)) {
+            for (Path link : (Iterable<Path>) links::iterator) {
+                Files.deleteIfExists(link);
+            }
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> !f.startsWith(pins) && Files.isRegularFile(f))::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Left over from a write that never finished
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                found.add(new Found(name, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        }
+        found.sort(Comparator.comparingLong(Found::modified));
+        for (Found f : found) {
+            index.put(f.hash(), f.size());
+            totalBytes += f.size();
+        }
+        log.info("[DiskCache] {} cached files, {} bytes in {}", index.size(), totalBytes, root);
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String hash(String key) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private <T> T locked(Supplier<T> read) {
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Binder extends CacheMeterBinder<DiskLruCache> {
+
+        Binder(DiskLruCache cache, String name) {
+            super(cache, name, Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            DiskLruCache cache = getCache();
+            return cache == null ? null : cache.locked(() -> (long) cache.index.size());
+        }
+
+        @Override
+        protected long hitCount() {
+            DiskLruCache cache = getCache();
+            return cache == null ? 0 : cache.locked(() -> cache.hits);
+        }
+
+        @Override
+        protected Long missCount() {
+            DiskLruCache cache = getCache();
+            return cache == null ? null : cache.locked(() -> cache.misses);
+        }
+
+        @Override
+        protected Long evictionCount() {
+            DiskLruCache cache = getCache();
+            return cache == null ? null : cache.locked(() -> cache.evictions);
+        }
+
+        @Override
+        protected long putCount() {
+            DiskLruCache cache = getCache();
+            return cache == null ? 0 : cache.locked(() -> cache.puts);
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Reads pixel dimensions from an image header without decoding any pixels, so an
+ * image can be sized up before anything tries to allocate it. WebP has no ImageIO
+ * reader in the JDK and is read from its RIFF header directly.
+ */
+public final class ImageProbe {
+
+    /** Enough leading bytes for every WebP header variant. */
+    public static final int HEADER_LENGTH = 30;
+
+    public record Dimensions(int width, int height) {
+        public long pixels() {
+            return (long) width * height;
+        }
+    }
+
+    private ImageProbe() {
+    }
+
+    /**
+     * Dimensions of the first image in {@code in}, which must be positioned at its start;
+     * {@code header} holds its first {@value #HEADER_LENGTH} bytes (fewer if it is shorter).
+     * Returns null if the format is not recognized.
+     *
+     * @throws IIOException if the header is recognized but malformed
+     */
+    public static Dimensions probe(ImageInputStream in, byte[] header) throws IOException {
+        if (isWebP(header)) {
+            return webp(header);
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, true, true);
+            return new Dimensions(reader.getWidth(0), reader.getHeight(0));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static boolean isWebP(byte[] b) {
+        return b.length >= 16 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P';
+    }
+
+    private static Dimensions webp(byte[] b) throws IOException {
+        if (b.length < HEADER_LENGTH) {
+            throw new IIOException("Truncated WebP header");
+        }
+        String chunk = new String(b, 12, 4, StandardCharsets.US_ASCII);
+        switch (chunk) {
+            case "VP8X":
+                // Extended format: 24-bit canvas width and height, each minus one
+                return new Dimensions(uint24(b, 24) + 1, uint24(b, 27) + 1);
+            case "VP8L":
+                // Lossless: after the 0x2f signature, 14 bits each of width and height, minus one
+                if ((b[20] & 0xFF) != 0x2F) {
+                    throw new IIOException("Bad VP8L signature");
+                }
+                int bits = (b[21] & 0xFF) | (b[22] & 0xFF) << 8 | (b[23] & 0xFF) << 16 | (b[24] & 0xFF) << 24;
+                return new Dimensions((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+            case "VP8 ":
+                // Lossy: 14-bit width and height after the key frame start code
+                if ((b[23] & 0xFF) != 0x9D || (b[24] & 0xFF) != 0x01 || (b[25] & 0xFF) != 0x2A) {
+                    throw new IIOException("Bad VP8 start code");
+                }
+                return new Dimensions(uint16(b, 26) & 0x3FFF, uint16(b, 28) & 0x3FFF);
+            default:
+                throw new IIOException("Unknown WebP chunk " + chunk);
+        }
+    }
+
+    private static int uint16(byte[] b, int offset) {
+        return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24(byte[] b, int offset) {
+        return uint16(b, offset) | (b[offset + 2] & 0xFF) << 16;
+    }
+}
@@ -0,0 +1,123 @@
+package sn.dev.media_service.services.impl;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.IntBinaryOperator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Downscales decoded images. Sources with transparency stay PNG, everything else
+ * becomes a JPEG.
+ */
+public final class ImageVariants {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    public record Rendered(byte[] bytes, int width, int height, String contentType, String extension) {
+    }
+
+    private ImageVariants() {
+    }
+
+    /**
+     * Decodes the first image in {@code bytes}, letting the reader skip pixels so the
+     * shorter side comes out between {@code minSide} and twice that. Most of the cost of
+     * a full decode is never paid. Returns null if no reader handles the format.
+     */
+    public static BufferedImage decodeSubsampled(byte[] bytes, int minSide) throws IOException {
+        return decode(bytes, minSide, Math::min);
+    }
+
+    /**
+     * Like {@link #decodeSubsampled}, but the width comes out between {@code minWidth}
+     * and twice that. An image narrower than {@code minWidth} is decoded in full.
+     */
+    public static BufferedImage decodeToWidth(byte[] bytes, int minWidth) throws IOException {
+        return decode(bytes, minWidth, (width, height) -> width);
+    }
+
+    private static BufferedImage decode(byte[] bytes, int minSide, IntBinaryOperator side) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, side.applyAsInt(reader.getWidth(0), reader.getHeight(0)) / minSide);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Scales {@code source} to {@code width}, keeping its aspect ratio, and encodes it. */
+    public static Rendered render(BufferedImage source, int width) throws IOException {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage scaled = scale(source, width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(scaled, "png", out);
+            return new Rendered(out.toByteArray(), width, height, "image/png", ".png");
+        }
+        writeJpeg(scaled, out);
+        return new Rendered(out.toByteArray(), width, height, "image/jpeg", ".jpg");
+    }
+
+    /**
+     * Halves the image with bilinear filtering until one more step reaches the target;
+     * a single bilinear pass over a large ratio skips most source pixels and aliases.
+     */
+    private static BufferedImage scale(BufferedImage source, int width, int height, int type) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage step = new BufferedImage(w, h, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
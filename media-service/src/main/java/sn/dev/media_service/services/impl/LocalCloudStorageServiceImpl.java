@@ -0,0 +1,86 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import sn.dev.media_service.services.CloudStorageService;
+
+/**
+ * Stores media on local disk ({@code media.storage.type=local}); files are served
+ * back by {@code GET /api/media/files/**}.
+ */
+@Service
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "local")
+public class LocalCloudStorageServiceImpl implements CloudStorageService {
+
+    private final LocalFileStore fileStore;
+    private final String publicUrl;
+
+    public LocalCloudStorageServiceImpl(LocalFileStore fileStore,
+            @Value("${media.storage.public-url}") String publicUrl) {
+        this.fileStore = fileStore;
+        this.publicUrl = publicUrl;
+    }
+
+    @Override
+    public String upload(InputStreamSource content, long size, String contentType, String originalFilename) {
+        try (InputStream in = content.getInputStream()) {
+            return publicUrl + "/" + fileStore.store(in, originalFilename);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store file on local disk", e);
+        }
+    }
+
+    @Override
+    public InputStream download(String url) throws IOException {
+        Path file = fileStore.resolve(keyOf(url))
+                .orElseThrow(() -> new FileNotFoundException("No stored file for " + url));
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public Optional<Path> localFile(String url) {
+        return fileStore.resolve(keyOf(url));
+    }
+
+    @Override
+    public void delete(String url) {
+        try {
+            fileStore.delete(keyOf(url));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to delete file from local disk", e);
+        }
+    }
+
+    @Override
+    public StoredObjectPage list(String cursor, int limit) throws IOException {
+        List<String> keys = fileStore.keysAfter(cursor, limit);
+        List<StoredObject> objects = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Optional<Path> file = fileStore.resolve(key);
+            if (file.isPresent()) {
+                objects.add(new StoredObject(publicUrl + "/" + key, Files.getLastModifiedTime(file.get()).toInstant()));
+            }
+        }
+        return new StoredObjectPage(objects, keys.size() < limit ? null : keys.get(keys.size() - 1));
+    }
+
+    private String keyOf(String url) {
+        String prefix = publicUrl + "/";
+        if (url == null || !url.startsWith(prefix)) {
+            throw new IllegalArgumentException("Not a locally stored file: " + url);
+        }
+        return url.substring(prefix.length());
+    }
+}
@@ -0,0 +1,152 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed files under {@code media.storage.path}. A file is stored as
+ * {@code ab/cd/<sha256><ext>}, where {@code ab} and {@code cd} are the first two bytes
+ * of its SHA-256, so directories stay small and identical uploads share one file.
+ */
+@Component
+public class LocalFileStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,5}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path root;
+
+    public LocalFileStore(@Value("${media.storage.path}") String storagePath) {
+        this.root = Path.of(storagePath).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Copies {@code content} to a temporary file while hashing it, then moves it into
+     * place. Returns the storage key. Does not close {@code content}.
+     */
+    public String store(InputStream content, String originalFilename) throws IOException {
+        Path tmpDir = Files.createDirectories(root.resolve(".tmp"));
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                new DigestInputStream(content, digest).transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String key = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extensionOf(originalFilename);
+
+            Path target = root.resolve(key);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                // Reused: refresh the timestamp so orphan GC treats the file as just uploaded
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Returns the stored file for a key produced by {@link #store}, if present. */
+    public Optional<Path> resolve(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path file = root.resolve(key);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /** Deletes the file for a key produced by {@link #store}; unknown keys are ignored. */
+    public void delete(String key) throws IOException {
+        Optional<Path> file = resolve(key);
+        if (file.isPresent()) {
+            Files.deleteIfExists(file.get());
+        }
+    }
+
+    /**
+     * Keys of stored files sorted ascending, starting after {@code afterKey} (null for the
+     * first). Shard directories are visited in key order from the one holding
+     * {@code afterKey}, so a page lists only the directories it takes keys from.
+     */
+    public List<String> keysAfter(String afterKey, int limit) throws IOException {
+        if (afterKey != null && !KEY.matcher(afterKey).matches()) {
+            throw new IllegalArgumentException("Not a storage key: " + afterKey);
+        }
+        String fromShard = afterKey == null ? "" : afterKey.substring(0, 2);
+        String fromSubShard = afterKey == null ? "" : afterKey.substring(3, 5);
+        List<String> keys = new ArrayList<>(limit);
+        for (String shard : shardsFrom(root, fromShard)) {
+            for (String subShard : shardsFrom(root.resolve(shard), shard.equals(fromShard) ? fromSubShard : "")) {
+                String prefix = shard + "/" + subShard + "/";
+                try (Stream<Path> files = Files.list(root.resolve(shard).resolve(subShard))) {
+                    files.map(file -> prefix + file.getFileName())
+                            .filter(key -> KEY.matcher(key).matches())
+                            .filter(key -> afterKey == null || key.compareTo(afterKey) > 0)
+                            .sorted()
+                            .limit(limit - keys.size())
+                            .forEach(keys::add);
+                }
+                if (keys.size() == limit) {
+                    return keys;
+                }
+            }
+        }
+        return keys;
+    }
+
+    /** Shard directory names in {@code dir} from {@code from} on, sorted. */
+    private static List<String> shardsFrom(Path dir, String from) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.map(entry -> entry.getFileName().toString())
+                    .filter(name -> SHARD.matcher(name).matches() && name.compareTo(from) >= 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static String extensionOf(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = filename.substring(dot).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import sn.dev.media_service.data.entities.Blob;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.CloudStorageService.StoredObjectPage;
+import sn.dev.media_service.services.MediaGcService;
+import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.ProductServiceClient;
+
+/**
+ * Nightly cleanup. Both sweeps page through their source, pause between pages so
+ * MongoDB, product-service and storage see a steady trickle rather than a burst, and
+ * leave anything younger than the grace period alone because it may belong to an upload
+ * still in progress.
+ */
+@Service
+public class MediaGcServiceImpl implements MediaGcService {
+    private static final Logger log = LoggerFactory.getLogger(MediaGcServiceImpl.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaService mediaService;
+    private final CloudStorageService cloudStorageService;
+    private final ProductServiceClient productServiceClient;
+
+    private final boolean enabled;
+    private final int pageSize;
+    private final Duration pageDelay;
+    private final Duration grace;
+    private final Instant objectsCreatedAfter;
+
+    public MediaGcServiceImpl(MongoTemplate mongoTemplate, MediaService mediaService,
+            CloudStorageService cloudStorageService, ProductServiceClient productServiceClient,
+            @Value("${media.gc.enabled:true}") boolean enabled,
+            @Value("${media.gc.page-size:200}") int pageSize,
+            @Value("${media.gc.page-delay:500ms}") Duration pageDelay,
+            @Value("${media.gc.grace-period:1h}") Duration grace,
+            @Value("${media.gc.objects-created-after:}") String objectsCreatedAfter) {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaService = mediaService;
+        this.cloudStorageService = cloudStorageService;
+        this.productServiceClient = productServiceClient;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.pageDelay = pageDelay;
+        this.grace = grace;
+        this.objectsCreatedAfter = objectsCreatedAfter.isBlank() ? null : Instant.parse(objectsCreatedAfter);
+    }
+
+    @Scheduled(cron = "${media.gc.cron:0 15 3 * * *}")
+    public void collectGarbage() {
+        if (!enabled) {
+            return;
+        }
+        ensureIndexes();
+        try {
+            log.info("[MediaGc] Removed media of {} deleted products", sweepOrphanedMedia());
+            log.info("[MediaGc] Removed {} unreferenced stored objects", sweepOrphanedObjects());
+        } catch (RuntimeException e) {
+            log.warn("[MediaGc] Run aborted: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int sweepOrphanedMedia() {
+        // Media ids are ObjectIds, whose timestamp is the upload time
+        ObjectId horizon = new ObjectId(Date.from(Instant.now().minus(grace)));
+        ObjectId lastId = null;
+        int removedProducts = 0;
+        while (true) {
+            Criteria criteria = lastId == null
+                    ? Criteria.where("_id").lt(horizon)
+                    : Criteria.where("_id").lt(horizon).gt(lastId);
+            Query page = Query.query(criteria).with(Sort.by("_id")).limit(pageSize);
+            page.fields().include("productId");
+            List<Media> batch = mongoTemplate.find(page, Media.class);
+            if (batch.isEmpty()) {
+                return removedProducts;
+            }
+            lastId = new ObjectId(batch.get(batch.size() - 1).getId());
+
+            Set<String> productIds = batch.stream()
+                    .map(Media::getProductId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Set<String> existing = productServiceClient.findExistingIds(productIds);
+            for (String productId : productIds) {
+                if (!existing.contains(productId)) {
+                    mediaService.deleteByProductId(productId);
+                    removedProducts++;
+                }
+            }
+
+            if (batch.size() < pageSize) {
+                return removedProducts;
+            }
+            pause();
+        }
+    }
+
+    /**
+     * Only runs when {@code media.gc.objects-created-after} is set. Objects stored before
+     * blobs were reference-counted may be referenced from other services (e.g. avatar URLs
+     * kept by user-service), so only objects created after that instant are candidates.
+     */
+    @Override
+    public int sweepOrphanedObjects() {
+        if (objectsCreatedAfter == null) {
+            return 0;
+        }
+        Instant horizon = Instant.now().minus(grace);
+        String cursor = null;
+        int deleted = 0;
+        do {
+            StoredObjectPage page;
+            try {
+                page = cloudStorageService.list(cursor, pageSize);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to list stored objects", e);
+            }
+            List<String> candidates = page.objects().stream()
+                    .filter(object -> object.createdAt().isAfter(objectsCreatedAfter)
+                            && object.createdAt().isBefore(horizon))
+                    .map(CloudStorageService.StoredObject::url)
+                    .toList();
+
+            if (!candidates.isEmpty()) {
+                Set<String> referenced = referencedUrls(candidates);
+                List<String> orphans = candidates.stream().filter(url -> !referenced.contains(url)).toList();
+                if (!orphans.isEmpty()) {
+                    cloudStorageService.delete(orphans);
+                    deleted += orphans.size();
+                }
+            }
+
+            cursor = page.nextCursor();
+            if (cursor != null) {
+                pause();
+            }
+        } while (cursor != null);
+        return deleted;
+    }
+
+    /** URLs among {@code urls} that a blob, or a media stored before blobs existed, points to. */
+    private Set<String> referencedUrls(List<String> urls) {
+        Set<String> referenced = new HashSet<>();
+        Query blobs = Query.query(Criteria.where("url").in(urls));
+        blobs.fields().include("url");
+        mongoTemplate.find(blobs, Blob.class).forEach(blob -> referenced.add(blob.getUrl()));
+
+        Query media = Query.query(Criteria.where("imageUrl").in(urls));
+        media.fields().include("imageUrl");
+        mongoTemplate.find(media, Media.class).forEach(m -> referenced.add(m.getImageUrl()));
+        return referenced;
+    }
+
+    private void ensureIndexes() {
+        mongoTemplate.indexOps(Blob.class).createIndex(new Index().on("url", Sort.Direction.ASC).named("url"));
+        mongoTemplate.indexOps(Media.class).createIndex(new Index().on("imageUrl", Sort.Direction.ASC).named("imageUrl"));
+        mongoTemplate.indexOps(Media.class).createIndex(new Index().on("productId", Sort.Direction.ASC).named("productId"));
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pageDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+}
@@ -1,54 +1,242 @@
 package sn.dev.media_service.services.impl;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
+import javax.imageio.IIOException;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.data.entities.MediaVariant;
 import sn.dev.media_service.data.repos.MediaRepo;
+import sn.dev.media_service.services.BlobService;
 import sn.dev.media_service.services.CloudStorageService;
 import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.VariantService;
+import sn.dev.media_service.web.dto.MediaUploadResultDto;
 
 @Service
 public class MediaServiceImpl implements MediaService {
+    private static final Logger log = LoggerFactory.getLogger(MediaServiceImpl.class);
+
     private final MediaRepo mediaRepo;
     private final CloudStorageService cloudStorageService;
+    private final BlobService blobService;
+    private final VariantService variantService;
+    private final UploadAdmission uploadAdmission;
+    private final ProductMediaCache productMediaCache;
     
+    @Value("${file.upload.max-files:5}")
+    private int maxFiles;
+
+    @Value("${file.upload.batch-parallelism:4}")
+    private int batchParallelism;
+
+    // Decompression bomb guard: a few KB of compressed data can declare a huge canvas
+    @Value("${file.upload.max-dimension:10000}")
+    private int maxDimension;
+
+    @Value("${file.upload.max-pixels:40000000}")
+    private long maxPixels;
+
     // File size limit: 5MB
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
 
-    public MediaServiceImpl(MediaRepo mediaRepo, CloudStorageService cloudStorageService) {
+    /** What one pass over an image found: its SHA-256, length and pixel size. */
+    private record Inspection(String contentHash, long size, int width, int height) {
+    }
+
+    public MediaServiceImpl(MediaRepo mediaRepo, CloudStorageService cloudStorageService, BlobService blobService,
+            VariantService variantService, UploadAdmission uploadAdmission, ProductMediaCache productMediaCache) {
         this.mediaRepo = mediaRepo;
         this.cloudStorageService = cloudStorageService;
+        this.blobService = blobService;
+        this.variantService = variantService;
+        this.uploadAdmission = uploadAdmission;
+        this.productMediaCache = productMediaCache;
     }
 
     @Override
     public Media uploadAndSave(MultipartFile file, String productId) {
-        // 1. Validate file
-        validateFile(file);
+        try (UploadAdmission.Permit permit = uploadAdmission.admit(1, sizeOf(file))) {
+            // 1-2. Validate and upload the file
+            Media media = storeMedia(file, productId);
 
-        // 2. Upload file to cloud (e.g., Cloudinary, S3)
-        String imageUrl = cloudStorageService.upload(file);
+            // 3. Save media info to MongoDB
+            Media saved;
+            try {
+                saved = mediaRepo.save(media);
+            } catch (RuntimeException e) {
+                blobService.release(media.getContentHash());
+                throw e;
+            }
+            productMediaCache.invalidate(productId);
 
-        // 3. Save media info to MongoDB
-        Media media = new Media();
-        media.setImageUrl(imageUrl);
-        media.setProductId(productId);
+            // 4. Resized variants are generated in the background
+            enqueueVariants(saved);
+            return saved;
+        }
+    }
 
-        return mediaRepo.save(media);
+    @Override
+    public List<MediaUploadResultDto> uploadAndSaveAll(List<MultipartFile> files, String productId) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("At most " + maxFiles + " files can be uploaded at once");
+        }
+
+        long totalBytes = files.stream().mapToLong(MediaServiceImpl::sizeOf).sum();
+        try (UploadAdmission.Permit permit = uploadAdmission.admit(files.size(), totalBytes)) {
+            return storeAndSaveAll(files, productId);
+        }
+    }
+
+    private List<MediaUploadResultDto> storeAndSaveAll(List<MultipartFile> files, String productId) {
+        // 1-2. Validate and upload every file concurrently, at most batchParallelism at a time
+        Semaphore slots = new Semaphore(Math.max(1, batchParallelism));
+        List<Future<Media>> uploads = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                uploads.add(executor.submit(() -> {
+                    slots.acquire();
+                    try {
+                        return storeMedia(file, productId);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+        }
+
+        // 3. Save all successfully stored files in one round trip
+        List<Media> stored = uploads.stream()
+                .filter(upload -> upload.state() == Future.State.SUCCESS)
+                .map(Future::resultNow)
+                .toList();
+        List<Media> saved;
+        try {
+            saved = stored.isEmpty() ? List.of() : mediaRepo.saveAll(stored);
+        } catch (RuntimeException e) {
+            blobService.release(stored.stream().map(Media::getContentHash).toList());
+            throw e;
+        }
+        productMediaCache.invalidate(productId);
+
+        // 4. Resized variants are generated in the background
+        saved.forEach(this::enqueueVariants);
+
+        Iterator<Media> savedInOrder = saved.iterator();
+        List<MediaUploadResultDto> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String fileName = files.get(i).getOriginalFilename();
+            Future<Media> upload = uploads.get(i);
+            results.add(upload.state() == Future.State.SUCCESS
+                    ? MediaUploadResultDto.uploaded(i, fileName, savedInOrder.next())
+                    : MediaUploadResultDto.failed(i, fileName, describeFailure(fileName, upload.exceptionNow())));
+        }
+        return results;
     }
 
     @Override
     public String uploadImage(MultipartFile file) {
-        // 1. Validate file
-        validateFile(file);
+        try (UploadAdmission.Permit permit = uploadAdmission.admit(1, sizeOf(file))) {
+            // 1. Validate file
+            validateFile(file);
 
-        // 2. Upload file to cloud (e.g., Cloudinary, S3)
-        return cloudStorageService.upload(file);
+            // 2. Upload file to cloud (e.g., Cloudinary, S3), or reuse an identical one.
+            // Nothing tracks where the URL ends up, so this reference is never released.
+            return storeBlob(file, inspect(file).contentHash());
+        }
+    }
+
+    @Override
+    public void validateUpload(String fileName, String contentType, long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("File cannot be null or empty");
+        }
+        validateFileName(fileName);
+        validateFileSize(size);
+        validateContentType(contentType);
+    }
+
+    @Override
+    public Media saveStoredUpload(String objectUrl, String contentType, String productId) {
+        validateContentType(contentType);
+
+        // 1. Read the object back once: check it like any upload (the client may have sent
+        // something else than it declared) and hash it
+        Inspection inspection;
+        try (InputStream in = cloudStorageService.download(objectUrl)) {
+            inspection = inspect(in, contentType);
+        } catch (FileNotFoundException | HttpClientErrorException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No uploaded file found in storage");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file " + objectUrl, e);
+        }
+        String contentHash = inspection.contentHash();
+
+        // 2. Take a reference on the blob; the object is already stored, so nothing is uploaded
+        String imageUrl = blobService.acquire(contentHash, inspection.size(), () -> objectUrl);
+
+        Media media = new Media();
+        media.setImageUrl(imageUrl);
+        media.setProductId(productId);
+        media.setContentHash(contentHash);
+        media.setWidth(inspection.width());
+        media.setHeight(inspection.height());
+
+        // 3. Save media info to MongoDB
+        Media saved;
+        try {
+            saved = mediaRepo.save(media);
+        } catch (RuntimeException e) {
+            blobService.release(contentHash);
+            throw e;
+        }
+        productMediaCache.invalidate(productId);
+
+        // 4. Resized variants are generated in the background
+        enqueueVariants(saved);
+        return saved;
+    }
+
+    /**
+     * The media is saved by now and the client must hear so; without a job it simply keeps
+     * being served at its original size.
+     */
+    private void enqueueVariants(Media saved) {
+        try {
+            variantService.enqueue(saved);
+        } catch (RuntimeException e) {
+            log.warn("[Media] Could not queue variants for {}: {}", saved.getId(), e.getMessage());
+        }
     }
 
     @Override
@@ -59,17 +247,87 @@ public class MediaServiceImpl implements MediaService {
 
     @Override
     public List<Media> findByProductId(String productId) {
-        return mediaRepo.findByProductId(productId);
+        return productMediaCache.get(productId, () -> mediaRepo.findByProductId(productId));
+    }
+
+    @Override
+    public List<Media> findByProductIds(Collection<String> productIds) {
+        return mediaRepo.findByProductIdIn(productIds);
     }
 
     @Override
     public void deleteById(String id) {
-        mediaRepo.deleteById(id);
+        Media removed = mediaRepo.removeById(id);
+        if (removed != null) {
+            productMediaCache.invalidate(removed.getProductId());
+        }
+        List<String> hashes = new ArrayList<>();
+        collectBlobHashes(removed, hashes);
+        releaseBlobs(hashes);
     }
 
     @Override
     public void deleteByProductId(String productId) {
-        mediaRepo.deleteByProductId(productId);
+        List<String> hashes = new ArrayList<>();
+        for (Media media : mediaRepo.findByProductId(productId)) {
+            collectBlobHashes(mediaRepo.removeById(media.getId()), hashes);
+        }
+        productMediaCache.invalidate(productId);
+        // One release call, so storage deletes for the whole product go out batched
+        releaseBlobs(hashes);
+    }
+
+    private static void collectBlobHashes(Media removed, List<String> hashes) {
+        if (removed == null) {
+            return;
+        }
+        if (removed.getContentHash() != null) {
+            hashes.add(removed.getContentHash());
+        }
+        if (removed.getVariants() != null) {
+            for (MediaVariant variant : removed.getVariants()) {
+                hashes.add(variant.getContentHash());
+            }
+        }
+    }
+
+    private void releaseBlobs(List<String> hashes) {
+        if (!hashes.isEmpty()) {
+            blobService.release(hashes);
+        }
+    }
+
+    private static long sizeOf(MultipartFile file) {
+        return file == null ? 0 : file.getSize();
+    }
+
+    /**
+     * Validates and stores one file, returning the not yet saved Media for it.
+     */
+    private Media storeMedia(MultipartFile file, String productId) {
+        // Validate file
+        validateFile(file);
+
+        // Upload file to cloud (e.g., Cloudinary, S3), or reuse an identical one
+        Inspection inspection = inspect(file);
+        String imageUrl = storeBlob(file, inspection.contentHash());
+
+        Media media = new Media();
+        media.setImageUrl(imageUrl);
+        media.setProductId(productId);
+        media.setContentHash(inspection.contentHash());
+        media.setWidth(inspection.width());
+        media.setHeight(inspection.height());
+        return media;
+    }
+
+    /** Validation messages go back to the client; anything else is logged and reported generically. */
+    private String describeFailure(String fileName, Throwable failure) {
+        if (failure instanceof IllegalArgumentException) {
+            return failure.getMessage();
+        }
+        log.warn("Batch upload of {} failed: {}", fileName, failure.getMessage());
+        return "Upload failed";
     }
 
     /**
@@ -80,17 +338,92 @@ public class MediaServiceImpl implements MediaService {
             throw new IllegalArgumentException("File cannot be null or empty");
         }
 
-        // Validate file name
-        validateFileName(file.getOriginalFilename());
+        validateUpload(file.getOriginalFilename(), file.getContentType(), file.getSize());
+    }
 
-        // Validate file size
-        validateFileSize(file);
+    private Inspection inspect(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return inspect(in, file.getContentType());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Error reading file content", e);
+        }
+    }
 
-        // Validate content type
-        validateContentType(file);
+    /**
+     * Checks the magic number and the pixel dimensions from the header, then hashes the
+     * rest as it streams past, without decoding the image or holding it in memory.
+     */
+    private Inspection inspect(InputStream source, String contentType) throws IOException {
+        MessageDigest digest = sha256();
+        try (ImageInputStream in = new MemoryCacheImageInputStream(new DigestInputStream(source, digest))) {
+            byte[] header = readHeader(in);
+
+            // Validate file signature (magic numbers)
+            validateFileSignature(contentType, header);
+
+            // Validate dimensions before anything decodes the image
+            in.seek(0);
+            ImageProbe.Dimensions dimensions = validateDimensions(in, header);
+
+            // Hash the rest, dropping it from the cache as we go
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                in.flushBefore(in.getStreamPosition());
+                if (in.getStreamPosition() > MAX_FILE_SIZE) {
+                    throw new IllegalArgumentException("File size exceeds maximum limit of 5MB");
+                }
+            }
+            return new Inspection(HexFormat.of().formatHex(digest.digest()), in.getStreamPosition(),
+                    dimensions.width(), dimensions.height());
+        }
+    }
 
-        // Validate file signature (magic numbers)
-        validateFileSignature(file);
+    private static byte[] readHeader(ImageInputStream in) throws IOException {
+        byte[] header = new byte[ImageProbe.HEADER_LENGTH];
+        int length = 0;
+        for (int n; length < header.length && (n = in.read(header, length, header.length - length)) != -1;) {
+            length += n;
+        }
+        return Arrays.copyOf(header, length);
+    }
+
+    /**
+     * Reads width and height from the image header and checks them against the
+     * configured limits
+     */
+    private ImageProbe.Dimensions validateDimensions(ImageInputStream in, byte[] header) throws IOException {
+        ImageProbe.Dimensions dimensions;
+        try {
+            dimensions = ImageProbe.probe(in, header);
+        } catch (IIOException e) {
+            dimensions = null;
+        }
+        if (dimensions == null || dimensions.width() <= 0 || dimensions.height() <= 0) {
+            throw new IllegalArgumentException("Could not read image dimensions");
+        }
+        if (dimensions.width() > maxDimension || dimensions.height() > maxDimension
+                || dimensions.pixels() > maxPixels) {
+            throw new IllegalArgumentException("Image is " + dimensions.width() + "x" + dimensions.height()
+                    + "; at most " + maxDimension + " pixels per side and " + maxPixels + " in total are allowed");
+        }
+        return dimensions;
+    }
+
+    /**
+     * Takes a reference on the blob for {@code contentHash}. The multipart file is
+     * re-read and streamed to storage only if those bytes were never stored before.
+     */
+    private String storeBlob(MultipartFile file, String contentHash) {
+        return blobService.acquire(contentHash, file.getSize(), () -> cloudStorageService.upload(file, file.getSize(),
+                file.getContentType(), file.getOriginalFilename()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
@@ -117,8 +450,8 @@ public class MediaServiceImpl implements MediaService {
     /**
      * Validates file size against configured limit
      */
-    private void validateFileSize(MultipartFile file) {
-        if (file.getSize() > MAX_FILE_SIZE) {
+    private void validateFileSize(long size) {
+        if (size > MAX_FILE_SIZE) {
             throw new IllegalArgumentException("File size exceeds maximum limit of 5MB");
         }
     }
@@ -126,8 +459,7 @@ public class MediaServiceImpl implements MediaService {
     /**
      * Validates content type (MIME type)
      */
-    private void validateContentType(MultipartFile file) {
-        String contentType = file.getContentType();
+    private void validateContentType(String contentType) {
         if (contentType == null || !isSupportedImage(contentType)) {
             throw new IllegalArgumentException("Only JPEG, PNG, GIF and WEBP images are allowed.");
         }
@@ -136,43 +468,37 @@ public class MediaServiceImpl implements MediaService {
     /**
      * Validates file signature (magic numbers) to ensure file type matches content
      */
-    private void validateFileSignature(MultipartFile file) {
-        try {
-            byte[] bytes = file.getBytes();
-            if (bytes.length < 4) {
-                throw new IllegalArgumentException("File too small to be a valid image");
-            }
+    private void validateFileSignature(String contentType, byte[] bytes) {
+        if (bytes.length < 4) {
+            throw new IllegalArgumentException("File too small to be a valid image");
+        }
 
-            String contentType = file.getContentType();
-            if (contentType != null) {
-                switch (contentType.toLowerCase()) {
-                    case "image/jpeg":
-                    case "image/jpg":
-                        if (!isJPEG(bytes)) {
-                            throw new IllegalArgumentException("File content does not match JPEG format");
-                        }
-                        break;
-                    case "image/png":
-                        if (!isPNG(bytes)) {
-                            throw new IllegalArgumentException("File content does not match PNG format");
-                        }
-                        break;
-                    case "image/gif":
-                        if (!isGIF(bytes)) {
-                            throw new IllegalArgumentException("File content does not match GIF format");
-                        }
-                        break;
-                    case "image/webp":
-                        if (!isWebP(bytes)) {
-                            throw new IllegalArgumentException("File content does not match WebP format");
-                        }
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unsupported image format");
-                }
+        if (contentType != null) {
+            switch (contentType.toLowerCase()) {
+                case "image/jpeg":
+                case "image/jpg":
+                    if (!isJPEG(bytes)) {
+                        throw new IllegalArgumentException("File content does not match JPEG format");
+                    }
+                    break;
+                case "image/png":
+                    if (!isPNG(bytes)) {
+                        throw new IllegalArgumentException("File content does not match PNG format");
+                    }
+                    break;
+                case "image/gif":
+                    if (!isGIF(bytes)) {
+                        throw new IllegalArgumentException("File content does not match GIF format");
+                    }
+                    break;
+                case "image/webp":
+                    if (!isWebP(bytes)) {
+                        throw new IllegalArgumentException("File content does not match WebP format");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported image format");
             }
-        } catch (IOException e) {
-            throw new IllegalArgumentException("Error reading file content", e);
         }
     }
 
@@ -0,0 +1,158 @@
+package sn.dev.media_service.services.impl;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import sn.dev.media_service.data.entities.Media;
+
+/**
+ * In-process LRU of productId to its media, bounded by entry count. Products without
+ * images are cached too, as empty lists. Writes through this instance invalidate their
+ * product; the TTL bounds how long another instance's writes can go unseen. Exposed as
+ * the standard {@code cache.*} meters with {@code cache=productMedia}, plus
+ * {@code media.cache.hit.ratio}.
+ */
+@Component
+public class ProductMediaCache {
+
+    private record Entry(List<Media> media, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Bumped on every invalidation; a load that overlapped one is not stored
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long puts;
+    private long evictions;
+
+    public ProductMediaCache(MeterRegistry meterRegistry,
+            @Value("${media.cache.max-entries:10000}") int maxEntries,
+            @Value("${media.cache.ttl:5m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ProductMediaCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        new Binder(this).bindTo(meterRegistry);
+        Gauge.builder("media.cache.hit.ratio", this, ProductMediaCache::hitRatio)
+                .description("Share of product media lookups answered from the cache")
+                .register(meterRegistry);
+    }
+
+    /** Returns the cached media of a product, loading and caching them on a miss. */
+    public List<Media> get(String productId, Supplier<List<Media>> loader) {
+        long generation;
+        lock.lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                hits++;
+                return entry.media();
+            }
+            misses++;
+            generation = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        List<Media> media = List.copyOf(loader.get());
+
+        lock.lock();
+        try {
+            if (generation == invalidations && maxEntries > 0) {
+                entries.put(productId, new Entry(media, System.nanoTime() + ttlNanos));
+                puts++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return media;
+    }
+
+    public void invalidate(String productId) {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.remove(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double hitRatio() {
+        return locked(() -> hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+    }
+
+    private <T> T locked(Supplier<T> read) {
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Binder extends CacheMeterBinder<ProductMediaCache> {
+
+        Binder(ProductMediaCache cache) {
+            super(cache, "productMedia", Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            ProductMediaCache cache = getCache();
+            return cache == null ? null : cache.locked(() -> (long) cache.entries.size());
+        }
+
+        @Override
+        protected long hitCount() {
+            ProductMediaCache cache = getCache();
+            return cache == null ? 0 : cache.locked(() -> cache.hits);
+        }
+
+        @Override
+        protected Long missCount() {
+            ProductMediaCache cache = getCache();
+            return cache == null ? null : cache.locked(() -> cache.misses);
+        }
+
+        @Override
+        protected Long evictionCount() {
+            ProductMediaCache cache = getCache();
+            return cache == null ? null : cache.locked(() -> cache.evictions);
+        }
+
+        @Override
+        protected long putCount() {
+            ProductMediaCache cache = getCache();
+            return cache == null ? 0 : cache.locked(() -> cache.puts);
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package sn.dev.media_service.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import sn.dev.media_service.services.ProductServiceClient;
+
+@Service
+public class ProductServiceClientImpl implements ProductServiceClient {
+
+    // Cap of product-service's GET /api/products/batch
+    private static final int MAX_BATCH_IDS = 100;
+
+    private record ProductRef(String id) {
+    }
+
+    private final RestClient restClient;
+
+    public ProductServiceClientImpl(RestClient.Builder restClientBuilder,
+            @Value("${product.service.url}") String productServiceUrl) {
+        this.restClient = restClientBuilder.baseUrl(productServiceUrl).build();
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> productIds) {
+        List<String> ids = new ArrayList<>(productIds);
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_IDS) {
+            List<String> batch = ids.subList(from, Math.min(from + MAX_BATCH_IDS, ids.size()));
+            List<ProductRef> products = restClient.get()
+                    .uri(uri -> uri.path("/batch").queryParam("ids", String.join(",", batch)).build())
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<ProductRef>>() {
+                    });
+            if (products == null) {
+                throw new IllegalStateException("Empty response from product-service");
+            }
+            products.forEach(product -> existing.add(product.id()));
+        }
+        return existing;
+    }
+}
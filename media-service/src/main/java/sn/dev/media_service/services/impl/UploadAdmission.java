@@ -0,0 +1,167 @@
+package sn.dev.media_service.services.impl;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Caps how many uploads, and how many bytes, are processed at once. Requests over the
+ * cap wait in a short queue; when the queue is full, or the wait runs out, they are
+ * shed with 503 and {@code Retry-After} instead of piling up on the heap and the
+ * storage connection pool.
+ */
+@Component
+public class UploadAdmission {
+
+    /** 503 carrying a {@code Retry-After} header. */
+    public static class RejectedException extends ResponseStatusException {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        RejectedException(String reason, Duration retryAfter) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    /** Returned by {@link #admit}; closing it frees the capacity. Closing twice is harmless. */
+    public final class Permit implements AutoCloseable {
+        private final int uploads;
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int uploads, long bytes) {
+            this.uploads = uploads;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(uploads, bytes);
+            }
+        }
+    }
+
+    private final int maxInFlight;
+    private final long maxInFlightBytes;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition capacityFreed = lock.newCondition();
+    private int inFlight;
+    private long inFlightBytes;
+    private int queued;
+
+    private final Timer queueTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public UploadAdmission(MeterRegistry meterRegistry,
+            @Value("${media.upload.admission.max-in-flight:16}") int maxInFlight,
+            @Value("${media.upload.admission.max-in-flight-bytes:64MB}") DataSize maxInFlightBytes,
+            @Value("${media.upload.admission.max-queued:32}") int maxQueued,
+            @Value("${media.upload.admission.max-wait:2s}") Duration maxWait,
+            @Value("${media.upload.admission.retry-after:2s}") Duration retryAfter) {
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightBytes = maxInFlightBytes.toBytes();
+        this.maxQueued = maxQueued;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+
+        this.queueTimer = Timer.builder("media.upload.admission.queue")
+                .description("Time uploads waited for admission")
+                .register(meterRegistry);
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedTimeout = rejectedCounter(meterRegistry, "timeout");
+        Gauge.builder("media.upload.admission.in-flight", this, a -> a.inFlight).register(meterRegistry);
+        Gauge.builder("media.upload.admission.in-flight-bytes", this, a -> a.inFlightBytes).register(meterRegistry);
+        Gauge.builder("media.upload.admission.queued", this, a -> a.queued).register(meterRegistry);
+    }
+
+    /**
+     * Waits for room for {@code uploads} files totalling {@code bytes}. A request larger
+     * than the whole byte budget is still admitted once nothing else is in flight.
+     *
+     * @throws RejectedException if the wait queue is full or the wait times out
+     */
+    public Permit admit(int uploads, long bytes) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (!fits(uploads, bytes)) {
+                if (queued >= maxQueued) {
+                    rejectedQueueFull.increment();
+                    throw new RejectedException("Too many uploads in progress, retry later", retryAfter);
+                }
+                queued++;
+                try {
+                    long remaining = maxWait.toNanos();
+                    while (!fits(uploads, bytes)) {
+                        if (remaining <= 0) {
+                            rejectedTimeout.increment();
+                            throw new RejectedException("Too many uploads in progress, retry later", retryAfter);
+                        }
+                        remaining = capacityFreed.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedException("Upload interrupted while queued", retryAfter);
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight += uploads;
+            inFlightBytes += bytes;
+            return new Permit(uploads, bytes);
+        } finally {
+            lock.unlock();
+            queueTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean fits(int uploads, long bytes) {
+        if (inFlight == 0) {
+            return true;
+        }
+        return inFlight + uploads <= maxInFlight && inFlightBytes + bytes <= maxInFlightBytes;
+    }
+
+    private void release(int uploads, long bytes) {
+        lock.lock();
+        try {
+            inFlight -= uploads;
+            inFlightBytes -= bytes;
+            capacityFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("media.upload.admission.rejected")
+                .description("Uploads shed with 503")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
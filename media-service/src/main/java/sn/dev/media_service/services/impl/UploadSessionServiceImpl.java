@@ -0,0 +1,372 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.data.entities.UploadSession;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.CloudStorageService.PresignedUpload;
+import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.UploadSessionService;
+import sn.dev.media_service.web.dto.UploadSessionDto;
+import sn.dev.media_service.web.dto.UploadSessionRequestDto;
+import sn.dev.media_service.web.dto.UploadStatusDto;
+
+/**
+ * Sessions live in {@code upload_sessions}; state changes are conditional updates, so
+ * two finalize calls racing on one session save a single media. Every session stores
+ * its own fresh object, so one that ends up unused is deleted right away; only those of
+ * sessions never finalized are left to the orphan GC, which is why the session TTL must
+ * stay below {@code media.gc.grace-period}. Resumable sessions stage
+ * their chunks in {@link UploadStaging} and store the assembled file at finalize.
+ */
+@Service
+public class UploadSessionServiceImpl implements UploadSessionService {
+    private static final Logger log = LoggerFactory.getLogger(UploadSessionServiceImpl.class);
+
+    /** 409 carrying the offset to resume from in {@code Upload-Offset}. */
+    public static class OffsetMismatchException extends ResponseStatusException {
+        private final HttpHeaders headers = new HttpHeaders();
+
+        OffsetMismatchException(String reason, long offset) {
+            super(HttpStatus.CONFLICT, reason);
+            headers.set(UPLOAD_OFFSET, String.valueOf(offset));
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int ID_BYTES = 24;
+
+    // Expired sessions are kept this long, so a late finalize gets 410 rather than 404
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaService mediaService;
+    private final CloudStorageService cloudStorageService;
+    private final UploadAdmission uploadAdmission;
+    private final UploadStaging uploadStaging;
+    private final Duration ttl;
+    private final String publicUrl;
+
+    public UploadSessionServiceImpl(MongoTemplate mongoTemplate, MediaService mediaService,
+            CloudStorageService cloudStorageService, UploadAdmission uploadAdmission, UploadStaging uploadStaging,
+            @Value("${media.uploads.ttl:15m}") Duration ttl,
+            @Value("${media.uploads.public-url:http://localhost:9083/api/media/uploads}") String publicUrl) {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaService = mediaService;
+        this.cloudStorageService = cloudStorageService;
+        this.uploadAdmission = uploadAdmission;
+        this.uploadStaging = uploadStaging;
+        this.ttl = ttl;
+        this.publicUrl = publicUrl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Thread.ofVirtual().name("upload-session-indexes").start(() -> {
+            try {
+                mongoTemplate.indexOps(UploadSession.class).createIndex(new Index()
+                        .on("expiresAt", Sort.Direction.ASC).expire(RETENTION).named("expiresAt_ttl"));
+            } catch (RuntimeException e) {
+                log.warn("[Uploads] Could not create the session TTL index: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public UploadSessionDto create(UploadSessionRequestDto request) {
+        validate(request);
+        Optional<PresignedUpload> presigned = cloudStorageService.presignUpload(request.contentType(),
+                request.fileName());
+
+        UploadSession session = newSession(request);
+        session.setPresigned(presigned.isPresent());
+        session.setObjectUrl(presigned.map(PresignedUpload::objectUrl).orElse(null));
+        mongoTemplate.insert(session);
+
+        String uploadUrl = presigned.map(PresignedUpload::uploadUrl)
+                .orElse(publicUrl + "/" + session.getId() + "/content");
+        return new UploadSessionDto(session.getId(), uploadUrl, "PUT",
+                Map.of(HttpHeaders.CONTENT_TYPE, request.contentType()), session.getExpiresAt());
+    }
+
+    @Override
+    public UploadSessionDto createResumable(UploadSessionRequestDto request) {
+        validate(request);
+        UploadSession session = newSession(request);
+        session.setChunked(true);
+        mongoTemplate.insert(session);
+
+        return new UploadSessionDto(session.getId(), publicUrl + "/" + session.getId() + "/chunks", "PATCH",
+                Map.of(HttpHeaders.CONTENT_TYPE, "application/octet-stream", UPLOAD_OFFSET, "0"),
+                session.getExpiresAt());
+    }
+
+    @Override
+    public long receiveChunk(String id, long offset, InputStream body) {
+        UploadSession session = find(id);
+        if (!session.isChunked()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Not a resumable upload");
+        }
+        if (session.getStatus() != UploadSession.Status.PENDING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "All content was already received");
+        }
+        if (session.getExpiresAt().isBefore(Instant.now())) {
+            uploadStaging.delete(id);
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload session expired");
+        }
+        if (offset != session.getReceived()) {
+            throw new OffsetMismatchException("Upload continues at offset " + session.getReceived(),
+                    session.getReceived());
+        }
+
+        long received;
+        try {
+            received = uploadStaging.append(id, offset, body, session.getSize() - offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not stage chunk", e);
+        }
+        if (received < offset) {
+            // Staged bytes were swept or live on another instance; resume from what is here
+            recordReceived(session, offset, received);
+            throw new OffsetMismatchException("Staged content was lost; upload continues at offset " + received,
+                    received);
+        }
+        if (!recordReceived(session, offset, received)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload session changed concurrently");
+        }
+        return received;
+    }
+
+    @Override
+    public UploadStatusDto status(String id) {
+        UploadSession session = find(id);
+        long received = session.isChunked() ? session.getReceived()
+                : session.getStatus() == UploadSession.Status.PENDING ? 0 : session.getSize();
+        return new UploadStatusDto(id, session.getStatus(), session.getSize(), received, session.getExpiresAt());
+    }
+
+    /** Moves the offset on and the deadline with it; the last byte makes the session UPLOADED. */
+    private boolean recordReceived(UploadSession session, long offset, long received) {
+        Query at = Query.query(Criteria.where("_id").is(session.getId())
+                .and("status").is(UploadSession.Status.PENDING).and("received").is(offset));
+        Update update = new Update().set("received", received).set("expiresAt", Instant.now().plus(ttl));
+        if (received == session.getSize()) {
+            update.set("status", UploadSession.Status.UPLOADED);
+        }
+        return mongoTemplate.updateFirst(at, update, UploadSession.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public void receive(String id, InputStream body, long contentLength) {
+        UploadSession session = find(id);
+        if (session.isPresigned() || session.isChunked()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload to the session's upload URL instead");
+        }
+        if (session.getStatus() != UploadSession.Status.PENDING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Content was already received");
+        }
+        if (session.getExpiresAt().isBefore(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload session expired");
+        }
+        // The container stops reading at Content-Length, so matching it bounds the body
+        if (contentLength != session.getSize()) {
+            throw new IllegalArgumentException("Content-Length must match the declared size of "
+                    + session.getSize() + " bytes");
+        }
+
+        try (UploadAdmission.Permit permit = uploadAdmission.admit(1, session.getSize())) {
+            String objectUrl = cloudStorageService.upload(new InputStreamResource(body), session.getSize(),
+                    session.getContentType(), session.getFileName());
+
+            Query pending = Query.query(Criteria.where("_id").is(id).and("status").is(UploadSession.Status.PENDING));
+            Update uploaded = new Update().set("objectUrl", objectUrl).set("status", UploadSession.Status.UPLOADED);
+            if (mongoTemplate.updateFirst(pending, uploaded, UploadSession.class).getModifiedCount() == 0) {
+                // A concurrent PUT got there first; our copy is referenced by nothing
+                deleteQuietly(objectUrl);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Content was already received");
+            }
+        }
+    }
+
+    @Override
+    public Media finalizeUpload(String id) {
+        Criteria ready = new Criteria().orOperator(
+                Criteria.where("status").is(UploadSession.Status.UPLOADED),
+                Criteria.where("status").is(UploadSession.Status.PENDING).and("presigned").is(true));
+        Query claimable = Query.query(new Criteria().andOperator(
+                Criteria.where("_id").is(id).and("expiresAt").gt(Instant.now()), ready));
+        UploadSession session = mongoTemplate.findAndModify(claimable,
+                new Update().set("status", UploadSession.Status.FINALIZING),
+                FindAndModifyOptions.options().returnNew(true), UploadSession.class);
+        if (session == null) {
+            return explainNotClaimable(id);
+        }
+
+        if (session.isChunked() && session.getObjectUrl() == null) {
+            session.setObjectUrl(storeStaged(session));
+        }
+
+        Media media;
+        try {
+            media = mediaService.saveStoredUpload(session.getObjectUrl(), session.getContentType(),
+                    session.getProductId());
+        } catch (IllegalArgumentException e) {
+            // Not an acceptable image: drop it and let the client send another file
+            deleteQuietly(session.getObjectUrl());
+            if (session.isChunked()) {
+                uploadStaging.delete(id);
+                reset(session, new Update().set("status", UploadSession.Status.PENDING).set("objectUrl", null)
+                        .set("received", 0L));
+            } else {
+                reset(session, UploadSession.Status.PENDING, session.isPresigned() ? session.getObjectUrl() : null);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            reset(session, session.isPresigned() ? UploadSession.Status.PENDING : UploadSession.Status.UPLOADED,
+                    session.getObjectUrl());
+            throw e;
+        }
+
+        // Identical bytes were stored before; the fresh object is nobody else's
+        if (!session.getObjectUrl().equals(media.getImageUrl())) {
+            deleteQuietly(session.getObjectUrl());
+        }
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                new Update().set("status", UploadSession.Status.FINALIZED).set("mediaId", media.getId()),
+                UploadSession.class);
+        if (session.isChunked()) {
+            uploadStaging.delete(id);
+        }
+        return media;
+    }
+
+    /**
+     * Streams the staged file to storage. A staged file that is missing or short sends the
+     * session back to PENDING at the offset that is actually there.
+     */
+    private String storeStaged(UploadSession session) {
+        try {
+            Optional<Path> staged = uploadStaging.complete(session.getId(), session.getSize());
+            if (staged.isEmpty()) {
+                uploadStaging.delete(session.getId());
+                reset(session, new Update().set("status", UploadSession.Status.PENDING).set("received", 0L));
+                throw new OffsetMismatchException("Staged content was lost; upload continues at offset 0", 0);
+            }
+            try (UploadAdmission.Permit permit = uploadAdmission.admit(1, session.getSize())) {
+                return cloudStorageService.upload(new FileSystemResource(staged.get()), session.getSize(),
+                        session.getContentType(), session.getFileName());
+            }
+        } catch (OffsetMismatchException e) {
+            throw e;
+        } catch (IOException e) {
+            reset(session, UploadSession.Status.UPLOADED, null);
+            throw new UncheckedIOException("Could not read staged upload", e);
+        } catch (RuntimeException e) {
+            reset(session, UploadSession.Status.UPLOADED, null);
+            throw e;
+        }
+    }
+
+    private UploadSession find(String id) {
+        UploadSession session = mongoTemplate.findById(id, UploadSession.class);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload session not found");
+        }
+        return session;
+    }
+
+    /** A finalized session returns its media again; anything else says why it cannot be finalized. */
+    private Media explainNotClaimable(String id) {
+        UploadSession session = find(id);
+        if (session.getStatus() == UploadSession.Status.FINALIZED) {
+            return mediaService.findById(session.getMediaId());
+        }
+        if (session.getStatus() == UploadSession.Status.FINALIZING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already being finalized");
+        }
+        if (session.getExpiresAt().isBefore(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload session expired");
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "No content has been uploaded yet");
+    }
+
+    private void reset(UploadSession session, UploadSession.Status status, String objectUrl) {
+        reset(session, new Update().set("status", status).set("objectUrl", objectUrl));
+    }
+
+    private void reset(UploadSession session, Update update) {
+        Query finalizing = Query.query(Criteria.where("_id").is(session.getId())
+                .and("status").is(UploadSession.Status.FINALIZING));
+        mongoTemplate.updateFirst(finalizing, update, UploadSession.class);
+    }
+
+    private void validate(UploadSessionRequestDto request) {
+        if (request.productId() == null || request.productId().isBlank()) {
+            throw new IllegalArgumentException("productId is required");
+        }
+        mediaService.validateUpload(request.fileName(), request.contentType(), request.size());
+    }
+
+    private UploadSession newSession(UploadSessionRequestDto request) {
+        Instant now = Instant.now();
+        UploadSession session = new UploadSession();
+        session.setId(newId());
+        session.setProductId(request.productId());
+        session.setFileName(request.fileName());
+        session.setContentType(request.contentType());
+        session.setSize(request.size());
+        session.setStatus(UploadSession.Status.PENDING);
+        session.setCreatedAt(now);
+        session.setExpiresAt(now.plus(ttl));
+        return session;
+    }
+
+    private void deleteQuietly(String url) {
+        try {
+            cloudStorageService.delete(url);
+        } catch (RuntimeException e) {
+            log.warn("[Uploads] Could not delete {}; leaving it to the GC: {}", url, e.getMessage());
+        }
+    }
+
+    private static String newId() {
+        byte[] bytes = new byte[ID_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,139 @@
+package sn.dev.media_service.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Local files that resumable uploads are appended to, one per session, until the whole
+ * file is there to send to storage. Every chunk touches the file, so a file nobody has
+ * written to for the session TTL belongs to an abandoned upload and is swept. Staging
+ * is per host: chunks of one upload must reach the same instance, or share the path.
+ */
+@Component
+public class UploadStaging {
+    private static final Logger log = LoggerFactory.getLogger(UploadStaging.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Duration ttl;
+    // Sessions with a chunk being written; a second writer would interleave bytes
+    private final Set<String> writing = ConcurrentHashMap.newKeySet();
+
+    public UploadStaging(@Value("${media.uploads.staging-path:/tmp/media-uploads}") Path root,
+            @Value("${media.uploads.ttl:15m}") Duration ttl) {
+        this.root = root;
+        this.ttl = ttl;
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create upload staging at " + root, e);
+        }
+    }
+
+    /**
+     * Writes {@code body} at {@code offset} and returns the staged length afterwards. Bytes
+     * past the offset, left by a chunk that was never acknowledged, are dropped first. If
+     * fewer than {@code offset} bytes are staged, nothing is written and that shorter
+     * length is returned. A body cut off midway keeps the bytes that arrived.
+     *
+     * @throws IllegalArgumentException if the body holds more than {@code limit} bytes
+     */
+    public long append(String id, long offset, InputStream body, long limit) throws IOException {
+        if (!writing.add(id)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A chunk is already being written");
+        }
+        try (FileChannel channel = FileChannel.open(fileOf(id), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() < offset) {
+                return channel.size();
+            }
+            channel.truncate(offset);
+            channel.position(offset);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
+            while (true) {
+                int n;
+                try {
+                    n = body.read(buffer);
+                } catch (IOException e) {
+                    // The client went away; what it sent so far is the resume point
+                    log.debug("[Uploads] Chunk for {} cut off after {} bytes: {}", id, written, e.getMessage());
+                    break;
+                }
+                if (n == -1) {
+                    break;
+                }
+                if (written + n > limit) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("Chunk runs past the declared size");
+                }
+                channel.write(ByteBuffer.wrap(buffer, 0, n));
+                written += n;
+            }
+            // On disk before the offset is recorded, so a crash cannot leave it ahead of the data
+            channel.force(false);
+            return offset + written;
+        } finally {
+            writing.remove(id);
+        }
+    }
+
+    /** The staged file, if exactly {@code size} bytes are staged. */
+    public Optional<Path> complete(String id, long size) throws IOException {
+        Path file = fileOf(id);
+        return Files.isRegularFile(file) && Files.size(file) == size ? Optional.of(file) : Optional.empty();
+    }
+
+    public void delete(String id) {
+        try {
+            Files.deleteIfExists(fileOf(id));
+        } catch (IOException e) {
+            log.warn("[Uploads] Could not delete staged upload {}: {}", id, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${media.uploads.staging-sweep:5m}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(ttl);
+        int removed = 0;
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[Uploads] Staging sweep failed: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("[Uploads] Removed {} abandoned staged uploads", removed);
+        }
+    }
+
+    private Path fileOf(String id) {
+        // Session ids are base64url, so they are safe file names
+        return root.resolve(id);
+    }
+}
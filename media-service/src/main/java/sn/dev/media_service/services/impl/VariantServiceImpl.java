@@ -0,0 +1,276 @@
+package sn.dev.media_service.services.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.data.entities.MediaVariant;
+import sn.dev.media_service.data.entities.VariantJob;
+import sn.dev.media_service.services.BlobService;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.VariantService;
+
+/**
+ * Runs a fixed number of workers that claim jobs from {@code variant_jobs} with
+ * findAndModify, so several instances can share the queue. A claimed job holds a
+ * lease; if the worker dies, the job becomes claimable again once the lease expires.
+ */
+@Service
+public class VariantServiceImpl implements VariantService {
+    private static final Logger log = LoggerFactory.getLogger(VariantServiceImpl.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final CloudStorageService cloudStorageService;
+    private final BlobService blobService;
+    private final ProductMediaCache productMediaCache;
+
+    // Shorter side of the reduced decode the placeholder is computed from
+    private static final int PLACEHOLDER_SIDE = 32;
+
+    private final boolean enabled;
+    private final int[] widths;
+    private final boolean placeholder;
+    private final int workers;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    // Lets a local enqueue wake an idle worker instead of waiting for the next poll
+    private final Semaphore wakeups = new Semaphore(0);
+    private ExecutorService pool;
+    private volatile boolean running;
+
+    public VariantServiceImpl(MongoTemplate mongoTemplate, CloudStorageService cloudStorageService,
+            BlobService blobService, ProductMediaCache productMediaCache,
+            @Value("${media.variants.enabled:true}") boolean enabled,
+            @Value("${media.variants.widths:320,640,1280}") int[] widths,
+            @Value("${media.variants.placeholder:true}") boolean placeholder,
+            @Value("${media.variants.workers:2}") int workers,
+            @Value("${media.variants.poll-interval:5s}") Duration pollInterval,
+            @Value("${media.variants.lease:2m}") Duration lease,
+            @Value("${media.variants.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.cloudStorageService = cloudStorageService;
+        this.blobService = blobService;
+        this.productMediaCache = productMediaCache;
+        this.enabled = enabled;
+        this.widths = Arrays.stream(widths).filter(w -> w > 0).sorted().distinct().toArray();
+        this.placeholder = placeholder;
+        this.workers = workers;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void enqueue(Media media) {
+        if (!hasWork()) {
+            return;
+        }
+        VariantJob job = new VariantJob();
+        job.setMediaId(media.getId());
+        job.setStatus(VariantJob.Status.PENDING);
+        job.setRunAfter(Instant.now());
+        job.setCreatedAt(Instant.now());
+        mongoTemplate.insert(job);
+        wakeups.release();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!hasWork()) {
+            return;
+        }
+        running = true;
+        pool = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("media-variants-", 0).daemon().factory());
+        pool.submit(() -> {
+            mongoTemplate.indexOps(VariantJob.class)
+                    .createIndex(new Index().on("status", Sort.Direction.ASC).on("runAfter", Sort.Direction.ASC)
+                            .named("status_runAfter"));
+            return null;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.submit(this::work);
+        }
+        log.info("[Variants] Started {} workers for widths {}", workers, Arrays.toString(widths));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (pool != null) {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                VariantJob job = claimNext();
+                if (job == null) {
+                    wakeups.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                } else {
+                    process(job);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("[Variants] Worker error: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Claims the oldest due job, whether pending or abandoned by a worker whose lease ran out. */
+    private VariantJob claimNext() {
+        Instant now = Instant.now();
+        Query due = Query.query(Criteria.where("status").in(VariantJob.Status.PENDING, VariantJob.Status.RUNNING)
+                .and("runAfter").lte(now))
+                .with(Sort.by("runAfter"));
+        Update claim = new Update()
+                .set("status", VariantJob.Status.RUNNING)
+                .set("runAfter", now.plus(lease))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), VariantJob.class);
+    }
+
+    private boolean hasWork() {
+        return enabled && (widths.length > 0 || placeholder);
+    }
+
+    private boolean needsPlaceholder(Media media) {
+        return placeholder && media.getBlurHash() == null;
+    }
+
+    private boolean needsVariants(Media media) {
+        return widths.length > 0 && media.getVariants() == null;
+    }
+
+    private void process(VariantJob job) {
+        try {
+            Media media = mongoTemplate.findById(job.getMediaId(), Media.class);
+            // Deleted since upload, or already done by a worker that died before removing the job
+            if (media != null && (needsPlaceholder(media) || needsVariants(media))) {
+                // Uploads are capped at a few MB, so one download serves both decodes
+                byte[] original;
+                try (InputStream in = cloudStorageService.download(media.getImageUrl())) {
+                    original = in.readAllBytes();
+                }
+
+                // The placeholder is cheap; store it first so it does not wait for the variants
+                if (needsPlaceholder(media)) {
+                    savePlaceholder(media, original);
+                }
+                if (needsVariants(media)) {
+                    List<MediaVariant> variants = generate(media, original);
+                    long matched = mongoTemplate.updateFirst(
+                            Query.query(Criteria.where("_id").is(media.getId()).and("variants").is(null)),
+                            Update.update("variants", variants), Media.class).getMatchedCount();
+                    if (matched == 0 && !variants.isEmpty()) {
+                        blobService.release(variants.stream().map(MediaVariant::getContentHash).toList());
+                    }
+                }
+                productMediaCache.invalidate(media.getProductId());
+            }
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(job.getId())), VariantJob.class);
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    /** Computes the BlurHash from a reduced decode; the full image is never materialized. */
+    private void savePlaceholder(Media media, byte[] original) throws IOException {
+        BufferedImage small = ImageVariants.decodeSubsampled(original, PLACEHOLDER_SIDE);
+        if (small == null) {
+            return;
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(media.getId()).and("blurHash").is(null)),
+                Update.update("blurHash", BlurHash.encode(small)), Media.class);
+    }
+
+    /**
+     * Decodes at no more than about four times the widest variant rather than at full
+     * size, which for the largest uploads allowed would take over 100 MB of raster.
+     */
+    private List<MediaVariant> generate(Media media, byte[] original) throws Exception {
+        // Twice the widest variant, so the halving scaler still has pixels to average
+        BufferedImage source = ImageVariants.decodeToWidth(original, 2 * widths[widths.length - 1]);
+        if (source == null) {
+            // No decoder for this format (e.g. WebP); record that there is nothing to generate
+            log.info("[Variants] No decoder for media {}, skipping", media.getId());
+            return List.of();
+        }
+
+        List<MediaVariant> variants = new ArrayList<>();
+        try {
+            for (int width : widths) {
+                if (width >= source.getWidth()) {
+                    break;
+                }
+                ImageVariants.Rendered rendered = ImageVariants.render(source, width);
+                String hash = sha256Hex(rendered.bytes());
+                String url = blobService.acquire(hash, rendered.bytes().length, () -> cloudStorageService.upload(
+                        new ByteArrayResource(rendered.bytes()), rendered.bytes().length, rendered.contentType(),
+                        media.getId() + "_w" + width + rendered.extension()));
+                variants.add(new MediaVariant(rendered.width(), rendered.height(), url, hash));
+            }
+        } catch (Exception e) {
+            if (!variants.isEmpty()) {
+                blobService.release(variants.stream().map(MediaVariant::getContentHash).toList());
+            }
+            throw e;
+        }
+        return variants;
+    }
+
+    private void fail(VariantJob job, Exception e) {
+        Update update = new Update().set("lastError", String.valueOf(e.getMessage()));
+        if (job.getAttempts() >= maxAttempts) {
+            update.set("status", VariantJob.Status.FAILED);
+            log.warn("[Variants] Giving up on media {} after {} attempts: {}", job.getMediaId(), job.getAttempts(), e.getMessage());
+        } else {
+            // Exponential backoff: poll interval, doubled per attempt
+            Duration delay = pollInterval.multipliedBy(1L << Math.min(job.getAttempts(), 10));
+            update.set("status", VariantJob.Status.PENDING).set("runAfter", Instant.now().plus(delay));
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())), update, VariantJob.class);
+    }
+
+    private static String sha256Hex(byte[] bytes) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
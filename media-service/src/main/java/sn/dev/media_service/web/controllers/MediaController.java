@@ -1,5 +1,6 @@
 package sn.dev.media_service.web.controllers;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -9,7 +10,10 @@ import org.springframework.web.bind.annotation.*;
 // import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.web.dto.MediaUploadResultDto;
 
 @RequestMapping("/api/media")
 public interface MediaController {
@@ -17,12 +21,40 @@ public interface MediaController {
     ResponseEntity<Media> uploadNsave(@RequestParam MultipartFile file,
             @RequestParam String productId);
 
+    /**
+     * Uploads several images for one product. Every file gets its own status, so one
+     * invalid image does not reject the others.
+     */
+    @PutMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    ResponseEntity<List<MediaUploadResultDto>> uploadBatch(@RequestParam("files") List<MultipartFile> files,
+            @RequestParam String productId);
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     ResponseEntity<Map<String,String >> uploadImage(@RequestParam MultipartFile file);
 
     @GetMapping("/product/{productId}")
     ResponseEntity<List<Media>> getByProductId(@PathVariable String productId);
 
+    /** The media of several products in one lookup, e.g. for a page of products. */
+    @GetMapping("/products")
+    ResponseEntity<List<Media>> getByProductIds(@RequestParam List<String> productIds);
+
+    /**
+     * Serves a locally stored file. Names are content hashes, so responses are cached
+     * as immutable; single byte ranges are supported.
+     */
+    @GetMapping("/files/{shard}/{subShard}/{fileName}")
+    void serveFile(@PathVariable String shard, @PathVariable String subShard, @PathVariable String fileName,
+            HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+    /**
+     * Serves a media image, or its smallest variant at least {@code width} pixels wide,
+     * from a copy on this host. Remote storage is only hit the first time.
+     */
+    @GetMapping("/{id}/image")
+    void serveImage(@PathVariable String id, @RequestParam(required = false) Integer width,
+            HttpServletRequest request, HttpServletResponse response) throws IOException;
+
     @DeleteMapping("/{id}")
     ResponseEntity<Void> deleteById(@PathVariable String id);
 
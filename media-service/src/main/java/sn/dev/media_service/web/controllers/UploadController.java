@@ -0,0 +1,47 @@
+package sn.dev.media_service.web.controllers;
+
+import java.io.IOException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.services.UploadSessionService;
+import sn.dev.media_service.web.dto.UploadSessionDto;
+import sn.dev.media_service.web.dto.UploadSessionRequestDto;
+import sn.dev.media_service.web.dto.UploadStatusDto;
+
+/**
+ * Direct uploads: the client sends the file to the URL returned by {@code POST},
+ * then finalizes. Nothing but the small JSON calls goes through other services.
+ */
+@RequestMapping("/api/media/uploads")
+public interface UploadController {
+    @PostMapping
+    ResponseEntity<UploadSessionDto> create(@RequestBody UploadSessionRequestDto request);
+
+    /** Streaming target for backends that cannot presign; the raw file is the request body. */
+    @PutMapping("/{id}/content")
+    ResponseEntity<Void> receive(@PathVariable String id, HttpServletRequest request) throws IOException;
+
+    /** Opens a resumable upload: the file is sent in consecutive chunks, then finalized. */
+    @PostMapping("/resumable")
+    ResponseEntity<UploadSessionDto> createResumable(@RequestBody UploadSessionRequestDto request);
+
+    /**
+     * Appends the body at {@code Upload-Offset}, which must equal the bytes received so
+     * far; the response carries the new offset in the same header.
+     */
+    @PatchMapping("/{id}/chunks")
+    ResponseEntity<Void> receiveChunk(@PathVariable String id,
+            @RequestHeader(UploadSessionService.UPLOAD_OFFSET) long offset, HttpServletRequest request)
+            throws IOException;
+
+    /** How far an upload has got; a resumable upload continues from {@code received}. */
+    @GetMapping("/{id}")
+    ResponseEntity<UploadStatusDto> status(@PathVariable String id);
+
+    @PostMapping("/{id}/finalize")
+    ResponseEntity<Media> finalizeUpload(@PathVariable String id);
+}
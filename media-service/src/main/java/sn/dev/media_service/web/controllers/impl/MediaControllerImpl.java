@@ -1,24 +1,56 @@
 package sn.dev.media_service.web.controllers.impl;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.data.entities.MediaVariant;
+import sn.dev.media_service.services.CloudStorageService;
 import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.impl.LocalFileStore;
 import sn.dev.media_service.web.controllers.MediaController;
+import sn.dev.media_service.web.dto.MediaUploadResultDto;
 
 @RestController
 public class MediaControllerImpl implements MediaController {
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String PROVISIONAL = "public, max-age=60";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
     private final MediaService mediaService;
+    private final LocalFileStore localFileStore;
+    private final CloudStorageService cloudStorageService;
 
-    public MediaControllerImpl(MediaService mediaService) {
+    public MediaControllerImpl(MediaService mediaService, LocalFileStore localFileStore,
+            CloudStorageService cloudStorageService) {
         this.mediaService = mediaService;
+        this.localFileStore = localFileStore;
+        this.cloudStorageService = cloudStorageService;
     }
 
     @Override
@@ -27,6 +59,11 @@ public class MediaControllerImpl implements MediaController {
         return ResponseEntity.ok(media);
     }
 
+    @Override
+    public ResponseEntity<List<MediaUploadResultDto>> uploadBatch(List<MultipartFile> files, String productId) {
+        return ResponseEntity.ok(mediaService.uploadAndSaveAll(files, productId));
+    }
+
     @Override
     public ResponseEntity<Map<String,String>> uploadImage(MultipartFile file) {
         Map<String,String> url = new HashMap<>();
@@ -40,6 +77,128 @@ public class MediaControllerImpl implements MediaController {
         return ResponseEntity.ok(mediaList);
     }
 
+    @Override
+    public ResponseEntity<List<Media>> getByProductIds(List<String> productIds) {
+        return ResponseEntity.ok(mediaService.findByProductIds(productIds));
+    }
+
+    @Override
+    public void serveFile(String shard, String subShard, String fileName, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Path file = localFileStore.resolve(shard + "/" + subShard + "/" + fileName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found"));
+
+        // The file name is its content hash, so it doubles as a strong validator
+        sendFile(file, "\"" + fileName + "\"", fileName, IMMUTABLE, request, response);
+    }
+
+    @Override
+    public void serveImage(String id, Integer width, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Media media = mediaService.findById(id);
+        String url = media.getImageUrl();
+        String contentHash = media.getContentHash();
+        // Until variants exist the original answers a sized request, so only cache that briefly
+        String cacheControl = IMMUTABLE;
+        if (width != null) {
+            cacheControl = PROVISIONAL;
+            for (MediaVariant variant : media.getVariants() == null ? List.<MediaVariant>of() : media.getVariants()) {
+                if (variant.getWidth() >= width) {
+                    url = variant.getUrl();
+                    contentHash = variant.getContentHash();
+                    cacheControl = IMMUTABLE;
+                    break;
+                }
+            }
+        }
+        String name = URI.create(url).getPath();
+        String etag = "\"" + (contentHash != null ? contentHash : Integer.toHexString(url.hashCode())) + "\"";
+
+        try {
+            // Sendfile opens the path after we return, when an evicted copy would be gone,
+            // so it gets a pinned one
+            boolean sendfile = Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT));
+            Optional<Path> local = sendfile ? cloudStorageService.pinnedLocalFile(url)
+                    : cloudStorageService.localFile(url);
+            if (local.isPresent()) {
+                try {
+                    sendFile(local.get(), etag, name, cacheControl, request, response);
+                    return;
+                } catch (NoSuchFileException e) {
+                    // Evicted between lookup and open; fall through to the remote copy
+                }
+            }
+            // No local copy to send from; stream it through without range support
+            try (InputStream in = cloudStorageService.download(url)) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                response.setHeader(HttpHeaders.ETAG, etag);
+                response.setHeader("X-Content-Type-Options", "nosniff");
+                response.setContentType(MediaTypeFactory.getMediaType(name)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+                in.transferTo(response.getOutputStream());
+            }
+        } catch (FileNotFoundException | HttpClientErrorException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found in storage");
+        }
+    }
+
+    /**
+     * Sends a file with validators and single byte range support, through sendfile when
+     * the connector offers it. That opens the file only after we return, so the path must
+     * stay valid until then.
+     *
+     * @throws NoSuchFileException if the file is gone, before anything is written
+     */
+    private void sendFile(Path file, String etag, String name, String cacheControl, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            sendFile(channel, file, etag, name, cacheControl, request, response);
+        }
+    }
+
+    private void sendFile(FileChannel channel, Path file, String etag, String name, String cacheControl,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long size = channel.size();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        ByteRange range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), size);
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            return;
+        }
+        if (range == null) {
+            range = new ByteRange(0, size - 1);
+        } else {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(range.length());
+        if (range.length() <= 0) {
+            return;
+        }
+
+        // Tomcat's NIO connector can hand the file to the kernel (sendfile) after we return
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", range.start());
+            request.setAttribute("org.apache.tomcat.sendfile.end", range.end() + 1);
+            return;
+        }
+        // Without sendfile this is an ordinary buffered copy through the servlet stream
+        channel.position(range.start());
+        StreamUtils.copyRange(Channels.newInputStream(channel), response.getOutputStream(), 0, range.length() - 1);
+    }
+
     @Override
     public ResponseEntity<Void> deleteById(String id) {
         mediaService.deleteById(id);
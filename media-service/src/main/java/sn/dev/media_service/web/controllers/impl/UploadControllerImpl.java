@@ -0,0 +1,63 @@
+package sn.dev.media_service.web.controllers.impl;
+
+import java.io.IOException;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.services.UploadSessionService;
+import sn.dev.media_service.web.controllers.UploadController;
+import sn.dev.media_service.web.dto.UploadSessionDto;
+import sn.dev.media_service.web.dto.UploadSessionRequestDto;
+import sn.dev.media_service.web.dto.UploadStatusDto;
+
+@RestController
+public class UploadControllerImpl implements UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadControllerImpl(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @Override
+    public ResponseEntity<UploadSessionDto> create(UploadSessionRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.create(request));
+    }
+
+    @Override
+    public ResponseEntity<Void> receive(String id, HttpServletRequest request) throws IOException {
+        uploadSessionService.receive(id, request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<UploadSessionDto> createResumable(UploadSessionRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.createResumable(request));
+    }
+
+    @Override
+    public ResponseEntity<Void> receiveChunk(String id, long offset, HttpServletRequest request) throws IOException {
+        long received = uploadSessionService.receiveChunk(id, offset, request.getInputStream());
+        return ResponseEntity.noContent()
+                .header(UploadSessionService.UPLOAD_OFFSET, String.valueOf(received))
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<UploadStatusDto> status(String id) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(uploadSessionService.status(id));
+    }
+
+    @Override
+    public ResponseEntity<Media> finalizeUpload(String id) {
+        return ResponseEntity.ok(uploadSessionService.finalizeUpload(id));
+    }
+}
@@ -0,0 +1,20 @@
+package sn.dev.media_service.web.dto;
+
+import sn.dev.media_service.data.entities.Media;
+
+/**
+ * Outcome of one part of a batch upload, at the same {@code index} as in the request.
+ * {@code media} is set when UPLOADED, {@code error} when FAILED.
+ */
+public record MediaUploadResultDto(int index, String fileName, Status status, Media media, String error) {
+
+    public enum Status { UPLOADED, FAILED }
+
+    public static MediaUploadResultDto uploaded(int index, String fileName, Media media) {
+        return new MediaUploadResultDto(index, fileName, Status.UPLOADED, media, null);
+    }
+
+    public static MediaUploadResultDto failed(int index, String fileName, String error) {
+        return new MediaUploadResultDto(index, fileName, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,14 @@
+package sn.dev.media_service.web.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Where to send the file: {@code method} {@code uploadUrl} with {@code headers} and
+ * the raw bytes as body, then {@code POST /api/media/uploads/{id}/finalize} before
+ * {@code expiresAt}. Resumable uploads send the file in consecutive pieces instead,
+ * each with an {@code Upload-Offset} header; the deadline moves with every piece.
+ */
+public record UploadSessionDto(String id, String uploadUrl, String method, Map<String, String> headers,
+        Instant expiresAt) {
+}
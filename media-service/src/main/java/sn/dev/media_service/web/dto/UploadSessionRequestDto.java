@@ -0,0 +1,5 @@
+package sn.dev.media_service.web.dto;
+
+/** What the client is about to upload; checked before any bytes are sent. */
+public record UploadSessionRequestDto(String productId, String fileName, String contentType, long size) {
+}
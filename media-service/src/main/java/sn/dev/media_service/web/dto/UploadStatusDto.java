@@ -0,0 +1,10 @@
+package sn.dev.media_service.web.dto;
+
+import java.time.Instant;
+
+import sn.dev.media_service.data.entities.UploadSession;
+
+/** Progress of an upload session; a resumable upload continues from {@code received}. */
+public record UploadStatusDto(String id, UploadSession.Status status, long size, long received,
+        Instant expiresAt) {
+}
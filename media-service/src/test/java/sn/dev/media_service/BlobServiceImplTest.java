@@ -0,0 +1,129 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.DeleteResult;
+
+import sn.dev.media_service.data.entities.Blob;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.impl.BlobServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class BlobServiceImplTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CloudStorageService cloudStorageService;
+
+    @InjectMocks
+    private BlobServiceImpl blobService;
+
+    private static Blob blob(String url, long refCount) {
+        Blob blob = new Blob();
+        blob.setId("h1");
+        blob.setUrl(url);
+        blob.setRefCount(refCount);
+        return blob;
+    }
+
+    private void givenRefCountAfterUpdate(Blob... results) {
+        var stub = when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Blob.class)));
+        for (Blob result : results) {
+            stub = stub.thenReturn(result);
+        }
+    }
+
+    @Test
+    void acquire_knownHash_skipsUpload() {
+        givenRefCountAfterUpdate(blob("https://cdn/a.png", 2));
+        AtomicInteger uploads = new AtomicInteger();
+
+        String url = blobService.acquire("h1", 12, () -> "https://cdn/other.png" + uploads.incrementAndGet());
+
+        assertThat(url).isEqualTo("https://cdn/a.png");
+        assertThat(uploads).hasValue(0);
+        verify(mongoTemplate, never()).insert(any(Blob.class));
+        System.out.println("✅ MEDIA/BLOB: acquire_knownHash_skipsUpload() passed successfully.");
+    }
+
+    @Test
+    void acquire_newHash_uploadsAndInsertsWithOneReference() {
+        givenRefCountAfterUpdate((Blob) null);
+        when(mongoTemplate.insert(any(Blob.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        String url = blobService.acquire("h1", 12, () -> "https://cdn/a.png");
+
+        assertThat(url).isEqualTo("https://cdn/a.png");
+        verify(mongoTemplate).insert(argThat((Blob b) ->
+                b.getId().equals("h1") && b.getRefCount() == 1 && b.getUrl().equals("https://cdn/a.png")));
+        System.out.println("✅ MEDIA/BLOB: acquire_newHash_uploadsAndInsertsWithOneReference() passed successfully.");
+    }
+
+    @Test
+    void acquire_lostInsertRace_reusesWinnerAndDeletesOwnCopy() {
+        givenRefCountAfterUpdate(null, blob("https://cdn/winner.png", 2));
+        when(mongoTemplate.insert(any(Blob.class))).thenThrow(new DuplicateKeyException("dup"));
+
+        String url = blobService.acquire("h1", 12, () -> "https://cdn/mine.png");
+
+        assertThat(url).isEqualTo("https://cdn/winner.png");
+        verify(cloudStorageService).delete(List.of("https://cdn/mine.png"));
+        System.out.println("✅ MEDIA/BLOB: acquire_lostInsertRace_reusesWinnerAndDeletesOwnCopy() passed successfully.");
+    }
+
+    @Test
+    void release_lastReference_deletesObject() {
+        givenRefCountAfterUpdate(blob("https://cdn/a.png", 0));
+        when(mongoTemplate.remove(any(Query.class), eq(Blob.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        blobService.release("h1");
+
+        verify(cloudStorageService).delete(List.of("https://cdn/a.png"));
+        System.out.println("✅ MEDIA/BLOB: release_lastReference_deletesObject() passed successfully.");
+    }
+
+    @Test
+    void release_severalUnreferenced_deletesInOneBatch() {
+        givenRefCountAfterUpdate(blob("https://cdn/a.png", 0), blob("https://cdn/b.png", 3), blob("https://cdn/c.png", 0));
+        when(mongoTemplate.remove(any(Query.class), eq(Blob.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        blobService.release(List.of("h1", "h2", "h3"));
+
+        verify(cloudStorageService).delete(List.of("https://cdn/a.png", "https://cdn/c.png"));
+        System.out.println("✅ MEDIA/BLOB: release_severalUnreferenced_deletesInOneBatch() passed successfully.");
+    }
+
+    @Test
+    void release_stillReferenced_keepsObject() {
+        givenRefCountAfterUpdate(blob("https://cdn/a.png", 1));
+
+        blobService.release("h1");
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Blob.class));
+        verify(cloudStorageService, never()).delete(anyCollection());
+        System.out.println("✅ MEDIA/BLOB: release_stillReferenced_keepsObject() passed successfully.");
+    }
+}
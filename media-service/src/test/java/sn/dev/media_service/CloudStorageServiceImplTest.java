@@ -0,0 +1,165 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sn.dev.media_service.configs.DeadlineRequestFactory;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.impl.CloudStorageServiceImpl;
+
+public class CloudStorageServiceImplTest {
+    private static final byte[] BODY = {1, 2, 3, 4};
+
+    private MockRestServiceServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private CloudStorageServiceImpl storage;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        meterRegistry = new SimpleMeterRegistry();
+        storage = new CloudStorageServiceImpl(restTemplate, meterRegistry, 4, 3, Duration.ZERO);
+        ReflectionTestUtils.setField(storage, "projectUrl", "https://storage.test");
+        ReflectionTestUtils.setField(storage, "apiKey", "key");
+        ReflectionTestUtils.setField(storage, "bucketName", "media");
+    }
+
+    @Test
+    void upload_retriesServerErrorsAndResendsTheWholeBody() {
+        server.expect(times(2), method(HttpMethod.PUT)).andRespond(withServerError());
+        server.expect(once(), method(HttpMethod.PUT)).andExpect(content().bytes(BODY)).andRespond(withSuccess());
+
+        String url = storage.upload(new ByteArrayResource(BODY), BODY.length, "image/png", "a.png");
+
+        assertThat(url).startsWith("https://storage.test/storage/v1/object/public/media/").endsWith("_a.png");
+        server.verify();
+        assertThat(meterRegistry.get("media.storage.retries").tag("operation", "upload").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("media.storage.requests").tag("outcome", "success").timer().count()).isEqualTo(1);
+        System.out.println("✅ MEDIA/STORAGE: upload_retriesServerErrorsAndResendsTheWholeBody() passed successfully.");
+    }
+
+    @Test
+    void upload_clientErrorIsNotRetried() {
+        server.expect(once(), method(HttpMethod.PUT)).andRespond(withBadRequest());
+
+        assertThatThrownBy(() -> storage.upload(new ByteArrayResource(BODY), BODY.length, "image/png", "a.png"))
+            .isInstanceOf(RuntimeException.class);
+        server.verify();
+        System.out.println("✅ MEDIA/STORAGE: upload_clientErrorIsNotRetried() passed successfully.");
+    }
+
+    @Test
+    @Timeout(10)
+    void upload_stalledBodyIsAbortedAtTheWriteTimeout() throws Exception {
+        try (ServerSocket peer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+                CloseableHttpClient httpClient = HttpClients.createDefault()) {
+            // Accepts the connection but never reads, so the client's send buffer fills up
+            Thread.ofVirtual().start(() -> {
+                try (Socket ignored = peer.accept()) {
+                    Thread.sleep(Duration.ofSeconds(10));
+                } catch (Exception e) {
+                    // closed by the test
+                }
+            });
+            RestTemplate restTemplate = new RestTemplate(
+                    new DeadlineRequestFactory(httpClient, Duration.ofMillis(300)));
+            CloudStorageServiceImpl stalled = new CloudStorageServiceImpl(restTemplate, meterRegistry, 4, 1,
+                    Duration.ZERO);
+            ReflectionTestUtils.setField(stalled, "projectUrl", "http://127.0.0.1:" + peer.getLocalPort());
+            ReflectionTestUtils.setField(stalled, "apiKey", "key");
+            ReflectionTestUtils.setField(stalled, "bucketName", "media");
+            InputStream endless = new InputStream() {
+                @Override
+                public int read() {
+                    return 0;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return len;
+                }
+            };
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> stalled.upload(() -> endless, -1, "image/png", "a.png"))
+                .isInstanceOf(RuntimeException.class);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+            assertThat(meterRegistry.get("media.storage.requests").tag("outcome", "io_error").timer().count())
+                .isEqualTo(1);
+        }
+        System.out.println("✅ MEDIA/STORAGE: upload_stalledBodyIsAbortedAtTheWriteTimeout() passed successfully.");
+    }
+
+    @Test
+    void uploadAsync_completesWithUrl() throws Exception {
+        server.expect(once(), method(HttpMethod.PUT)).andRespond(withSuccess());
+
+        String url = storage.uploadAsync(new ByteArrayResource(BODY), BODY.length, "image/png", "a.png").get();
+
+        assertThat(url).endsWith("_a.png");
+        System.out.println("✅ MEDIA/STORAGE: uploadAsync_completesWithUrl() passed successfully.");
+    }
+
+    @Test
+    void presignUpload_returnsSignedUrlAndPublicObjectUrl() {
+        server.expect(once(), requestTo(startsWith(
+                "https://storage.test/storage/v1/object/upload/sign/media/")))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"url\":\"/object/upload/sign/media/x_a.png?token=t\"}",
+                        MediaType.APPLICATION_JSON));
+
+        CloudStorageService.PresignedUpload presigned = storage.presignUpload("image/png", "a.png").orElseThrow();
+
+        assertThat(presigned.uploadUrl())
+                .isEqualTo("https://storage.test/storage/v1/object/upload/sign/media/x_a.png?token=t");
+        assertThat(presigned.objectUrl()).startsWith("https://storage.test/storage/v1/object/public/media/")
+                .endsWith("_a.png");
+        server.verify();
+        System.out.println("✅ MEDIA/STORAGE: presignUpload_returnsSignedUrlAndPublicObjectUrl() passed successfully.");
+    }
+
+    @Test
+    void download_holdsPermitUntilStreamIsClosed() throws Exception {
+        server.expect(once(), requestTo("https://storage.test/storage/v1/object/public/media/a.png"))
+            .andRespond(withSuccess(BODY, MediaType.IMAGE_PNG));
+
+        InputStream in = storage.download("https://storage.test/storage/v1/object/public/media/a.png");
+        assertThat(meterRegistry.get("media.storage.in-flight").gauge().value()).isEqualTo(1);
+        assertThat(in.readAllBytes()).isEqualTo(BODY);
+        in.close();
+        in.close();
+
+        assertThat(meterRegistry.get("media.storage.in-flight").gauge().value()).isZero();
+        System.out.println("✅ MEDIA/STORAGE: download_holdsPermitUntilStreamIsClosed() passed successfully.");
+    }
+}
@@ -0,0 +1,184 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sn.dev.media_service.services.impl.CachingCloudStorageService;
+import sn.dev.media_service.services.impl.CloudStorageServiceImpl;
+import sn.dev.media_service.services.impl.DiskLruCache;
+
+public class DiskLruCacheTest {
+    private static final String URL = "https://project.supabase.co/storage/v1/object/public/media/a.png";
+
+    @TempDir
+    Path root;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static InputStream bytes(int size) {
+        return new ByteArrayInputStream(new byte[size]);
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedBeyondMaxBytes() throws Exception {
+        DiskLruCache cache = new DiskLruCache(root, 800, "test", meterRegistry);
+        Path first = cache.put("a", bytes(100)).orElseThrow();
+        for (int i = 0; i < 7; i++) {
+            cache.put("k" + i, bytes(100));
+        }
+        cache.get("a");
+        cache.put("b", bytes(100));
+
+        assertThat(cache.get("a")).contains(first);
+        assertThat(cache.get("k0")).isEmpty();
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "test").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("media.storage.cache.bytes").gauge().value()).isEqualTo(800);
+        System.out.println("✅ MEDIA/DISK_CACHE: put_evictsLeastRecentlyUsedBeyondMaxBytes() passed successfully.");
+    }
+
+    @Test
+    void put_skipsEntriesLargerThanAnEighthOfTheCache() throws Exception {
+        DiskLruCache cache = new DiskLruCache(root, 800, "test", meterRegistry);
+
+        assertThat(cache.put("big", bytes(101))).isEmpty();
+        assertThat(cache.get("big")).isEmpty();
+        try (var files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+        System.out.println("✅ MEDIA/DISK_CACHE: put_skipsEntriesLargerThanAnEighthOfTheCache() passed successfully.");
+    }
+
+    @Test
+    void constructor_reloadsEntriesAndDropsTempFiles() throws Exception {
+        DiskLruCache cache = new DiskLruCache(root, 800, "test", meterRegistry);
+        Path file = cache.put("a", bytes(100)).orElseThrow();
+        Path leftover = Files.write(file.resolveSibling("x.tmp"), new byte[10]);
+
+        DiskLruCache reopened = new DiskLruCache(root, 800, "reopened", meterRegistry);
+
+        assertThat(reopened.get("a")).contains(file);
+        assertThat(leftover).doesNotExist();
+        assertThat(meterRegistry.get("cache.size").tag("cache", "reopened").gauge().value()).isEqualTo(1);
+        System.out.println("✅ MEDIA/DISK_CACHE: constructor_reloadsEntriesAndDropsTempFiles() passed successfully.");
+    }
+
+    @Test
+    void cachingStorage_writesThroughOnUploadAndServesReadsLocally() throws Exception {
+        CloudStorageServiceImpl remote = mock(CloudStorageServiceImpl.class);
+        when(remote.upload(any(), anyLong(), anyString(), anyString())).thenReturn(URL);
+        CachingCloudStorageService storage =
+                new CachingCloudStorageService(remote, meterRegistry, root, DataSize.ofMegabytes(1));
+
+        storage.upload(new ByteArrayResource("image".getBytes()), 5, "image/png", "a.png");
+        Optional<Path> local = storage.localFile(URL);
+
+        assertThat(local).isPresent();
+        assertThat(local.get()).hasContent("image");
+        verify(remote, never()).download(URL);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        System.out.println("✅ MEDIA/DISK_CACHE: cachingStorage_writesThroughOnUploadAndServesReadsLocally() passed successfully.");
+    }
+
+    @Test
+    void cachingStorage_fetchesOnceOnMissAndDropsOnDelete() throws Exception {
+        CloudStorageServiceImpl remote = mock(CloudStorageServiceImpl.class);
+        when(remote.download(URL)).thenAnswer(invocation -> new ByteArrayInputStream("image".getBytes()));
+        CachingCloudStorageService storage =
+                new CachingCloudStorageService(remote, meterRegistry, root, DataSize.ofMegabytes(1));
+
+        try (InputStream in = storage.download(URL)) {
+            assertThat(in.readAllBytes()).isEqualTo("image".getBytes());
+        }
+        storage.localFile(URL);
+        storage.delete(URL);
+        storage.localFile(URL);
+
+        verify(remote, times(2)).download(URL);
+        verify(remote).delete(URL);
+        System.out.println("✅ MEDIA/DISK_CACHE: cachingStorage_fetchesOnceOnMissAndDropsOnDelete() passed successfully.");
+    }
+
+    @Test
+    void pin_outlivesEvictionUntilSwept() throws Exception {
+        DiskLruCache cache = new DiskLruCache(root, 800, "test", meterRegistry);
+        Path file = cache.put("a", new ByteArrayInputStream("image".getBytes())).orElseThrow();
+        Path pinned = cache.pin(file);
+        for (int i = 0; i < 8; i++) {
+            cache.put("k" + i, bytes(100));
+        }
+
+        assertThat(file).doesNotExist();
+        assertThat(pinned).hasContent("image");
+        assertThat(cache.sweepPins(Duration.ofMinutes(1))).isZero();
+        assertThat(cache.sweepPins(Duration.ofMillis(-1))).isEqualTo(1);
+        assertThat(pinned).doesNotExist();
+        // Pins are not cache entries, so reopening does not index them
+        assertThat(new DiskLruCache(root, 800, "reopened", meterRegistry).get("a")).isEmpty();
+        System.out.println("✅ MEDIA/DISK_CACHE: pin_outlivesEvictionUntilSwept() passed successfully.");
+    }
+
+    @Test
+    void cachingStorage_concurrentMissesShareOneDownload() throws Exception {
+        CloudStorageServiceImpl remote = mock(CloudStorageServiceImpl.class);
+        CountDownLatch downloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(remote.download(URL)).thenAnswer(invocation -> {
+            downloading.countDown();
+            release.await();
+            return new ByteArrayInputStream("image".getBytes());
+        });
+        CachingCloudStorageService storage =
+                new CachingCloudStorageService(remote, meterRegistry, root, DataSize.ofMegabytes(1));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<Path>> first = executor.submit(() -> storage.localFile(URL));
+            downloading.await();
+            List<Future<Optional<Path>>> others = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                others.add(executor.submit(() -> storage.localFile(URL)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            Path file = first.get().orElseThrow();
+            for (Future<Optional<Path>> other : others) {
+                assertThat(other.get()).contains(file);
+            }
+        }
+        verify(remote, times(1)).download(URL);
+        System.out.println("✅ MEDIA/DISK_CACHE: cachingStorage_concurrentMissesShareOneDownload() passed successfully.");
+    }
+}
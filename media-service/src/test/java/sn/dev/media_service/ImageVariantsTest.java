@@ -0,0 +1,116 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import sn.dev.media_service.services.impl.BlurHash;
+import sn.dev.media_service.services.impl.ImageProbe;
+import sn.dev.media_service.services.impl.ImageVariants;
+
+public class ImageVariantsTest {
+
+    @Test
+    void render_opaqueSource_scalesToJpegKeepingAspectRatio() throws Exception {
+        BufferedImage source = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+
+        ImageVariants.Rendered rendered = ImageVariants.render(source, 320);
+
+        assertThat(rendered.width()).isEqualTo(320);
+        assertThat(rendered.height()).isEqualTo(240);
+        assertThat(rendered.contentType()).isEqualTo("image/jpeg");
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(rendered.bytes()));
+        assertThat(decoded.getWidth()).isEqualTo(320);
+        assertThat(decoded.getHeight()).isEqualTo(240);
+        System.out.println("✅ MEDIA/VARIANTS: render_opaqueSource_scalesToJpegKeepingAspectRatio() passed successfully.");
+    }
+
+    @Test
+    void render_transparentSource_staysPng() throws Exception {
+        BufferedImage source = new BufferedImage(500, 100, BufferedImage.TYPE_INT_ARGB);
+
+        ImageVariants.Rendered rendered = ImageVariants.render(source, 200);
+
+        assertThat(rendered.contentType()).isEqualTo("image/png");
+        assertThat(rendered.extension()).isEqualTo(".png");
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(rendered.bytes()));
+        assertThat(decoded.getColorModel().hasAlpha()).isTrue();
+        assertThat(decoded.getHeight()).isEqualTo(40);
+        System.out.println("✅ MEDIA/VARIANTS: render_transparentSource_staysPng() passed successfully.");
+    }
+
+    @Test
+    void decodeSubsampled_readsAReducedImage() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1000, 400, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        BufferedImage small = ImageVariants.decodeSubsampled(png.toByteArray(), 32);
+
+        assertThat(small.getHeight()).isBetween(32, 64);
+        assertThat(small.getWidth()).isEqualTo(84);
+        System.out.println("✅ MEDIA/VARIANTS: decodeSubsampled_readsAReducedImage() passed successfully.");
+    }
+
+    @Test
+    void decodeToWidth_keepsAtLeastTheRequestedWidth() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(3000, 200, BufferedImage.TYPE_INT_RGB), "png", png);
+        ByteArrayOutputStream narrow = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "png", narrow);
+
+        assertThat(ImageVariants.decodeToWidth(png.toByteArray(), 640).getWidth()).isBetween(640, 1280);
+        assertThat(ImageVariants.decodeToWidth(narrow.toByteArray(), 640).getWidth()).isEqualTo(300);
+        System.out.println("✅ MEDIA/VARIANTS: decodeToWidth_keepsAtLeastTheRequestedWidth() passed successfully.");
+    }
+
+    @Test
+    void blurHash_encodesComponentCountAndAverageColor() {
+        BufferedImage white = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = white.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 40, 30);
+        g.dispose();
+
+        String hash = BlurHash.encode(white);
+
+        // Size flag for 4x3 components, one maximum digit, four DC digits, eleven AC pairs
+        assertThat(hash).hasSize(28).startsWith("L");
+        assertThat(decode83(hash.substring(2, 6))).isEqualTo(0xFFFFFF);
+        assertThat(BlurHash.encode(new BufferedImage(30, 40, BufferedImage.TYPE_INT_RGB))).startsWith("T");
+        System.out.println("✅ MEDIA/VARIANTS: blurHash_encodesComponentCountAndAverageColor() passed successfully.");
+    }
+
+    private static int decode83(String digits) {
+        String alphabet = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+        int value = 0;
+        for (char c : digits.toCharArray()) {
+            value = value * 83 + alphabet.indexOf(c);
+        }
+        return value;
+    }
+
+    @Test
+    void probe_readsWebpCanvasFromHeader() throws Exception {
+        // RIFF/WEBP with a VP8X chunk: 24-bit canvas width-1 at 24, height-1 at 27
+        byte[] header = new byte[ImageProbe.HEADER_LENGTH];
+        System.arraycopy("RIFF\0\0\0\0WEBPVP8X".getBytes(StandardCharsets.US_ASCII), 0, header, 0, 16);
+        header[24] = (byte) 0x1F;
+        header[25] = (byte) 0x03; // 800 - 1
+        header[27] = (byte) 0x57;
+        header[28] = (byte) 0x02; // 600 - 1
+
+        ImageProbe.Dimensions dimensions = ImageProbe.probe(null, header);
+
+        assertThat(dimensions).isEqualTo(new ImageProbe.Dimensions(800, 600));
+        System.out.println("✅ MEDIA/VARIANTS: probe_readsWebpCanvasFromHeader() passed successfully.");
+    }
+}
@@ -0,0 +1,154 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import sn.dev.media_service.configs.GlobalExceptionHandler;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.impl.LocalFileStore;
+import sn.dev.media_service.web.controllers.impl.MediaControllerImpl;
+
+public class LocalFileStoreTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path root;
+
+    private LocalFileStore fileStore;
+    private MediaService mediaService;
+    private CloudStorageService cloudStorageService;
+    private MockMvc mockMvc;
+    private String key;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileStore = new LocalFileStore(root.toString());
+        key = fileStore.store(new ByteArrayInputStream(CONTENT), "Photo.PNG");
+        mediaService = Mockito.mock(MediaService.class);
+        cloudStorageService = Mockito.mock(CloudStorageService.class);
+        mockMvc = MockMvcBuilders
+            .standaloneSetup(new MediaControllerImpl(mediaService, fileStore, cloudStorageService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+    }
+
+    @Test
+    void store_shardsByContentHashAndDeduplicates() throws Exception {
+        // sha256("0123456789")
+        assertThat(key).isEqualTo("84/d8/84d89877f0d4041efb6bf91a16f0248f2fd573e6af05c19f96bedb9f882f7882.png");
+        assertThat(Files.readAllBytes(root.resolve(key))).isEqualTo(CONTENT);
+
+        String again = fileStore.store(new ByteArrayInputStream(CONTENT), "other-name.png");
+        assertThat(again).isEqualTo(key);
+        assertThat(fileStore.resolve("../" + key)).isEmpty();
+        System.out.println("✅ MEDIA/STORAGE: store_shardsByContentHashAndDeduplicates() passed successfully.");
+    }
+
+    @Test
+    void keysAfter_pagesThroughShardsInKeyOrder() throws Exception {
+        List<String> stored = new ArrayList<>(List.of(key));
+        for (int i = 0; i < 20; i++) {
+            stored.add(fileStore.store(new ByteArrayInputStream(("file-" + i).getBytes(StandardCharsets.US_ASCII)),
+                "f.png"));
+        }
+        Files.createDirectories(root.resolve(".tmp"));
+        Collections.sort(stored);
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        List<String> page;
+        do {
+            page = fileStore.keysAfter(cursor, 3);
+            paged.addAll(page);
+            cursor = page.isEmpty() ? cursor : page.get(page.size() - 1);
+        } while (page.size() == 3);
+
+        assertThat(paged).isEqualTo(stored);
+        System.out.println("✅ MEDIA/STORAGE: keysAfter_pagesThroughShardsInKeyOrder() passed successfully.");
+    }
+
+    @Test
+    void serveFile_fullAndRangeRequests() throws Exception {
+        String url = "/api/media/files/" + key;
+        mockMvc.perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+            .andExpect(header().string("Content-Type", "image/png"))
+            .andExpect(content().bytes(CONTENT));
+
+        mockMvc.perform(get(url).header("Range", "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+            .andExpect(content().string("2345"));
+
+        mockMvc.perform(get(url).header("Range", "bytes=-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().string("789"));
+
+        mockMvc.perform(get(url).header("Range", "bytes=20-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string("Content-Range", "bytes */10"));
+
+        mockMvc.perform(get("/api/media/files/00/00/" + "0".repeat(64) + ".png"))
+            .andExpect(status().isNotFound());
+        System.out.println("✅ MEDIA/STORAGE: serveFile_fullAndRangeRequests() passed successfully.");
+    }
+
+    @Test
+    void serveImage_withSendfile_handsOverAPinnedCopy() throws Exception {
+        String url = "https://project.supabase.co/storage/v1/object/public/media/a.png";
+        Media media = new Media();
+        media.setId("m-1");
+        media.setImageUrl(url);
+        Path pinned = root.resolve(key);
+        Mockito.when(mediaService.findById("m-1")).thenReturn(media);
+        Mockito.when(cloudStorageService.pinnedLocalFile(url)).thenReturn(Optional.of(pinned));
+
+        // The cache may evict its copy once we return, so sendfile gets a pinned path
+        mockMvc.perform(get("/api/media/m-1/image").requestAttr("org.apache.tomcat.sendfile.support", true))
+            .andExpect(status().isOk())
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", pinned.toAbsolutePath().toString()))
+            .andExpect(request().attribute("org.apache.tomcat.sendfile.end", (long) CONTENT.length));
+        Mockito.verify(cloudStorageService, Mockito.never()).localFile(url);
+        System.out.println("✅ MEDIA/STORAGE: serveImage_withSendfile_handsOverAPinnedCopy() passed successfully.");
+    }
+
+    @Test
+    void serveImage_evictedBeforeOpen_fallsBackToDownload() throws Exception {
+        String url = "https://project.supabase.co/storage/v1/object/public/media/a.png";
+        Media media = new Media();
+        media.setId("m-1");
+        media.setImageUrl(url);
+        Mockito.when(mediaService.findById("m-1")).thenReturn(media);
+        Mockito.when(cloudStorageService.localFile(url)).thenReturn(Optional.of(root.resolve("gone.png")));
+        Mockito.when(cloudStorageService.download(url)).thenReturn(new ByteArrayInputStream(CONTENT));
+
+        mockMvc.perform(get("/api/media/m-1/image"))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(CONTENT));
+        System.out.println("✅ MEDIA/STORAGE: serveImage_evictedBeforeOpen_fallsBackToDownload() passed successfully.");
+    }
+}
@@ -0,0 +1,113 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import sn.dev.media_service.data.entities.Blob;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.CloudStorageService.StoredObject;
+import sn.dev.media_service.services.CloudStorageService.StoredObjectPage;
+import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.ProductServiceClient;
+import sn.dev.media_service.services.impl.MediaGcServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class MediaGcServiceImplTest {
+    private static final Instant CUTOFF = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MediaService mediaService;
+
+    @Mock
+    private CloudStorageService cloudStorageService;
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    private MediaGcServiceImpl gc(String objectsCreatedAfter) {
+        return new MediaGcServiceImpl(mongoTemplate, mediaService, cloudStorageService, productServiceClient,
+            true, 200, Duration.ZERO, Duration.ofHours(1), objectsCreatedAfter);
+    }
+
+    private static Media media(String productId) {
+        Media media = new Media();
+        media.setId(new ObjectId().toHexString());
+        media.setProductId(productId);
+        return media;
+    }
+
+    @Test
+    void sweepOrphanedMedia_deletesMediaOfMissingProductsOnly() {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("p1"), media("p2")));
+        when(productServiceClient.findExistingIds(Set.of("p1", "p2"))).thenReturn(Set.of("p1"));
+
+        int removed = gc("").sweepOrphanedMedia();
+
+        assertThat(removed).isEqualTo(1);
+        verify(mediaService).deleteByProductId("p2");
+        verify(mediaService, never()).deleteByProductId("p1");
+        System.out.println("✅ MEDIA/GC: sweepOrphanedMedia_deletesMediaOfMissingProductsOnly() passed successfully.");
+    }
+
+    @Test
+    void sweepOrphanedMedia_productServiceDown_deletesNothing() {
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media("p1")));
+        when(productServiceClient.findExistingIds(anyCollection())).thenThrow(new IllegalStateException("down"));
+
+        assertThatThrownBy(() -> gc("").sweepOrphanedMedia()).isInstanceOf(IllegalStateException.class);
+        verify(mediaService, never()).deleteByProductId(anyString());
+        System.out.println("✅ MEDIA/GC: sweepOrphanedMedia_productServiceDown_deletesNothing() passed successfully.");
+    }
+
+    @Test
+    void sweepOrphanedObjects_deletesUnreferencedObjectsInsideTheWindow() throws Exception {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(cloudStorageService.list(null, 200)).thenReturn(new StoredObjectPage(List.of(
+            new StoredObject("https://cdn/legacy.png", CUTOFF.minusSeconds(60)),
+            new StoredObject("https://cdn/in-flight.png", Instant.now()),
+            new StoredObject("https://cdn/used.png", old),
+            new StoredObject("https://cdn/orphan.png", old)), null));
+        Blob used = new Blob();
+        used.setUrl("https://cdn/used.png");
+        when(mongoTemplate.find(any(Query.class), eq(Blob.class))).thenReturn(List.of(used));
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of());
+
+        int deleted = gc(CUTOFF.toString()).sweepOrphanedObjects();
+
+        assertThat(deleted).isEqualTo(1);
+        verify(cloudStorageService).delete(List.of("https://cdn/orphan.png"));
+        System.out.println("✅ MEDIA/GC: sweepOrphanedObjects_deletesUnreferencedObjectsInsideTheWindow() passed successfully.");
+    }
+
+    @Test
+    void sweepOrphanedObjects_withoutCutoff_isDisabled() throws Exception {
+        assertThat(gc("").sweepOrphanedObjects()).isZero();
+        verify(cloudStorageService, never()).list(any(), anyInt());
+        System.out.println("✅ MEDIA/GC: sweepOrphanedObjects_withoutCutoff_isDisabled() passed successfully.");
+    }
+}
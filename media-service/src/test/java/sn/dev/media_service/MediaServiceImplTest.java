@@ -3,25 +3,58 @@ package sn.dev.media_service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.server.ResponseStatusException;
 
 import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.data.entities.MediaVariant;
 import sn.dev.media_service.data.repos.MediaRepo;
+import sn.dev.media_service.services.BlobService;
 import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.VariantService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import sn.dev.media_service.services.impl.MediaServiceImpl;
+import sn.dev.media_service.services.impl.ProductMediaCache;
+import sn.dev.media_service.services.impl.UploadAdmission;
+import sn.dev.media_service.web.dto.MediaUploadResultDto;
 
 @ExtendWith(MockitoExtension.class)
 public class MediaServiceImplTest {
@@ -31,17 +64,58 @@ public class MediaServiceImplTest {
     @Mock
     private CloudStorageService cloudStorageService;
 
+    @Mock
+    private BlobService blobService;
+
+    @Mock
+    private VariantService variantService;
+
+    @Spy
+    private UploadAdmission uploadAdmission = new UploadAdmission(new SimpleMeterRegistry(), 16,
+        DataSize.ofMegabytes(64), 32, Duration.ofSeconds(2), Duration.ofSeconds(2));
+
+    @Spy
+    private ProductMediaCache productMediaCache = new ProductMediaCache(new SimpleMeterRegistry(), 100,
+        Duration.ofMinutes(5));
+
     @InjectMocks
     private MediaServiceImpl mediaService;
 
+    @BeforeEach
+    void uploadUnknownBlobs() {
+        ReflectionTestUtils.setField(mediaService, "maxDimension", 10000);
+        ReflectionTestUtils.setField(mediaService, "maxPixels", 40_000_000L);
+
+        // By default every hash is new, so the upload callback runs
+        lenient().when(blobService.acquire(anyString(), anyLong(), any()))
+            .thenAnswer(inv -> inv.getArgument(2, Supplier.class).get());
+    }
+
+    private static final byte[] PNG = encode("png", 4, 3);
+    private static final byte[] JPEG = encode("jpeg", 4, 3);
+
+    private static byte[] encode(String format, int width, int height) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private static byte[] pngBytes() {
-        // Minimal valid PNG signature (8 bytes) + a little payload
-        return new byte[] {(byte)0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A, 'D', 'A', 'T', 'A'};
+        // A real 4x3 PNG, so the header can be probed for dimensions
+        return PNG.clone();
     }
 
     private static byte[] jpegBytes() {
-        // Minimal JPEG SOI signature + payload
-        return new byte[] {(byte)0xFF, (byte)0xD8, 'J', 'P', 'E', 'G'};
+        // A real 4x3 JPEG
+        return JPEG.clone();
+    }
+
+    private static String sha256Hex(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
     }
 
     @Test
@@ -49,7 +123,12 @@ public class MediaServiceImplTest {
         MockMultipartFile file = new MockMultipartFile(
             "file", "valid.png", "image/png", pngBytes()
         );
-        when(cloudStorageService.upload(any())).thenReturn("https://cdn/valid.png");
+        when(cloudStorageService.upload(any(InputStreamSource.class), eq((long) PNG.length), eq("image/png"), eq("valid.png")))
+            .thenAnswer(inv -> {
+                // The signature bytes read during validation must still be part of the upload
+                assertThat(inv.getArgument(0, InputStreamSource.class).getInputStream().readAllBytes()).isEqualTo(pngBytes());
+                return "https://cdn/valid.png";
+            });
 
         Media toSave = new Media();
         toSave.setImageUrl("https://cdn/valid.png");
@@ -66,11 +145,41 @@ public class MediaServiceImplTest {
         assertThat(result.getImageUrl()).isEqualTo("https://cdn/valid.png");
         assertThat(result.getProductId()).isEqualTo("p1");
 
-        verify(cloudStorageService, times(1)).upload(file);
+        verify(cloudStorageService, times(1)).upload(any(InputStreamSource.class), eq((long) PNG.length), eq("image/png"), eq("valid.png"));
         verify(mediaRepo, times(1)).save(any(Media.class));
+        verify(variantService, times(1)).enqueue(saved);
         System.out.println("✅ MEDIA/SERVICE: uploadAndSave_happyPath_savesMediaWithReturnedUrl() passed successfully.");
     }
 
+    @Test
+    void uploadAndSave_saveFails_releasesBlob() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "valid.png", "image/png", pngBytes());
+        when(cloudStorageService.upload(any(InputStreamSource.class), anyLong(), anyString(), anyString()))
+            .thenReturn("https://cdn/valid.png");
+        when(mediaRepo.save(any(Media.class))).thenThrow(new IllegalStateException("Mongo down"));
+
+        assertThatThrownBy(() -> mediaService.uploadAndSave(file, "p1")).isInstanceOf(IllegalStateException.class);
+
+        verify(blobService, times(1)).release(sha256Hex(PNG));
+        verify(variantService, never()).enqueue(any());
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSave_saveFails_releasesBlob() passed successfully.");
+    }
+
+    @Test
+    void uploadAndSave_enqueueFails_stillReturnsSavedMedia() {
+        MockMultipartFile file = new MockMultipartFile("file", "valid.png", "image/png", pngBytes());
+        when(cloudStorageService.upload(any(InputStreamSource.class), anyLong(), anyString(), anyString()))
+            .thenReturn("https://cdn/valid.png");
+        Media saved = new Media();
+        saved.setId("m1");
+        when(mediaRepo.save(any(Media.class))).thenReturn(saved);
+        doThrow(new IllegalStateException("Mongo down")).when(variantService).enqueue(saved);
+
+        assertThat(mediaService.uploadAndSave(file, "p1")).isSameAs(saved);
+        verify(blobService, never()).release(anyString());
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSave_enqueueFails_stillReturnsSavedMedia() passed successfully.");
+    }
+
     @Test
     void uploadAndSave_rejectsEmptyFile() {
         MockMultipartFile empty = new MockMultipartFile(
@@ -116,15 +225,88 @@ public class MediaServiceImplTest {
         System.out.println("✅ MEDIA/SERVICE: uploadAndSave_rejectsSignatureMismatch() passed successfully.");
     }
 
+    @Test
+    void uploadAndSave_recordsDimensionsFromHeader() {
+        MockMultipartFile file = new MockMultipartFile("file", "wide.png", "image/png", encode("png", 40, 10));
+        when(cloudStorageService.upload(any(InputStreamSource.class), anyLong(), any(), any())).thenReturn("https://cdn/wide.png");
+        when(mediaRepo.save(any(Media.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Media result = mediaService.uploadAndSave(file, "p1");
+
+        assertThat(result.getWidth()).isEqualTo(40);
+        assertThat(result.getHeight()).isEqualTo(10);
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSave_recordsDimensionsFromHeader() passed successfully.");
+    }
+
+    @Test
+    void uploadAndSave_rejectsDecompressionBomb() {
+        // Tiny file whose header declares 50000x50000; the IHDR width and height are big-endian at 16 and 20
+        byte[] bomb = pngBytes();
+        ByteBuffer.wrap(bomb).putInt(16, 50_000).putInt(20, 50_000);
+        MockMultipartFile file = new MockMultipartFile("file", "bomb.png", "image/png", bomb);
+
+        assertThatThrownBy(() -> mediaService.uploadAndSave(file, "p1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("50000x50000");
+        verify(cloudStorageService, never()).upload(any(InputStreamSource.class), anyLong(), any(), any());
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSave_rejectsDecompressionBomb() passed successfully.");
+    }
+
+    @Test
+    void uploadAndSave_rejectsUnreadableHeader() {
+        // Right magic number, but no image behind it
+        byte[] bytes = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A, 'D', 'A', 'T', 'A'};
+        MockMultipartFile file = new MockMultipartFile("file", "fake.png", "image/png", bytes);
+
+        assertThatThrownBy(() -> mediaService.uploadAndSave(file, "p1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Could not read image dimensions");
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSave_rejectsUnreadableHeader() passed successfully.");
+    }
+
+    @Test
+    void uploadAndSaveAll_mixedBatch_savesValidFilesOnceAndReportsEachInOrder() {
+        ReflectionTestUtils.setField(mediaService, "maxFiles", 5);
+        ReflectionTestUtils.setField(mediaService, "batchParallelism", 2);
+        MockMultipartFile first = new MockMultipartFile("files", "a.png", "image/png", pngBytes());
+        MockMultipartFile bad = new MockMultipartFile("files", "b.png", "image/png", jpegBytes());
+        MockMultipartFile third = new MockMultipartFile("files", "c.jpeg", "image/jpeg", jpegBytes());
+        when(cloudStorageService.upload(any(InputStreamSource.class), anyLong(), any(), any()))
+            .thenAnswer(inv -> "https://cdn/" + inv.getArgument(3, String.class));
+        when(mediaRepo.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<MediaUploadResultDto> results = mediaService.uploadAndSaveAll(List.of(first, bad, third), "p1");
+
+        assertThat(results).extracting(MediaUploadResultDto::status).containsExactly(
+            MediaUploadResultDto.Status.UPLOADED, MediaUploadResultDto.Status.FAILED, MediaUploadResultDto.Status.UPLOADED);
+        assertThat(results.get(0).media().getImageUrl()).isEqualTo("https://cdn/a.png");
+        assertThat(results.get(1).error()).contains("does not match PNG format");
+        assertThat(results.get(2).media().getImageUrl()).isEqualTo("https://cdn/c.jpeg");
+        verify(mediaRepo, times(1)).saveAll(any());
+        verify(variantService, times(2)).enqueue(any(Media.class));
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSaveAll_mixedBatch_savesValidFilesOnceAndReportsEachInOrder() passed successfully.");
+    }
+
+    @Test
+    void uploadAndSaveAll_rejectsTooManyFiles() {
+        ReflectionTestUtils.setField(mediaService, "maxFiles", 1);
+        MockMultipartFile file = new MockMultipartFile("files", "a.png", "image/png", pngBytes());
+        assertThatThrownBy(() -> mediaService.uploadAndSaveAll(List.of(file, file), "p1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("At most 1 files");
+        verify(cloudStorageService, never()).upload(any(InputStreamSource.class), anyLong(), any(), any());
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSaveAll_rejectsTooManyFiles() passed successfully.");
+    }
+
     @Test
     void uploadImage_happyPath_returnsUrl() {
         MockMultipartFile file = new MockMultipartFile(
             "file", "valid.jpeg", "image/jpeg", jpegBytes()
         );
-        when(cloudStorageService.upload(any())).thenReturn("https://cdn/img.jpeg");
+        when(cloudStorageService.upload(any(InputStreamSource.class), anyLong(), any(), any())).thenReturn("https://cdn/img.jpeg");
         String url = mediaService.uploadImage(file);
         assertThat(url).isEqualTo("https://cdn/img.jpeg");
-        verify(cloudStorageService, times(1)).upload(file);
+        verify(cloudStorageService, times(1)).upload(any(InputStreamSource.class), eq((long) JPEG.length), eq("image/jpeg"), eq("valid.jpeg"));
         System.out.println("✅ MEDIA/SERVICE: uploadImage_happyPath_returnsUrl() passed successfully.");
     }
 
@@ -155,16 +337,138 @@ public class MediaServiceImplTest {
     }
 
     @Test
-    void deleteById_delegatesToRepo() {
+    void findByProductId_cachesEmptyResultsUntilAnUpload() {
+        when(mediaRepo.findByProductId("p1")).thenReturn(List.of());
+        when(cloudStorageService.upload(any(InputStreamSource.class), anyLong(), any(), any())).thenReturn("https://cdn/a.png");
+        when(mediaRepo.save(any(Media.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(mediaService.findByProductId("p1")).isEmpty();
+        assertThat(mediaService.findByProductId("p1")).isEmpty();
+        verify(mediaRepo, times(1)).findByProductId("p1");
+
+        mediaService.uploadAndSave(new MockMultipartFile("file", "a.png", "image/png", pngBytes()), "p1");
+        mediaService.findByProductId("p1");
+        verify(mediaRepo, times(2)).findByProductId("p1");
+        System.out.println("✅ MEDIA/SERVICE: findByProductId_cachesEmptyResultsUntilAnUpload() passed successfully.");
+    }
+
+    @Test
+    void deleteById_invalidatesTheProduct() {
+        Media m = new Media();
+        m.setId("m1");
+        m.setProductId("p1");
+        when(mediaRepo.findByProductId("p1")).thenReturn(List.of(m));
+        when(mediaRepo.removeById("m1")).thenReturn(m);
+
+        mediaService.findByProductId("p1");
+        mediaService.deleteById("m1");
+        mediaService.findByProductId("p1");
+
+        verify(mediaRepo, times(2)).findByProductId("p1");
+        System.out.println("✅ MEDIA/SERVICE: deleteById_invalidatesTheProduct() passed successfully.");
+    }
+
+    @Test
+    void uploadAndSave_duplicateContent_reusesStoredBlob() throws Exception {
+        MockMultipartFile file = new MockMultipartFile(
+            "file", "copy.png", "image/png", pngBytes()
+        );
+        String pngSha256 = sha256Hex(PNG);
+        when(blobService.acquire(eq(pngSha256), eq((long) PNG.length), any())).thenReturn("https://cdn/first.png");
+        when(mediaRepo.save(any(Media.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Media result = mediaService.uploadAndSave(file, "p2");
+
+        assertThat(result.getImageUrl()).isEqualTo("https://cdn/first.png");
+        assertThat(result.getContentHash()).isEqualTo(pngSha256);
+        verify(cloudStorageService, never()).upload(any(InputStreamSource.class), anyLong(), any(), any());
+        System.out.println("✅ MEDIA/SERVICE: uploadAndSave_duplicateContent_reusesStoredBlob() passed successfully.");
+    }
+
+    @Test
+    void saveStoredUpload_hashesStoredObjectWithoutUploadingAgain() throws Exception {
+        when(cloudStorageService.download("https://cdn/direct.png")).thenReturn(new ByteArrayInputStream(pngBytes()));
+        when(mediaRepo.save(any(Media.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Media result = mediaService.saveStoredUpload("https://cdn/direct.png", "image/png", "p1");
+
+        assertThat(result.getImageUrl()).isEqualTo("https://cdn/direct.png");
+        assertThat(result.getProductId()).isEqualTo("p1");
+        assertThat(result.getContentHash()).isEqualTo(sha256Hex(PNG));
+        assertThat(result.getWidth()).isEqualTo(4);
+        assertThat(result.getHeight()).isEqualTo(3);
+        verify(cloudStorageService, never()).upload(any(InputStreamSource.class), anyLong(), any(), any());
+        verify(variantService, times(1)).enqueue(result);
+        System.out.println("✅ MEDIA/SERVICE: saveStoredUpload_hashesStoredObjectWithoutUploadingAgain() passed successfully.");
+    }
+
+    @Test
+    void saveStoredUpload_rejectsSignatureMismatch() throws Exception {
+        when(cloudStorageService.download("https://cdn/direct.png")).thenReturn(new ByteArrayInputStream(jpegBytes()));
+
+        assertThatThrownBy(() -> mediaService.saveStoredUpload("https://cdn/direct.png", "image/png", "p1"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("PNG");
+        verify(mediaRepo, never()).save(any(Media.class));
+        System.out.println("✅ MEDIA/SERVICE: saveStoredUpload_rejectsSignatureMismatch() passed successfully.");
+    }
+
+    @Test
+    void saveStoredUpload_missingObject_throws409() throws Exception {
+        when(cloudStorageService.download("https://cdn/direct.png")).thenThrow(new FileNotFoundException("gone"));
+
+        assertThatThrownBy(() -> mediaService.saveStoredUpload("https://cdn/direct.png", "image/png", "p1"))
+            .isInstanceOf(ResponseStatusException.class)
+            .hasMessageContaining("409");
+        System.out.println("✅ MEDIA/SERVICE: saveStoredUpload_missingObject_throws409() passed successfully.");
+    }
+
+    @Test
+    void deleteById_releasesBlob() {
+        Media m = new Media();
+        m.setId("m1");
+        m.setContentHash("abc");
+        when(mediaRepo.removeById("m1")).thenReturn(m);
+        mediaService.deleteById("m1");
+        verify(blobService, times(1)).release(List.of("abc"));
+        System.out.println("✅ MEDIA/SERVICE: deleteById_releasesBlob() passed successfully.");
+    }
+
+    @Test
+    void deleteById_releasesVariantBlobs() {
+        Media m = new Media();
+        m.setId("m1");
+        m.setContentHash("abc");
+        m.setVariants(List.of(new MediaVariant(320, 240, "https://cdn/w320.jpg", "v320")));
+        when(mediaRepo.removeById("m1")).thenReturn(m);
         mediaService.deleteById("m1");
-        verify(mediaRepo, times(1)).deleteById("m1");
-        System.out.println("✅ MEDIA/SERVICE: deleteById_delegatesToRepo() passed successfully.");
+        verify(blobService, times(1)).release(List.of("abc", "v320"));
+        System.out.println("✅ MEDIA/SERVICE: deleteById_releasesVariantBlobs() passed successfully.");
     }
 
     @Test
-    void deleteByProductId_delegatesToRepo() {
+    void deleteById_alreadyDeleted_releasesNothing() {
+        mediaService.deleteById("m1");
+        verify(mediaRepo, times(1)).removeById("m1");
+        verify(blobService, never()).release(anyCollection());
+        System.out.println("✅ MEDIA/SERVICE: deleteById_alreadyDeleted_releasesNothing() passed successfully.");
+    }
+
+    @Test
+    void deleteByProductId_releasesAllBlobsInOneBatch() {
+        Media a = new Media();
+        a.setId("m1");
+        a.setContentHash("h1");
+        Media legacy = new Media();
+        legacy.setId("m2");
+        when(mediaRepo.findByProductId("p1")).thenReturn(List.of(a, legacy));
+        when(mediaRepo.removeById("m1")).thenReturn(a);
+        when(mediaRepo.removeById("m2")).thenReturn(legacy);
+
         mediaService.deleteByProductId("p1");
-        verify(mediaRepo, times(1)).deleteByProductId("p1");
-        System.out.println("✅ MEDIA/SERVICE: deleteByProductId_delegatesToRepo() passed successfully.");
+
+        verify(blobService, times(1)).release(List.of("h1"));
+        verify(blobService, times(1)).release(anyCollection());
+        System.out.println("✅ MEDIA/SERVICE: deleteByProductId_releasesAllBlobsInOneBatch() passed successfully.");
     }
 }
\ No newline at end of file
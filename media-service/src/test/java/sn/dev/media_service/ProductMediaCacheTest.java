@@ -0,0 +1,83 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.services.impl.ProductMediaCache;
+
+public class ProductMediaCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ProductMediaCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductMediaCache(meterRegistry, 2, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    private List<Media> load() {
+        loads.incrementAndGet();
+        return List.of(new Media());
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedBeyondMaxEntries() {
+        cache.get("p1", this::load);
+        cache.get("p2", this::load);
+        cache.get("p1", this::load);
+        cache.get("p3", this::load);
+
+        cache.get("p1", this::load);
+        cache.get("p2", this::load);
+
+        assertThat(loads).hasValue(4);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "productMedia").functionCounter().count())
+                .isEqualTo(2);
+        System.out.println("✅ MEDIA/CACHE: get_evictsLeastRecentlyUsedBeyondMaxEntries() passed successfully.");
+    }
+
+    @Test
+    void get_reportsHitRatio() {
+        cache.get("p1", this::load);
+        cache.get("p1", this::load);
+        cache.get("p1", this::load);
+        cache.get("p2", this::load);
+
+        assertThat(meterRegistry.get("media.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        System.out.println("✅ MEDIA/CACHE: get_reportsHitRatio() passed successfully.");
+    }
+
+    @Test
+    void get_doesNotStoreALoadThatRacedAnInvalidation() {
+        cache.get("p1", () -> {
+            // A write lands while the stale list is being read
+            cache.invalidate("p1");
+            return load();
+        });
+        cache.get("p1", this::load);
+
+        assertThat(loads).hasValue(2);
+        System.out.println("✅ MEDIA/CACHE: get_doesNotStoreALoadThatRacedAnInvalidation() passed successfully.");
+    }
+
+    @Test
+    void get_expiresEntriesAfterTtl() {
+        ProductMediaCache shortLived = new ProductMediaCache(new SimpleMeterRegistry(), 10, Duration.ZERO);
+        shortLived.get("p1", this::load);
+        shortLived.get("p1", this::load);
+
+        assertThat(loads).hasValue(2);
+        System.out.println("✅ MEDIA/CACHE: get_expiresEntriesAfterTtl() passed successfully.");
+    }
+}
@@ -0,0 +1,78 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sn.dev.media_service.services.impl.UploadAdmission;
+
+public class UploadAdmissionTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UploadAdmission admission(int maxInFlight, int maxQueued, Duration maxWait) {
+        return new UploadAdmission(meterRegistry, maxInFlight, DataSize.ofMegabytes(10), maxQueued, maxWait,
+            Duration.ofSeconds(3));
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("media.upload.admission.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void admit_queueFull_shedsWith503AndRetryAfter() {
+        UploadAdmission admission = admission(1, 0, Duration.ofSeconds(1));
+        try (UploadAdmission.Permit held = admission.admit(1, 100)) {
+            assertThatThrownBy(() -> admission.admit(1, 100))
+                .isInstanceOfSatisfying(UploadAdmission.RejectedException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+                });
+        }
+        assertThat(rejected("queue_full")).isEqualTo(1);
+        System.out.println("✅ MEDIA/ADMISSION: admit_queueFull_shedsWith503AndRetryAfter() passed successfully.");
+    }
+
+    @Test
+    void admit_byteBudgetExceeded_waitsUntilCapacityIsFreed() throws Exception {
+        UploadAdmission admission = admission(10, 4, Duration.ofSeconds(5));
+        UploadAdmission.Permit held = admission.admit(1, DataSize.ofMegabytes(8).toBytes());
+
+        CompletableFuture<UploadAdmission.Permit> waiting = CompletableFuture.supplyAsync(
+            () -> admission.admit(1, DataSize.ofMegabytes(5).toBytes()));
+        Thread.sleep(100);
+        assertThat(waiting).isNotDone();
+
+        held.close();
+        waiting.get(2, TimeUnit.SECONDS).close();
+        assertThat(meterRegistry.get("media.upload.admission.queue").timer().count()).isEqualTo(2);
+        System.out.println("✅ MEDIA/ADMISSION: admit_byteBudgetExceeded_waitsUntilCapacityIsFreed() passed successfully.");
+    }
+
+    @Test
+    void admit_waitExpires_rejectsAsTimeout() {
+        UploadAdmission admission = admission(1, 4, Duration.ofMillis(50));
+        try (UploadAdmission.Permit held = admission.admit(1, 100)) {
+            assertThatThrownBy(() -> admission.admit(1, 100)).isInstanceOf(UploadAdmission.RejectedException.class);
+        }
+        assertThat(rejected("timeout")).isEqualTo(1);
+        System.out.println("✅ MEDIA/ADMISSION: admit_waitExpires_rejectsAsTimeout() passed successfully.");
+    }
+
+    @Test
+    void admit_oversizedRequest_runsAloneInsteadOfStarving() {
+        UploadAdmission admission = admission(4, 0, Duration.ZERO);
+        try (UploadAdmission.Permit huge = admission.admit(1, DataSize.ofMegabytes(50).toBytes())) {
+            assertThat(huge).isNotNull();
+        }
+        System.out.println("✅ MEDIA/ADMISSION: admit_oversizedRequest_runsAloneInsteadOfStarving() passed successfully.");
+    }
+}
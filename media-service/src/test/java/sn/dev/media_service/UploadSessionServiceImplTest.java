@@ -0,0 +1,292 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.unit.DataSize;
+
+import com.mongodb.client.result.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sn.dev.media_service.data.entities.Media;
+import sn.dev.media_service.data.entities.UploadSession;
+import sn.dev.media_service.services.CloudStorageService;
+import sn.dev.media_service.services.CloudStorageService.PresignedUpload;
+import sn.dev.media_service.services.MediaService;
+import sn.dev.media_service.services.impl.UploadAdmission;
+import sn.dev.media_service.services.impl.UploadSessionServiceImpl;
+import sn.dev.media_service.services.impl.UploadStaging;
+import sn.dev.media_service.web.dto.UploadSessionDto;
+import sn.dev.media_service.web.dto.UploadSessionRequestDto;
+
+@ExtendWith(MockitoExtension.class)
+public class UploadSessionServiceImplTest {
+    private static final String PUBLIC_URL = "http://media.test/api/media/uploads";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MediaService mediaService;
+
+    @Mock
+    private CloudStorageService cloudStorageService;
+
+    @TempDir
+    Path stagingRoot;
+
+    private UploadStaging staging;
+    private UploadSessionServiceImpl uploads;
+
+    @BeforeEach
+    void setUp() {
+        UploadAdmission admission = new UploadAdmission(new SimpleMeterRegistry(), 16, DataSize.ofMegabytes(64), 32,
+                Duration.ofSeconds(2), Duration.ofSeconds(2));
+        staging = new UploadStaging(stagingRoot, Duration.ofMinutes(15));
+        uploads = new UploadSessionServiceImpl(mongoTemplate, mediaService, cloudStorageService, admission,
+                staging, Duration.ofMinutes(15), PUBLIC_URL);
+    }
+
+    private static UploadSession session(boolean presigned, UploadSession.Status status, String objectUrl) {
+        UploadSession session = new UploadSession();
+        session.setId("s1");
+        session.setProductId("p1");
+        session.setFileName("a.png");
+        session.setContentType("image/png");
+        session.setSize(12);
+        session.setPresigned(presigned);
+        session.setObjectUrl(objectUrl);
+        session.setStatus(status);
+        session.setExpiresAt(Instant.now().plusSeconds(60));
+        return session;
+    }
+
+    private static UploadSession chunked(UploadSession.Status status, long received) {
+        UploadSession session = session(false, status, null);
+        session.setChunked(true);
+        session.setReceived(received);
+        return session;
+    }
+
+    private static Media media(String url) {
+        Media media = new Media();
+        media.setId("m1");
+        media.setImageUrl(url);
+        return media;
+    }
+
+    private void givenClaim(UploadSession claimed) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(UploadSession.class))).thenReturn(claimed);
+    }
+
+    @Test
+    void create_withoutPresign_pointsAtStreamingEndpoint() {
+        when(cloudStorageService.presignUpload("image/png", "a.png")).thenReturn(Optional.empty());
+
+        UploadSessionDto dto = uploads.create(new UploadSessionRequestDto("p1", "a.png", "image/png", 12));
+
+        assertThat(dto.uploadUrl()).isEqualTo(PUBLIC_URL + "/" + dto.id() + "/content");
+        assertThat(dto.method()).isEqualTo("PUT");
+        assertThat(dto.headers()).containsEntry("Content-Type", "image/png");
+        verify(mediaService).validateUpload("a.png", "image/png", 12);
+        verify(mongoTemplate).insert(argThat((UploadSession s) -> !s.isPresigned() && s.getObjectUrl() == null
+                && s.getStatus() == UploadSession.Status.PENDING && s.getId().equals(dto.id())));
+        System.out.println("✅ MEDIA/UPLOADS: create_withoutPresign_pointsAtStreamingEndpoint() passed successfully.");
+    }
+
+    @Test
+    void create_withPresign_returnsStorageUrl() {
+        when(cloudStorageService.presignUpload("image/png", "a.png"))
+                .thenReturn(Optional.of(new PresignedUpload("https://storage/sign?token=t", "https://cdn/a.png")));
+
+        UploadSessionDto dto = uploads.create(new UploadSessionRequestDto("p1", "a.png", "image/png", 12));
+
+        assertThat(dto.uploadUrl()).isEqualTo("https://storage/sign?token=t");
+        verify(mongoTemplate).insert(argThat((UploadSession s) -> s.isPresigned()
+                && "https://cdn/a.png".equals(s.getObjectUrl())));
+        System.out.println("✅ MEDIA/UPLOADS: create_withPresign_returnsStorageUrl() passed successfully.");
+    }
+
+    @Test
+    void create_rejectsMissingProduct() {
+        assertThatThrownBy(() -> uploads.create(new UploadSessionRequestDto(" ", "a.png", "image/png", 12)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(mongoTemplate, never()).insert(any(UploadSession.class));
+        System.out.println("✅ MEDIA/UPLOADS: create_rejectsMissingProduct() passed successfully.");
+    }
+
+    @Test
+    void receive_rejectsBodyOfUndeclaredSize() {
+        when(mongoTemplate.findById("s1", UploadSession.class))
+                .thenReturn(session(false, UploadSession.Status.PENDING, null));
+
+        assertThatThrownBy(() -> uploads.receive("s1", new ByteArrayInputStream(new byte[20]), 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("12 bytes");
+        verify(cloudStorageService, never()).upload(any(), any(Long.class), anyString(), anyString());
+        System.out.println("✅ MEDIA/UPLOADS: receive_rejectsBodyOfUndeclaredSize() passed successfully.");
+    }
+
+    @Test
+    void receive_losingConcurrentPut_deletesItsObject() {
+        when(mongoTemplate.findById("s1", UploadSession.class))
+                .thenReturn(session(false, UploadSession.Status.PENDING, null));
+        when(cloudStorageService.upload(any(), eq(12L), eq("image/png"), eq("a.png"))).thenReturn("https://cdn/late.png");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UploadSession.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThatThrownBy(() -> uploads.receive("s1", new ByteArrayInputStream(new byte[12]), 12))
+                .hasMessageContaining("already received");
+        verify(cloudStorageService).delete("https://cdn/late.png");
+        System.out.println("✅ MEDIA/UPLOADS: receive_losingConcurrentPut_deletesItsObject() passed successfully.");
+    }
+
+    @Test
+    void finalize_streamedInvalidImage_deletesObject() {
+        givenClaim(session(false, UploadSession.Status.FINALIZING, "https://cdn/streamed.png"));
+        when(mediaService.saveStoredUpload(anyString(), anyString(), anyString()))
+                .thenThrow(new IllegalArgumentException("File content does not match PNG format"));
+
+        assertThatThrownBy(() -> uploads.finalizeUpload("s1")).isInstanceOf(IllegalArgumentException.class);
+
+        verify(cloudStorageService).delete("https://cdn/streamed.png");
+        System.out.println("✅ MEDIA/UPLOADS: finalize_streamedInvalidImage_deletesObject() passed successfully.");
+    }
+
+    @Test
+    void finalize_duplicateOfStoredBlob_deletesFreshPresignedObject() {
+        givenClaim(session(true, UploadSession.Status.FINALIZING, "https://cdn/fresh.png"));
+        when(mediaService.saveStoredUpload("https://cdn/fresh.png", "image/png", "p1"))
+                .thenReturn(media("https://cdn/first.png"));
+
+        Media media = uploads.finalizeUpload("s1");
+
+        assertThat(media.getImageUrl()).isEqualTo("https://cdn/first.png");
+        verify(cloudStorageService).delete("https://cdn/fresh.png");
+        System.out.println("✅ MEDIA/UPLOADS: finalize_duplicateOfStoredBlob_deletesFreshPresignedObject() passed successfully.");
+    }
+
+    @Test
+    void finalize_alreadyFinalized_returnsSameMedia() {
+        givenClaim(null);
+        UploadSession done = session(true, UploadSession.Status.FINALIZED, "https://cdn/a.png");
+        done.setMediaId("m1");
+        when(mongoTemplate.findById("s1", UploadSession.class)).thenReturn(done);
+        when(mediaService.findById("m1")).thenReturn(media("https://cdn/a.png"));
+
+        assertThat(uploads.finalizeUpload("s1").getId()).isEqualTo("m1");
+        verify(mediaService, never()).saveStoredUpload(anyString(), anyString(), anyString());
+        System.out.println("✅ MEDIA/UPLOADS: finalize_alreadyFinalized_returnsSameMedia() passed successfully.");
+    }
+
+    @Test
+    void finalize_invalidImage_dropsObjectAndReopensSession() {
+        givenClaim(session(true, UploadSession.Status.FINALIZING, "https://cdn/fresh.png"));
+        when(mediaService.saveStoredUpload(anyString(), anyString(), anyString()))
+                .thenThrow(new IllegalArgumentException("File content does not match PNG format"));
+
+        assertThatThrownBy(() -> uploads.finalizeUpload("s1")).isInstanceOf(IllegalArgumentException.class);
+
+        verify(cloudStorageService).delete("https://cdn/fresh.png");
+        verify(mongoTemplate).updateFirst(any(Query.class),
+                argThat((Update u) -> u.getUpdateObject().get("$set", Document.class).get("status")
+                        == UploadSession.Status.PENDING),
+                eq(UploadSession.class));
+        System.out.println("✅ MEDIA/UPLOADS: finalize_invalidImage_dropsObjectAndReopensSession() passed successfully.");
+    }
+
+    @Test
+    void receiveChunk_atWrongOffset_answersWithResumeOffset() {
+        when(mongoTemplate.findById("s1", UploadSession.class)).thenReturn(chunked(UploadSession.Status.PENDING, 4));
+
+        assertThatThrownBy(() -> uploads.receiveChunk("s1", 0, new ByteArrayInputStream(new byte[4])))
+                .isInstanceOfSatisfying(UploadSessionServiceImpl.OffsetMismatchException.class, e -> {
+                    assertThat(e.getStatusCode().value()).isEqualTo(409);
+                    assertThat(e.getHeaders().getFirst("Upload-Offset")).isEqualTo("4");
+                });
+        System.out.println("✅ MEDIA/UPLOADS: receiveChunk_atWrongOffset_answersWithResumeOffset() passed successfully.");
+    }
+
+    @Test
+    void receiveChunk_lastChunk_marksSessionUploaded() {
+        when(mongoTemplate.findById("s1", UploadSession.class))
+                .thenReturn(chunked(UploadSession.Status.PENDING, 0), chunked(UploadSession.Status.PENDING, 8));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(UploadSession.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(uploads.receiveChunk("s1", 0, new ByteArrayInputStream(new byte[8]))).isEqualTo(8);
+        assertThat(uploads.receiveChunk("s1", 8, new ByteArrayInputStream(new byte[4]))).isEqualTo(12);
+
+        verify(mongoTemplate).updateFirst(any(Query.class),
+                argThat((Update u) -> u.getUpdateObject().get("$set", Document.class).get("status")
+                        == UploadSession.Status.UPLOADED
+                        && u.getUpdateObject().get("$set", Document.class).get("received").equals(12L)),
+                eq(UploadSession.class));
+        System.out.println("✅ MEDIA/UPLOADS: receiveChunk_lastChunk_marksSessionUploaded() passed successfully.");
+    }
+
+    @Test
+    void receiveChunk_pastDeclaredSize_isRejected() {
+        when(mongoTemplate.findById("s1", UploadSession.class)).thenReturn(chunked(UploadSession.Status.PENDING, 0));
+
+        assertThatThrownBy(() -> uploads.receiveChunk("s1", 0, new ByteArrayInputStream(new byte[13])))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(UploadSession.class));
+        System.out.println("✅ MEDIA/UPLOADS: receiveChunk_pastDeclaredSize_isRejected() passed successfully.");
+    }
+
+    @Test
+    void finalize_chunked_storesStagedFileThenSavesMedia() throws Exception {
+        staging.append("s1", 0, new ByteArrayInputStream(new byte[12]), 12);
+        givenClaim(chunked(UploadSession.Status.FINALIZING, 12));
+        when(cloudStorageService.upload(any(), eq(12L), eq("image/png"), eq("a.png"))).thenReturn("https://cdn/a.png");
+        when(mediaService.saveStoredUpload("https://cdn/a.png", "image/png", "p1"))
+                .thenReturn(media("https://cdn/a.png"));
+
+        assertThat(uploads.finalizeUpload("s1").getId()).isEqualTo("m1");
+
+        verify(cloudStorageService, never()).delete(anyString());
+        assertThat(staging.complete("s1", 12)).isEmpty();
+        System.out.println("✅ MEDIA/UPLOADS: finalize_chunked_storesStagedFileThenSavesMedia() passed successfully.");
+    }
+
+    @Test
+    void finalize_chunkedWithLostStaging_reopensAtOffsetZero() {
+        givenClaim(chunked(UploadSession.Status.FINALIZING, 12));
+
+        assertThatThrownBy(() -> uploads.finalizeUpload("s1"))
+                .isInstanceOfSatisfying(UploadSessionServiceImpl.OffsetMismatchException.class,
+                        e -> assertThat(e.getHeaders().getFirst("Upload-Offset")).isEqualTo("0"));
+
+        verify(cloudStorageService, never()).upload(any(), any(Long.class), anyString(), anyString());
+        verify(mongoTemplate).updateFirst(any(Query.class),
+                argThat((Update u) -> u.getUpdateObject().get("$set", Document.class).get("received").equals(0L)),
+                eq(UploadSession.class));
+        System.out.println("✅ MEDIA/UPLOADS: finalize_chunkedWithLostStaging_reopensAtOffsetZero() passed successfully.");
+    }
+}
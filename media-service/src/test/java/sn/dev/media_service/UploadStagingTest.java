@@ -0,0 +1,88 @@
+package sn.dev.media_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sn.dev.media_service.services.impl.UploadStaging;
+
+public class UploadStagingTest {
+    @TempDir
+    Path root;
+
+    private UploadStaging staging;
+
+    @BeforeEach
+    void setUp() {
+        staging = new UploadStaging(root, Duration.ofMinutes(15));
+    }
+
+    private static InputStream bytes(String s) {
+        return new ByteArrayInputStream(s.getBytes());
+    }
+
+    @Test
+    void append_dropsUnacknowledgedTailBeforeWriting() throws Exception {
+        staging.append("s1", 0, bytes("abcdXX"), 10);
+
+        // Only four bytes were acknowledged; the retry starts there
+        assertThat(staging.append("s1", 4, bytes("efgh"), 6)).isEqualTo(8);
+        assertThat(root.resolve("s1")).hasContent("abcdefgh");
+        System.out.println("✅ MEDIA/STAGING: append_dropsUnacknowledgedTailBeforeWriting() passed successfully.");
+    }
+
+    @Test
+    void append_keepsBytesOfABodyCutOffMidway() throws Exception {
+        InputStream broken = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent == 3) {
+                    throw new IOException("Connection reset");
+                }
+                return 'a' + sent++;
+            }
+        };
+
+        assertThat(staging.append("s1", 0, broken, 10)).isEqualTo(3);
+        assertThat(root.resolve("s1")).hasContent("abc");
+        System.out.println("✅ MEDIA/STAGING: append_keepsBytesOfABodyCutOffMidway() passed successfully.");
+    }
+
+    @Test
+    void append_overLimit_leavesStagedBytesUntouched() throws Exception {
+        staging.append("s1", 0, bytes("abcd"), 6);
+
+        assertThatThrownBy(() -> staging.append("s1", 4, bytes("efghij"), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(root.resolve("s1")).hasContent("abcd");
+        assertThat(staging.append("s2", 4, bytes("efgh"), 10)).isZero();
+        System.out.println("✅ MEDIA/STAGING: append_overLimit_leavesStagedBytesUntouched() passed successfully.");
+    }
+
+    @Test
+    void sweep_removesOnlyFilesIdleForTheTtl() throws Exception {
+        staging.append("old", 0, bytes("a"), 1);
+        staging.append("new", 0, bytes("b"), 1);
+        Files.setLastModifiedTime(root.resolve("old"), FileTime.from(Instant.now().minus(Duration.ofMinutes(16))));
+
+        staging.sweep();
+
+        assertThat(root.resolve("old")).doesNotExist();
+        assertThat(staging.complete("new", 1)).isPresent();
+        System.out.println("✅ MEDIA/STAGING: sweep_removesOnlyFilesIdleForTheTtl() passed successfully.");
+    }
+}
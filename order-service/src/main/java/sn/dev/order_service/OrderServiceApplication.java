@@ -5,13 +5,23 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import sn.dev.order_service.config.CartExpiryConfig;
+import sn.dev.order_service.config.CartSummaryConfig;
+import sn.dev.order_service.config.IdempotencyConfig;
+import sn.dev.order_service.config.OrderArchiveConfig;
+import sn.dev.order_service.config.OrderQuoteConfig;
+import sn.dev.order_service.config.OrderStreamConfig;
 import sn.dev.order_service.config.RSAKeysConfig;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
-@EnableConfigurationProperties(RSAKeysConfig.class)
+@EnableScheduling
+@EnableConfigurationProperties({ RSAKeysConfig.class, OrderArchiveConfig.class, CartExpiryConfig.class,
+		IdempotencyConfig.class, OrderStreamConfig.class, OrderQuoteConfig.class,
+		CartSummaryConfig.class })
 public class OrderServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,19 @@
+package sn.dev.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Lifetime of idle carts. Mongo drops a cart {@code ttl} after its last update; when
+ * the sweeper is enabled it gets there first ({@code sweeperAfter} should be shorter
+ * than {@code ttl}) so an abandoned-cart event can be published.
+ */
+@ConfigurationProperties(prefix = "carts.expiry")
+public record CartExpiryConfig(
+        @DefaultValue("30d") Duration ttl,
+        @DefaultValue("false") boolean sweeperEnabled,
+        @DefaultValue("7d") Duration sweeperAfter,
+        @DefaultValue("200") int sweeperBatchSize) {
+}
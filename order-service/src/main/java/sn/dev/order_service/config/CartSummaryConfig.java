@@ -0,0 +1,17 @@
+package sn.dev.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-instance cart summary cache. Cart changes made through this instance update it
+ * immediately; {@code ttl} bounds staleness for changes made by other instances and for
+ * carts the expiry TTL index deletes, which this instance never hears about.
+ */
+@ConfigurationProperties(prefix = "carts.summary")
+public record CartSummaryConfig(
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("100000") int maxEntries) {
+}
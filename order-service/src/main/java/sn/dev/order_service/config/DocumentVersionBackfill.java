@@ -0,0 +1,46 @@
+package sn.dev.order_service.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.order.OrderDocument;
+
+/**
+ * Carts and orders written before optimistic locking have no {@code version} field.
+ * Spring Data would treat them as new and try to insert them again on save, so give
+ * them an initial version once after startup. Until this has run, the cart and order
+ * save paths stamp the version on the single document they are about to save.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentVersionBackfill {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("document-version-backfill").start(this::backfill);
+    }
+
+    void backfill() {
+        try {
+            Query unversioned = Query.query(Criteria.where("version").exists(false));
+            long carts = mongoTemplate.updateMulti(unversioned, Update.update("version", 0L), CartDocument.class)
+                    .getModifiedCount();
+            long orders = mongoTemplate.updateMulti(unversioned, Update.update("version", 0L), OrderDocument.class)
+                    .getModifiedCount();
+            log.info("Backfilled version on {} carts and {} orders", carts, orders);
+        } catch (Exception e) {
+            log.error("Failed to backfill document versions: {}", e.getMessage());
+        }
+    }
+}
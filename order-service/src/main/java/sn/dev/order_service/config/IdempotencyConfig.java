@@ -0,0 +1,16 @@
+package sn.dev.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code ttl} is how long a used Idempotency-Key is remembered. {@code lockTimeout}
+ * is how long an unfinished request keeps its key before a retry may take it over.
+ */
+@ConfigurationProperties(prefix = "orders.idempotency")
+public record IdempotencyConfig(
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("60s") Duration lockTimeout) {
+}
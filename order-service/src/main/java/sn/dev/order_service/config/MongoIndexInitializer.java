@@ -0,0 +1,84 @@
+package sn.dev.order_service.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.idempotency.IdempotencyRecord;
+import sn.dev.order_service.data.order.OrderArchiveRepository;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.stats.SellerDailyStats;
+
+/**
+ * Creates the indexes order-service relies on. Runs once after startup on its own
+ * virtual thread, so the service still boots (and shuts down) when Mongo is not
+ * reachable.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final CartExpiryConfig cartExpiryConfig;
+    private final IdempotencyConfig idempotencyConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("mongo-index-initializer").start(this::ensureIndexes);
+    }
+
+    void ensureIndexes() {
+        try {
+            ensureOrderIndexes(mongoTemplate.indexOps(OrderDocument.class));
+            ensureOrderIndexes(mongoTemplate.indexOps(OrderArchiveRepository.COLLECTION));
+
+            // Used by the archiver to find terminal orders past the retention window
+            mongoTemplate.indexOps(OrderDocument.class).createIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("updatedAt", Sort.Direction.ASC)
+                    .named("status_updatedAt"));
+
+            IndexOperations cartIndexes = mongoTemplate.indexOps(CartDocument.class);
+            // One cart per user; a concurrent second insert fails and is retried as an update
+            cartIndexes.createIndex(new Index().on("userId", Sort.Direction.ASC).unique().named("userId_unique"));
+            // Mongo's TTL monitor deletes carts idle for longer than carts.expiry.ttl
+            cartIndexes.createIndex(new Index()
+                    .on("updatedAt", Sort.Direction.ASC)
+                    .expire(cartExpiryConfig.ttl())
+                    .named("updatedAt_ttl"));
+
+            mongoTemplate.indexOps(IdempotencyRecord.class).createIndex(new Index()
+                    .on("createdAt", Sort.Direction.ASC)
+                    .expire(idempotencyConfig.ttl())
+                    .named("createdAt_ttl"));
+
+            mongoTemplate.indexOps(SellerDailyStats.class).createIndex(new Index()
+                    .on("sellerId", Sort.Direction.ASC)
+                    .on("day", Sort.Direction.ASC)
+                    .named("sellerId_day"));
+
+            log.info("Mongo indexes ensured");
+        } catch (Exception e) {
+            log.error("Failed to ensure Mongo indexes: {}", e.getMessage());
+        }
+    }
+
+    private void ensureOrderIndexes(IndexOperations indexOps) {
+        indexOps.createIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("userId_createdAt"));
+        indexOps.createIndex(new Index()
+                .on("items.sellerId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .named("items_sellerId_createdAt"));
+    }
+}
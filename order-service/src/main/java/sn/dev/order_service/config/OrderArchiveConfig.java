@@ -0,0 +1,17 @@
+package sn.dev.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for moving terminal (DELIVERED / CANCELLED) orders out of the hot
+ * {@code orders} collection into {@code orders_archive}.
+ */
+@ConfigurationProperties(prefix = "orders.archive")
+public record OrderArchiveConfig(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("180d") Duration retention,
+        @DefaultValue("500") int batchSize) {
+}
@@ -0,0 +1,16 @@
+package sn.dev.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Checkout quotes are cached per cart version, so any cart change invalidates them;
+ * the TTL only bounds how stale product stock and prices may get.
+ */
+@ConfigurationProperties(prefix = "orders.quote")
+public record OrderQuoteConfig(
+        @DefaultValue("5s") Duration cacheTtl,
+        @DefaultValue("10000") int cacheMaxEntries) {
+}
@@ -0,0 +1,17 @@
+package sn.dev.order_service.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Seller order stream (SSE). A connection whose buffer fills up is closed; the
+ * browser's EventSource reconnects on its own.
+ */
+@ConfigurationProperties(prefix = "orders.stream")
+public record OrderStreamConfig(
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("20s") Duration heartbeatInterval,
+        @DefaultValue("64") int bufferSize) {
+}
@@ -14,6 +14,8 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtGra
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.http.HttpMethod;
 
+import jakarta.servlet.DispatcherType;
+
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -30,8 +32,12 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // SSE and streamed exports finish on an async dispatch; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // CART endpoints (current user)
                         .requestMatchers(HttpMethod.GET, "/api/cart").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/cart/summary").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/cart/items").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/api/cart/items/{productId}").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/cart/items/{productId}").authenticated()
@@ -39,6 +45,7 @@ public class SecurityConfig {
 
                         // ORDER endpoints for client
                         .requestMatchers(HttpMethod.POST, "/api/orders/checkout").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/orders/quote").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/orders").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/orders/{orderId}").authenticated()
                         .requestMatchers(HttpMethod.PATCH, "/api/orders/{orderId}/cancel").authenticated()
@@ -46,6 +53,9 @@ public class SecurityConfig {
 
                         // ORDER endpoints for seller
                         .requestMatchers(HttpMethod.GET, "/api/orders/seller").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/orders/seller/stream").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/orders/seller/export").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/orders/seller/stats").authenticated()
                         .requestMatchers(HttpMethod.PATCH, "/api/orders/{orderId}/items/{itemId}/status").authenticated()
 
                         .anyRequest().permitAll())
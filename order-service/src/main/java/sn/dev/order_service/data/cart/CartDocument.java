@@ -1,6 +1,7 @@
 package sn.dev.order_service.data.cart;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
@@ -15,6 +16,10 @@ public class CartDocument {
 
     @Id
     private String id;
+
+    @Version
+    private Long version;
+
     private String userId;
     private List<CartItemDocument> items = new ArrayList<>();
     private Instant createdAt;
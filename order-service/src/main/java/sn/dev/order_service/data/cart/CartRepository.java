@@ -1,7 +1,12 @@
 package sn.dev.order_service.data.cart;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends MongoRepository<CartDocument, String> {
@@ -9,4 +14,14 @@ public interface CartRepository extends MongoRepository<CartDocument, String> {
     Optional<CartDocument> findByUserId(String userId);
 
     void deleteByUserId(String userId);
+
+    List<CartDocument> findByUpdatedAtBefore(Instant updatedAt, Pageable pageable);
+
+    /**
+     * Gives a cart written before optimistic locking its initial version, so that a
+     * versioned save updates it instead of inserting it again.
+     */
+    @Query("{ '_id': ?0, 'version': { '$exists': false } }")
+    @Update("{ '$set': { 'version': 0 } }")
+    long initVersionIfMissing(String id);
 }
@@ -0,0 +1,20 @@
+package sn.dev.order_service.data.idempotency;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String id;
+    private IdempotencyStatus status;
+    private String resultId;
+    private String requestHash;
+    private Instant createdAt;
+}
@@ -0,0 +1,6 @@
+package sn.dev.order_service.data.idempotency;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+}
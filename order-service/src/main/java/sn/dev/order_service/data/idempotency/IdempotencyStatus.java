@@ -0,0 +1,6 @@
+package sn.dev.order_service.data.idempotency;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
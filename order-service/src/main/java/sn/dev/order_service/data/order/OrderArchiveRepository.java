@@ -0,0 +1,93 @@
+package sn.dev.order_service.data.order;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import sn.dev.order_service.config.OrderArchiveConfig;
+
+/**
+ * Cold storage for terminal orders. Documents keep the {@link OrderDocument} shape
+ * but live in their own collection so the hot {@code orders} indexes stay small.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    public static final String COLLECTION = "orders_archive";
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderArchiveConfig archiveConfig;
+
+    /**
+     * Orders are only archived once they are older than the retention window, so a
+     * range starting after that horizon can be answered from the hot collection alone.
+     */
+    public boolean mayContain(Instant from) {
+        return from == null || from.isBefore(Instant.now().minus(archiveConfig.retention()));
+    }
+
+    public Optional<OrderDocument> findById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, OrderDocument.class, COLLECTION));
+    }
+
+    public List<OrderDocument> findByUserId(String userId, Instant from, Instant to) {
+        return find(Criteria.where("userId").is(userId), from, to);
+    }
+
+    public List<OrderDocument> findBySellerId(String sellerId, Instant from, Instant to) {
+        return find(Criteria.where("items.sellerId").is(sellerId), from, to);
+    }
+
+    /**
+     * Cursor-backed variant of {@link #findBySellerId}; the caller must close the stream.
+     */
+    public Stream<OrderDocument> streamBySellerId(String sellerId, Instant from, Instant to) {
+        return mongoTemplate.stream(rangeQuery(Criteria.where("items.sellerId").is(sellerId), from, to).cursorBatchSize(500),
+                OrderDocument.class, COLLECTION);
+    }
+
+    /**
+     * Upserts by id, so copying the same batch twice (e.g. after a crash between the
+     * copy and the delete) leaves a single archived document.
+     */
+    public void saveAll(List<OrderDocument> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderDocument.class, COLLECTION);
+        for (OrderDocument order : orders) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(order.getId())), order,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    private List<OrderDocument> find(Criteria criteria, Instant from, Instant to) {
+        return mongoTemplate.find(rangeQuery(criteria, from, to), OrderDocument.class, COLLECTION);
+    }
+
+    private static Query rangeQuery(Criteria criteria, Instant from, Instant to) {
+        if (from != null || to != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (from != null) {
+                createdAt = createdAt.gte(from);
+            }
+            if (to != null) {
+                createdAt = createdAt.lt(to);
+            }
+            criteria = new Criteria().andOperator(criteria, createdAt);
+        }
+        return Query.query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+}
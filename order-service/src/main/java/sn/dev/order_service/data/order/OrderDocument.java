@@ -1,6 +1,7 @@
 package sn.dev.order_service.data.order;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
@@ -16,6 +17,9 @@ public class OrderDocument {
     @Id
     private String id;
 
+    @Version
+    private Long version;
+
     private String userId;
     private OrderStatus status;
     private PaymentMode paymentMode;
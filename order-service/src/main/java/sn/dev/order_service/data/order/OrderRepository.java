@@ -1,12 +1,52 @@
 package sn.dev.order_service.data.order;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 public interface OrderRepository extends MongoRepository<OrderDocument, String> {
 
     List<OrderDocument> findByUserIdOrderByCreatedAtDesc(String userId);
 
     List<OrderDocument> findByItemsSellerIdOrderByCreatedAtDesc(String sellerId);
+
+    List<OrderDocument> findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(String userId, Range<Instant> createdAt);
+
+    List<OrderDocument> findByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(String sellerId,
+            Range<Instant> createdAt);
+
+    /**
+     * Cursor-backed; the caller must close the stream.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<OrderDocument> streamByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(String sellerId,
+            Range<Instant> createdAt);
+
+    /**
+     * Which of {@code ids} are still in this collection, reading ids only.
+     */
+    List<OrderIdOnly> findByIdIn(Collection<String> ids);
+
+    List<OrderDocument> findByStatusInAndUpdatedAtBefore(Collection<OrderStatus> statuses, Instant updatedAt,
+            Pageable pageable);
+
+    /**
+     * Gives an order written before optimistic locking its initial version, so that a
+     * versioned save updates it instead of inserting it again.
+     */
+    @Query("{ '_id': ?0, 'version': { '$exists': false } }")
+    @Update("{ '$set': { 'version': 0 } }")
+    long initVersionIfMissing(String id);
+
+    interface OrderIdOnly {
+        String getId();
+    }
 }
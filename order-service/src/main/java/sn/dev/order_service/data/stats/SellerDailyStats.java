@@ -0,0 +1,37 @@
+package sn.dev.order_service.data.stats;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * One seller's activity for one UTC day, keyed {@code sellerId:yyyy-MM-dd}. Orders
+ * are bucketed by the day they were placed, so later status changes update that
+ * same bucket. Revenue and items exclude cancelled lines; {@code statusCounts} holds
+ * the number of order lines currently in each {@code OrderItemStatus}.
+ */
+@Data
+@Document(collection = SellerDailyStats.COLLECTION)
+public class SellerDailyStats {
+
+    public static final String COLLECTION = "seller_stats";
+
+    @Id
+    private String id;
+    private String sellerId;
+    private String day;
+    private double revenue;
+    private long items;
+    private long orders;
+    private Map<String, Long> statusCounts = new HashMap<>();
+    private Instant updatedAt;
+
+    public static String idOf(String sellerId, String day) {
+        return sellerId + ":" + day;
+    }
+}
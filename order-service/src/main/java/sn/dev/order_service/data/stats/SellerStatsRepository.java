@@ -0,0 +1,11 @@
+package sn.dev.order_service.data.stats;
+
+import java.util.List;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SellerStatsRepository extends MongoRepository<SellerDailyStats, String> {
+
+    List<SellerDailyStats> findBySellerIdAndDayBetweenOrderByDayAsc(String sellerId, Range<String> days);
+}
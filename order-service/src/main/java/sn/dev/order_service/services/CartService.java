@@ -1,5 +1,7 @@
 package sn.dev.order_service.services;
 
+import java.util.Map;
+
 import sn.dev.order_service.data.cart.CartDocument;
 
 public interface CartService {
@@ -8,6 +10,21 @@ public interface CartService {
 
     CartDocument addItem(String userId, String productId, int quantity);
 
+    /**
+     * Adds several products in one cart write. Products are resolved with a single
+     * batched lookup and stock is checked for every line before anything is saved.
+     *
+     * @param quantities quantity to add per product id
+     */
+    CartDocument addItems(String userId, Map<String, Integer> quantities);
+
+    /**
+     * Like {@link #addItems} but first empties the cart, in the same write.
+     *
+     * @param imageUrls image per product id for lines the catalogue returns no image for
+     */
+    CartDocument replaceItems(String userId, Map<String, Integer> quantities, Map<String, String> imageUrls);
+
     CartDocument updateItemQuantity(String userId, String productId, int quantity);
 
     CartDocument removeItem(String userId, String productId);
@@ -0,0 +1,16 @@
+package sn.dev.order_service.services;
+
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.web.dto.CartSummaryDto;
+
+public interface CartSummaryService {
+
+    /** Served from cache; only a miss reads the cart from Mongo. */
+    CartSummaryDto getSummary(String userId);
+
+    /** Called with the saved cart after every cart write. */
+    void update(CartDocument cart);
+
+    /** Called when the user's cart is deleted. */
+    void clear(String userId);
+}
@@ -0,0 +1,14 @@
+package sn.dev.order_service.services;
+
+import java.time.Instant;
+
+public interface CartSweeperService {
+
+    /**
+     * Removes carts last updated before {@code olderThan}, publishing an abandoned-cart
+     * event for each one that still had items.
+     *
+     * @return the number of carts removed
+     */
+    int sweepAbandonedCarts(Instant olderThan);
+}
@@ -0,0 +1,12 @@
+package sn.dev.order_service.services;
+
+import sn.dev.order_service.web.dto.CheckoutQuoteDto;
+
+public interface CheckoutQuoteService {
+
+    /**
+     * Dry run of checkout for the user's current cart: validates every line against
+     * live product stock and prices without reserving or changing anything.
+     */
+    CheckoutQuoteDto quote(String userId);
+}
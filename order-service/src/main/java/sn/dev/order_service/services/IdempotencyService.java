@@ -0,0 +1,17 @@
+package sn.dev.order_service.services;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Runs {@code action} at most once per {@code scope} and {@code key}. The first
+     * successful run stores {@code resultId} of its result; a replay of the same key
+     * returns {@code replay} of that id without running the action again. A failed run
+     * releases the key so the client can retry. {@code request} describes the parameters
+     * the key was sent with; reusing the key with a different {@code request} is rejected.
+     */
+    <T> T execute(String scope, String key, String request, Supplier<T> action, Function<T, String> resultId,
+            Function<String, T> replay);
+}
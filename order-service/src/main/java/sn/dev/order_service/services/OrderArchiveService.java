@@ -0,0 +1,14 @@
+package sn.dev.order_service.services;
+
+import java.time.Instant;
+
+public interface OrderArchiveService {
+
+    /**
+     * Moves DELIVERED and CANCELLED orders last updated before {@code olderThan}
+     * into the archive collection.
+     *
+     * @return the number of orders archived
+     */
+    int archiveTerminalOrders(Instant olderThan);
+}
@@ -0,0 +1,15 @@
+package sn.dev.order_service.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface OrderExportService {
+
+    /**
+     * Writes the seller's order lines created in {@code [from, to)} to {@code out},
+     * reading orders from a cursor so memory use does not grow with history size.
+     */
+    void exportSellerOrders(String sellerId, Instant from, Instant to, OrderExportFormat format, OutputStream out)
+            throws IOException;
+}
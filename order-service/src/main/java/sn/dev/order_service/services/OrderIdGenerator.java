@@ -0,0 +1,10 @@
+package sn.dev.order_service.services;
+
+/**
+ * Produces the {@code _id} of new orders. Select the implementation with
+ * {@code orders.id-generator} ({@code ulid} by default, {@code uuid} for random UUIDs).
+ */
+public interface OrderIdGenerator {
+
+    String nextId();
+}
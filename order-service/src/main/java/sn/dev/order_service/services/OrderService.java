@@ -1,5 +1,6 @@
 package sn.dev.order_service.services;
 
+import java.time.Instant;
 import java.util.List;
 
 import sn.dev.order_service.data.order.OrderDocument;
@@ -11,10 +12,24 @@ public interface OrderService {
 
     List<OrderDocument> getOrdersForSeller(String sellerId);
 
+    /**
+     * Orders created in {@code [from, to)}; either bound may be null. The archive is
+     * only queried when the range reaches back past the archiving horizon.
+     */
+    List<OrderDocument> getOrdersForUser(String userId, Instant from, Instant to);
+
+    List<OrderDocument> getOrdersForSeller(String sellerId, Instant from, Instant to);
+
     OrderDocument getOrderForUser(String userId, String orderId);
 
     OrderDocument checkout(String userId);
 
+    /**
+     * Same as {@link #checkout(String)}, but a retry carrying the same key returns the
+     * order created by the first call instead of checking out again.
+     */
+    OrderDocument checkout(String userId, String idempotencyKey);
+
     OrderDocument cancelOrder(String userId, String orderId);
 
     OrderDocument redoOrderToCart(String userId, String orderId);
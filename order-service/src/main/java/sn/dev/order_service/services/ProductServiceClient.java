@@ -1,9 +1,14 @@
 package sn.dev.order_service.services;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import sn.dev.order_service.config.FeignSupportConfig;
 import sn.dev.order_service.data.Product;
@@ -13,9 +18,19 @@ public interface ProductServiceClient {
     @GetMapping("/{id}")
     Product getProductById(@PathVariable String id);
 
+    /**
+     * Unknown ids are missing from the result. With {@code withImages} each product
+     * carries its primary image only; otherwise images are not populated.
+     */
+    @GetMapping("/batch")
+    List<Product> getProductsByIds(@RequestParam("ids") Collection<String> ids,
+            @RequestParam("withImages") boolean withImages);
+
     @PutMapping("/{id}/reduce-quantity/{quantity}")
-    void reduceQuantity(@PathVariable String id, @PathVariable int quantity);
+    void reduceQuantity(@PathVariable String id, @PathVariable int quantity,
+            @RequestHeader("Idempotency-Key") String idempotencyKey);
 
     @PutMapping("/{id}/restore-quantity/{quantity}")
-    void restoreQuantity(@PathVariable String id, @PathVariable int quantity);
+    void restoreQuantity(@PathVariable String id, @PathVariable int quantity,
+            @RequestHeader("Idempotency-Key") String idempotencyKey);
 }
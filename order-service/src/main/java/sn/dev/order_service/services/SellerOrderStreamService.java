@@ -0,0 +1,11 @@
+package sn.dev.order_service.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface SellerOrderStreamService {
+
+    /**
+     * Opens a stream of order line changes for {@code sellerId}.
+     */
+    SseEmitter subscribe(String sellerId);
+}
@@ -0,0 +1,25 @@
+package sn.dev.order_service.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemStatus;
+import sn.dev.order_service.web.dto.SellerStatsDto;
+
+public interface SellerStatsService {
+
+    void recordOrderCreated(OrderDocument order);
+
+    /**
+     * @param previousStatuses item statuses before the change, in the same order as
+     *                         {@code order.getItems()}
+     */
+    void recordItemStatusChanges(OrderDocument order, List<OrderItemStatus> previousStatuses);
+
+    /** Both bounds are inclusive UTC days; either may be null for an open range. */
+    SellerStatsDto getSummary(String sellerId, LocalDate from, LocalDate to);
+
+    /** Recomputes every bucket from {@code orders} and {@code orders_archive}. */
+    void rebuild();
+}
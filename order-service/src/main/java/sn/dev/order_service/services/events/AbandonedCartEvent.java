@@ -0,0 +1,16 @@
+package sn.dev.order_service.services.events;
+
+import java.time.Instant;
+import java.util.List;
+
+import sn.dev.order_service.data.cart.CartItemDocument;
+
+/**
+ * Published by the cart sweeper for every non-empty cart it removes.
+ */
+public record AbandonedCartEvent(
+        String cartId,
+        String userId,
+        List<CartItemDocument> items,
+        Instant lastUpdatedAt) {
+}
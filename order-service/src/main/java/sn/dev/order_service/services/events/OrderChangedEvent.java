@@ -0,0 +1,16 @@
+package sn.dev.order_service.services.events;
+
+import sn.dev.order_service.data.order.OrderDocument;
+
+/**
+ * Published by the order service after an order write. {@code productId} narrows the
+ * change to a single order line; when null every line is affected.
+ */
+public record OrderChangedEvent(Type type, OrderDocument order, String productId) {
+
+    public enum Type {
+        ORDER_CREATED,
+        ORDER_CANCELLED,
+        ITEM_STATUS_CHANGED
+    }
+}
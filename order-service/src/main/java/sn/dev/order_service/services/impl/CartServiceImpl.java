@@ -1,6 +1,8 @@
 package sn.dev.order_service.services.impl;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
@@ -10,6 +12,7 @@ import sn.dev.order_service.data.cart.CartDocument;
 import sn.dev.order_service.data.cart.CartItemDocument;
 import sn.dev.order_service.data.cart.CartRepository;
 import sn.dev.order_service.services.CartService;
+import sn.dev.order_service.services.CartSummaryService;
 import sn.dev.order_service.services.ProductServiceClient;
 
 @Service
@@ -18,25 +21,38 @@ public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
     private final ProductServiceClient productServiceClient;
+    private final CartSummaryService cartSummaryService;
 
     @Override
     public CartDocument getOrCreateCart(String userId) {
+        return OptimisticRetry.onConflict(() -> findOrCreateCart(userId));
+    }
+
+    /**
+     * Not retried itself: a concurrent first request may create the cart in between, and
+     * the caller's retry then finds it. Retrying here as well would multiply the attempts.
+     */
+    private CartDocument findOrCreateCart(String userId) {
         return cartRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     CartDocument cart = new CartDocument();
                     cart.setUserId(userId);
                     cart.setCreatedAt(Instant.now());
                     cart.setUpdatedAt(Instant.now());
-                    return cartRepository.save(cart);
+                    return save(cart);
                 });
     }
 
     @Override
     public CartDocument addItem(String userId, String productId, int quantity) {
+        return OptimisticRetry.onConflict(() -> applyAddItem(userId, productId, quantity));
+    }
+
+    private CartDocument applyAddItem(String userId, String productId, int quantity) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than 0");
         }
-        CartDocument cart = getOrCreateCart(userId);
+        CartDocument cart = findOrCreateCart(userId);
         boolean found = false;
         for (CartItemDocument item : cart.getItems()) {
             if (item.getProductId().equals(productId)) {
@@ -58,29 +74,85 @@ public class CartServiceImpl implements CartService {
 
             System.out.println("Adding product to cart: " + product);
 
-            CartItemDocument newItem = new CartItemDocument();
-            newItem.setProductId(productId);
+            CartItemDocument newItem = newCartItem(productId, product);
             newItem.setQuantity(quantity);
-            newItem.setPriceSnapshot(product.getPrice());
-            newItem.setProductName(product.getName());
-            if (product.getImages() != null && !product.getImages().isEmpty()) {
-                newItem.setImageUrl(product.getImages().get(0).getImageUrl());
-            }
-            newItem.setAvailableQuantity(product.getQuantity());
-            newItem.setSellerId(product.getUserId());
-            newItem.setCreatedAt(Instant.now());
-            newItem.setUpdatedAt(Instant.now());
             cart.getItems().add(newItem);
 
             System.out.println("New cart item added: " + newItem);
         }
         cart.setUpdatedAt(Instant.now());
-        return cartRepository.save(cart);
+        return save(cart);
+    }
+
+    @Override
+    public CartDocument addItems(String userId, Map<String, Integer> quantities) {
+        return applyItems(userId, quantities, Map.of(), false);
+    }
+
+    @Override
+    public CartDocument replaceItems(String userId, Map<String, Integer> quantities, Map<String, String> imageUrls) {
+        return applyItems(userId, quantities, imageUrls, true);
+    }
+
+    private CartDocument applyItems(String userId, Map<String, Integer> quantities, Map<String, String> imageUrls,
+            boolean replace) {
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("At least one item is required");
+        }
+        quantities.forEach((productId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0 for product " + productId);
+            }
+        });
+
+        // Fresh stock for every requested product, fetched once and reused across retries
+        Map<String, Product> products = ProductBatches.fetchById(productServiceClient, quantities.keySet(), true);
+        for (String productId : quantities.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new IllegalArgumentException("Product not found: " + productId);
+            }
+        }
+
+        return OptimisticRetry.onConflict(() -> {
+            CartDocument cart = findOrCreateCart(userId);
+            if (replace) {
+                cart.getItems().clear();
+            }
+            Map<String, CartItemDocument> lines = new HashMap<>();
+            cart.getItems().forEach(item -> lines.put(item.getProductId(), item));
+
+            Instant now = Instant.now();
+            quantities.forEach((productId, quantity) -> {
+                Product product = products.get(productId);
+                CartItemDocument line = lines.get(productId);
+                int newQuantity = (line == null ? 0 : line.getQuantity()) + quantity;
+                if (product.getQuantity() == null || newQuantity > product.getQuantity()) {
+                    throw new IllegalArgumentException("Requested quantity exceeds available stock for product " + productId);
+                }
+                if (line == null) {
+                    line = newCartItem(productId, product);
+                    if (line.getImageUrl() == null) {
+                        line.setImageUrl(imageUrls.get(productId));
+                    }
+                    cart.getItems().add(line);
+                    lines.put(productId, line);
+                }
+                line.setQuantity(newQuantity);
+                line.setAvailableQuantity(product.getQuantity());
+                line.setUpdatedAt(now);
+            });
+            cart.setUpdatedAt(now);
+            return save(cart);
+        });
     }
 
     @Override
     public CartDocument updateItemQuantity(String userId, String productId, int quantity) {
-        CartDocument cart = getOrCreateCart(userId);
+        return OptimisticRetry.onConflict(() -> applyUpdateItemQuantity(userId, productId, quantity));
+    }
+
+    private CartDocument applyUpdateItemQuantity(String userId, String productId, int quantity) {
+        CartDocument cart = findOrCreateCart(userId);
         cart.getItems().removeIf(item -> {
             if (item.getProductId().equals(productId)) {
                 if (quantity <= 0) {
@@ -95,19 +167,50 @@ public class CartServiceImpl implements CartService {
             return false;
         });
         cart.setUpdatedAt(Instant.now());
-        return cartRepository.save(cart);
+        return save(cart);
     }
 
     @Override
     public CartDocument removeItem(String userId, String productId) {
-        CartDocument cart = getOrCreateCart(userId);
+        return OptimisticRetry.onConflict(() -> applyRemoveItem(userId, productId));
+    }
+
+    private CartDocument applyRemoveItem(String userId, String productId) {
+        CartDocument cart = findOrCreateCart(userId);
         cart.getItems().removeIf(item -> item.getProductId().equals(productId));
         cart.setUpdatedAt(Instant.now());
-        return cartRepository.save(cart);
+        return save(cart);
     }
 
     @Override
     public void clearCart(String userId) {
         cartRepository.deleteByUserId(userId);
+        cartSummaryService.clear(userId);
+    }
+
+    private CartDocument save(CartDocument cart) {
+        if (cart.getId() != null && cart.getVersion() == null) {
+            // Written before optimistic locking and not backfilled yet
+            cartRepository.initVersionIfMissing(cart.getId());
+            cart.setVersion(0L);
+        }
+        CartDocument saved = cartRepository.save(cart);
+        cartSummaryService.update(saved);
+        return saved;
+    }
+
+    private static CartItemDocument newCartItem(String productId, Product product) {
+        CartItemDocument item = new CartItemDocument();
+        item.setProductId(productId);
+        item.setPriceSnapshot(product.getPrice());
+        item.setProductName(product.getName());
+        if (product.getImages() != null && !product.getImages().isEmpty()) {
+            item.setImageUrl(product.getImages().get(0).getImageUrl());
+        }
+        item.setAvailableQuantity(product.getQuantity());
+        item.setSellerId(product.getUserId());
+        item.setCreatedAt(Instant.now());
+        item.setUpdatedAt(Instant.now());
+        return item;
     }
 }
@@ -0,0 +1,117 @@
+package sn.dev.order_service.services.impl;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.config.CartSummaryConfig;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartItemDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.services.CartSummaryService;
+import sn.dev.order_service.services.events.AbandonedCartEvent;
+import sn.dev.order_service.web.dto.CartSummaryDto;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartSummaryServiceImpl implements CartSummaryService {
+
+    private static final CartSummaryDto EMPTY = new CartSummaryDto(0, 0.0);
+
+    private final CartRepository cartRepository;
+    private final CartSummaryConfig summaryConfig;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /** {@code version} is null for a deleted cart. */
+    private record Entry(CartSummaryDto summary, Long version, Instant expiresAt) {
+    }
+
+    @Override
+    public CartSummaryDto getSummary(String userId) {
+        Entry entry = cache.get(userId);
+        if (entry != null && entry.expiresAt().isAfter(Instant.now())) {
+            return entry.summary();
+        }
+        CartDocument cart = cartRepository.findByUserId(userId).orElse(null);
+        if (cart == null) {
+            clear(userId);
+            return EMPTY;
+        }
+        update(cart);
+        return summarize(cart);
+    }
+
+    @Override
+    public void update(CartDocument cart) {
+        Entry fresh = new Entry(summarize(cart), cart.getVersion(), expiry());
+        // Saves from concurrent requests can finish out of order; keep the newest version
+        cache.compute(cart.getUserId(), (userId, current) -> {
+            if (current != null && current.version() != null && cart.getVersion() != null
+                    && current.version() > cart.getVersion() && current.expiresAt().isAfter(Instant.now())) {
+                return current;
+            }
+            return fresh;
+        });
+        evictIfFull();
+    }
+
+    @Override
+    public void clear(String userId) {
+        cache.put(userId, new Entry(EMPTY, null, expiry()));
+        evictIfFull();
+    }
+
+    @EventListener
+    public void onAbandonedCart(AbandonedCartEvent event) {
+        clear(event.userId());
+    }
+
+    private static CartSummaryDto summarize(CartDocument cart) {
+        int itemCount = 0;
+        double totalPrice = 0.0;
+        for (CartItemDocument item : cart.getItems()) {
+            itemCount += item.getQuantity();
+            totalPrice += item.getTotalPrice();
+        }
+        return new CartSummaryDto(itemCount, Math.round(totalPrice * 100.0) / 100.0);
+    }
+
+    private Instant expiry() {
+        return Instant.now().plus(summaryConfig.ttl());
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * Once over {@code maxEntries}, drops expired entries and then arbitrary ones down to
+     * nine tenths of it. Warm entries mostly survive, and the sweep runs once per tenth
+     * of the cache filled rather than on every write.
+     */
+    private void evictIfFull() {
+        if (cache.size() <= summaryConfig.maxEntries()) {
+            return;
+        }
+        Instant now = Instant.now();
+        cache.values().removeIf(e -> !e.expiresAt().isAfter(now));
+        int excess = cache.size() - summaryConfig.maxEntries() * 9 / 10;
+        if (excess > 0) {
+            log.debug("Cart summary cache over {} entries after expiry sweep, dropping {}",
+                    summaryConfig.maxEntries(), excess);
+            Iterator<String> userIds = cache.keySet().iterator();
+            while (excess-- > 0 && userIds.hasNext()) {
+                userIds.next();
+                userIds.remove();
+            }
+        }
+    }
+}
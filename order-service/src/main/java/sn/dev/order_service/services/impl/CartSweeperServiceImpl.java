@@ -0,0 +1,85 @@
+package sn.dev.order_service.services.impl;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.config.CartExpiryConfig;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.services.CartSweeperService;
+import sn.dev.order_service.services.events.AbandonedCartEvent;
+
+@Slf4j
+@Service
+public class CartSweeperServiceImpl implements CartSweeperService {
+
+    private final CartRepository cartRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CartExpiryConfig expiryConfig;
+    private final AtomicLong liveCarts = new AtomicLong();
+
+    public CartSweeperServiceImpl(CartRepository cartRepository, MongoTemplate mongoTemplate,
+            ApplicationEventPublisher eventPublisher, CartExpiryConfig expiryConfig, MeterRegistry meterRegistry) {
+        this.cartRepository = cartRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.expiryConfig = expiryConfig;
+        Gauge.builder("carts.live", liveCarts, AtomicLong::get)
+                .description("Number of carts currently stored")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${carts.expiry.sweeper-initial-delay:60000}",
+            fixedDelayString = "${carts.expiry.sweeper-interval:900000}")
+    public void sweep() {
+        try {
+            if (expiryConfig.sweeperEnabled()) {
+                int removed = sweepAbandonedCarts(Instant.now().minus(expiryConfig.sweeperAfter()));
+                log.info("[CartSweeper] Removed {} abandoned carts", removed);
+            }
+            liveCarts.set(cartRepository.count());
+        } catch (Exception e) {
+            log.error("[CartSweeper] Sweep failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int sweepAbandonedCarts(Instant olderThan) {
+        int batchSize = expiryConfig.sweeperBatchSize();
+        int removed = 0;
+        List<CartDocument> batch;
+        do {
+            batch = cartRepository.findByUpdatedAtBefore(olderThan, PageRequest.of(0, batchSize));
+            for (CartDocument cart : batch) {
+                // Matching on updatedAt as well leaves carts touched since we read them alone
+                Query unchanged = Query.query(Criteria.where("_id").is(cart.getId())
+                        .and("updatedAt").is(cart.getUpdatedAt()));
+                CartDocument deleted = mongoTemplate.findAndRemove(unchanged, CartDocument.class);
+                if (deleted == null) {
+                    continue;
+                }
+                removed++;
+                // Carts hold no stock: quantities are only reduced at checkout, so there is
+                // nothing to release here beyond telling listeners the cart was dropped.
+                if (!deleted.getItems().isEmpty()) {
+                    eventPublisher.publishEvent(new AbandonedCartEvent(deleted.getId(), deleted.getUserId(),
+                            deleted.getItems(), deleted.getUpdatedAt()));
+                }
+            }
+        } while (batch.size() == batchSize);
+        return removed;
+    }
+}
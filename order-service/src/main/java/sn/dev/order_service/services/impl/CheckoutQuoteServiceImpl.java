@@ -0,0 +1,104 @@
+package sn.dev.order_service.services.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.config.OrderQuoteConfig;
+import sn.dev.order_service.data.Product;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartItemDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.services.CheckoutQuoteService;
+import sn.dev.order_service.services.ProductServiceClient;
+import sn.dev.order_service.web.dto.CheckoutQuoteDto;
+import sn.dev.order_service.web.dto.CheckoutQuoteLineDto;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckoutQuoteServiceImpl implements CheckoutQuoteService {
+
+    private final CartRepository cartRepository;
+    private final ProductServiceClient productServiceClient;
+    private final OrderQuoteConfig quoteConfig;
+
+    private final Map<String, CachedQuote> cache = new ConcurrentHashMap<>();
+
+    private record CachedQuote(long cartVersion, Instant expiresAt, CheckoutQuoteDto quote) {
+    }
+
+    @Override
+    public CheckoutQuoteDto quote(String userId) {
+        CartDocument cart = cartRepository.findByUserId(userId).orElse(null);
+        if (cart == null || cart.getItems().isEmpty()) {
+            return new CheckoutQuoteDto(cart == null ? null : cart.getVersion(), List.of(), 0, 0.0, 0.0, false,
+                    Instant.now());
+        }
+
+        Instant now = Instant.now();
+        CachedQuote cached = cache.get(userId);
+        if (cached != null && cached.expiresAt().isAfter(now) && cart.getVersion() != null
+                && cached.cartVersion() == cart.getVersion()) {
+            return cached.quote();
+        }
+
+        List<String> productIds = cart.getItems().stream().map(CartItemDocument::getProductId).distinct().toList();
+        CheckoutQuoteDto quote = buildQuote(cart, ProductBatches.fetchById(productServiceClient, productIds, false), now);
+        if (cart.getVersion() != null) {
+            remember(userId, new CachedQuote(cart.getVersion(), now.plus(quoteConfig.cacheTtl()), quote), now);
+        }
+        return quote;
+    }
+
+    private static CheckoutQuoteDto buildQuote(CartDocument cart, Map<String, Product> products, Instant now) {
+        List<CheckoutQuoteLineDto> lines = new ArrayList<>(cart.getItems().size());
+        int totalItems = 0;
+        double totalPrice = 0.0;
+        double currentTotalPrice = 0.0;
+        boolean checkoutReady = true;
+
+        for (CartItemDocument item : cart.getItems()) {
+            Product product = products.get(item.getProductId());
+            Double currentPrice = product == null ? null : product.getPrice();
+            int availableQuantity = product == null || product.getQuantity() == null ? 0 : product.getQuantity();
+            boolean available = product != null && item.getQuantity() <= availableQuantity;
+            boolean priceChanged = currentPrice != null && currentPrice != item.getPriceSnapshot();
+
+            lines.add(new CheckoutQuoteLineDto(
+                    item.getProductId(),
+                    item.getProductName(),
+                    item.getQuantity(),
+                    item.getPriceSnapshot(),
+                    currentPrice,
+                    priceChanged,
+                    availableQuantity,
+                    available,
+                    item.getTotalPrice()));
+
+            totalItems += item.getQuantity();
+            totalPrice += item.getTotalPrice();
+            currentTotalPrice += (currentPrice == null ? item.getPriceSnapshot() : currentPrice) * item.getQuantity();
+            checkoutReady &= available;
+        }
+        return new CheckoutQuoteDto(cart.getVersion(), lines, totalItems, totalPrice, currentTotalPrice,
+                checkoutReady, now);
+    }
+
+    private void remember(String userId, CachedQuote quote, Instant now) {
+        if (cache.size() >= quoteConfig.cacheMaxEntries()) {
+            cache.values().removeIf(q -> !q.expiresAt().isAfter(now));
+            if (cache.size() >= quoteConfig.cacheMaxEntries()) {
+                log.debug("Quote cache full, not caching quote for user {}", userId);
+                return;
+            }
+        }
+        cache.put(userId, quote);
+    }
+}
@@ -0,0 +1,112 @@
+package sn.dev.order_service.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import sn.dev.order_service.config.IdempotencyConfig;
+import sn.dev.order_service.data.idempotency.IdempotencyRecord;
+import sn.dev.order_service.data.idempotency.IdempotencyRecordRepository;
+import sn.dev.order_service.data.idempotency.IdempotencyStatus;
+import sn.dev.order_service.services.IdempotencyService;
+
+@Service
+@RequiredArgsConstructor
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final MongoTemplate mongoTemplate;
+    private final IdempotencyConfig idempotencyConfig;
+
+    @Override
+    public <T> T execute(String scope, String key, String request, Supplier<T> action, Function<T, String> resultId,
+            Function<String, T> replay) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = sha256(request);
+
+        Optional<IdempotencyRecord> completed = claim(id, requestHash);
+        if (completed.isPresent()) {
+            return replay.apply(completed.get().getResultId());
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.deleteById(id);
+            throw e;
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setResultId(resultId.apply(result));
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(Instant.now());
+        idempotencyRecordRepository.save(record);
+        return result;
+    }
+
+    /**
+     * Reserves the key for this request. Returns the stored record when the key was
+     * already completed, and empty when the caller now owns the key.
+     */
+    private Optional<IdempotencyRecord> claim(String id, String requestHash) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setStatus(IdempotencyStatus.IN_PROGRESS);
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(Instant.now());
+        try {
+            idempotencyRecordRepository.insert(record);
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+            // Records written before request hashing have none to compare against
+            if (existing.isPresent() && existing.get().getRequestHash() != null
+                    && !existing.get().getRequestHash().equals(requestHash)) {
+                throw new IllegalStateException("Idempotency-Key was already used with a different request");
+            }
+            if (existing.isPresent() && existing.get().getStatus() == IdempotencyStatus.COMPLETED) {
+                return existing;
+            }
+        }
+
+        // Still in progress: only take it over if the original request looks abandoned
+        Query stale = Query.query(Criteria.where("_id").is(id)
+                .and("status").is(IdempotencyStatus.IN_PROGRESS)
+                .and("createdAt").lt(Instant.now().minus(idempotencyConfig.lockTimeout())));
+        Update takeOver = Update.update("createdAt", Instant.now()).set("requestHash", requestHash);
+        if (mongoTemplate.updateFirst(stale, takeOver, IdempotencyRecord.class).getModifiedCount() == 1) {
+            return Optional.empty();
+        }
+        throw new IllegalStateException("A request with this Idempotency-Key is already being processed");
+    }
+
+    private static String sha256(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package sn.dev.order_service.services.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Re-runs a read-modify-write when another writer saved the same document first
+ * (version mismatch), or created the same user's cart first (duplicate key). Waits a
+ * random, exponentially growing delay ("full jitter") between attempts so competing
+ * writers spread out instead of colliding again.
+ */
+final class OptimisticRetry {
+
+    static final int MAX_ATTEMPTS = 8;
+    private static final long BASE_BACKOFF_MILLIS = 5;
+    private static final long MAX_BACKOFF_MILLIS = 200;
+
+    private OptimisticRetry() {
+    }
+
+    static <T> T onConflict(Supplier<T> operation) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new IllegalStateException("Concurrent update conflict, please retry", e);
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private static void backOff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a conflicting update", e);
+        }
+    }
+}
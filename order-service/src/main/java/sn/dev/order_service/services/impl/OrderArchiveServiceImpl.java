@@ -0,0 +1,69 @@
+package sn.dev.order_service.services.impl;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.config.OrderArchiveConfig;
+import sn.dev.order_service.data.order.OrderArchiveRepository;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderRepository;
+import sn.dev.order_service.data.order.OrderStatus;
+import sn.dev.order_service.services.OrderArchiveService;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    static final List<OrderStatus> TERMINAL_STATUSES = List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final MongoTemplate mongoTemplate;
+    private final OrderArchiveConfig archiveConfig;
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void archiveExpiredOrders() {
+        if (!archiveConfig.enabled()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(archiveConfig.retention());
+        int archived = archiveTerminalOrders(cutoff);
+        log.info("[OrderArchive] Archived {} orders last updated before {}", archived, cutoff);
+    }
+
+    @Override
+    public int archiveTerminalOrders(Instant olderThan) {
+        int batchSize = archiveConfig.batchSize();
+        int total = 0;
+        List<OrderDocument> batch;
+        do {
+            batch = orderRepository.findByStatusInAndUpdatedAtBefore(TERMINAL_STATUSES, olderThan,
+                    PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            // Copy first, then delete: if we stop in between, the next run re-copies
+            // (upsert) and finishes the delete.
+            orderArchiveRepository.saveAll(batch);
+
+            // Re-check the selection criteria so an order touched since it was read stays hot
+            List<String> ids = batch.stream().map(OrderDocument::getId).toList();
+            Query copied = Query.query(Criteria.where("_id").in(ids)
+                    .and("status").in(TERMINAL_STATUSES)
+                    .and("updatedAt").lt(olderThan));
+            total += (int) mongoTemplate.remove(copied, OrderDocument.class).getDeletedCount();
+        } while (batch.size() == batchSize);
+        return total;
+    }
+}
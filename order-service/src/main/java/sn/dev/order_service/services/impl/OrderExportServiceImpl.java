@@ -0,0 +1,164 @@
+package sn.dev.order_service.services.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Range;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import sn.dev.order_service.data.order.OrderArchiveRepository;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemDocument;
+import sn.dev.order_service.data.order.OrderRepository;
+import sn.dev.order_service.services.OrderExportFormat;
+import sn.dev.order_service.services.OrderExportService;
+import sn.dev.order_service.web.dto.SellerOrderExportLineDto;
+
+@Service
+@RequiredArgsConstructor
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String CSV_HEADER =
+            "orderId,createdAt,buyerId,orderStatus,productId,productName,unitPrice,quantity,subtotal,itemStatus";
+
+    // Archived orders are checked against the hot collection this many at a time
+    static final int ARCHIVE_PAGE_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void exportSellerOrders(String sellerId, Instant from, Instant to, OrderExportFormat format,
+            OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == OrderExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        Range<Instant> createdAt = Range.of(
+                from != null ? Range.Bound.inclusive(from) : Range.Bound.unbounded(),
+                to != null ? Range.Bound.exclusive(to) : Range.Bound.unbounded());
+        try (Stream<OrderDocument> orders = orderRepository
+                .streamByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(sellerId, createdAt)) {
+            Iterator<OrderDocument> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                writeOrder(iterator.next(), sellerId, format, writer);
+            }
+        }
+
+        // Archived orders follow the hot ones; they are all older than the retention window.
+        // The archiver copies before it deletes, so an order can be in both; the hot copy wins.
+        if (orderArchiveRepository.mayContain(from)) {
+            try (Stream<OrderDocument> orders = orderArchiveRepository.streamBySellerId(sellerId, from, to)) {
+                writeArchivedOrders(orders, sellerId, format, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes archived orders a page at a time, skipping those still in the hot collection,
+     * which were written already. Remembering the exported ids instead would grow with the
+     * seller's order count.
+     */
+    private void writeArchivedOrders(Stream<OrderDocument> orders, String sellerId, OrderExportFormat format,
+            Writer writer) throws IOException {
+        List<OrderDocument> page = new ArrayList<>(ARCHIVE_PAGE_SIZE);
+        Iterator<OrderDocument> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            page.add(iterator.next());
+            if (page.size() == ARCHIVE_PAGE_SIZE || !iterator.hasNext()) {
+                Set<String> hot = orderRepository.findByIdIn(page.stream().map(OrderDocument::getId).toList())
+                        .stream()
+                        .map(OrderRepository.OrderIdOnly::getId)
+                        .collect(Collectors.toSet());
+                for (OrderDocument order : page) {
+                    if (!hot.contains(order.getId())) {
+                        writeOrder(order, sellerId, format, writer);
+                    }
+                }
+                page.clear();
+            }
+        }
+    }
+
+    private void writeOrder(OrderDocument order, String sellerId, OrderExportFormat format, Writer writer)
+            throws IOException {
+        for (OrderItemDocument item : order.getItems()) {
+            if (sellerId.equals(item.getSellerId())) {
+                writeLine(toLine(order, item), format, writer);
+            }
+        }
+    }
+
+    private void writeLine(SellerOrderExportLineDto line, OrderExportFormat format, Writer writer)
+            throws IOException {
+        if (format == OrderExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(line));
+        } else {
+            writer.write(csv(line.orderId()));
+            writer.write(',');
+            writer.write(line.createdAt() != null ? line.createdAt().toString() : "");
+            writer.write(',');
+            writer.write(csv(line.buyerId()));
+            writer.write(',');
+            writer.write(csv(line.orderStatus()));
+            writer.write(',');
+            writer.write(csv(line.productId()));
+            writer.write(',');
+            writer.write(csv(line.productName()));
+            writer.write(',');
+            writer.write(Double.toString(line.unitPrice()));
+            writer.write(',');
+            writer.write(Integer.toString(line.quantity()));
+            writer.write(',');
+            writer.write(Double.toString(line.subtotal()));
+            writer.write(',');
+            writer.write(csv(line.itemStatus()));
+        }
+        writer.write('\n');
+    }
+
+    private static SellerOrderExportLineDto toLine(OrderDocument order, OrderItemDocument item) {
+        return new SellerOrderExportLineDto(
+                order.getId(),
+                order.getCreatedAt(),
+                order.getUserId(),
+                order.getStatus() != null ? order.getStatus().name() : null,
+                item.getProductId(),
+                item.getProductName(),
+                item.getUnitPrice(),
+                item.getQuantity(),
+                item.getSubtotal(),
+                item.getStatus() != null ? item.getStatus().name() : null);
+    }
+
+    /**
+     * Quotes a CSV field when it contains a separator, quote or line break.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
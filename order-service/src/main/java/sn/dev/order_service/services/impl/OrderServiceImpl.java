@@ -1,22 +1,35 @@
 package sn.dev.order_service.services.impl;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Range;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
 import sn.dev.order_service.data.cart.CartDocument;
 import sn.dev.order_service.data.cart.CartItemDocument;
 import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.data.order.OrderArchiveRepository;
 import sn.dev.order_service.data.order.OrderDocument;
 import sn.dev.order_service.data.order.OrderItemDocument;
 import sn.dev.order_service.data.order.OrderItemStatus;
 import sn.dev.order_service.data.order.OrderRepository;
 import sn.dev.order_service.data.order.OrderStatus;
 import sn.dev.order_service.data.order.PaymentMode;
+import sn.dev.order_service.services.CartService;
+import sn.dev.order_service.services.IdempotencyService;
+import sn.dev.order_service.services.OrderIdGenerator;
 import sn.dev.order_service.services.ProductServiceClient;
+import sn.dev.order_service.services.SellerStatsService;
+import sn.dev.order_service.services.events.OrderChangedEvent;
 
 @Service
 @RequiredArgsConstructor
@@ -24,16 +37,46 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
 
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
+    private final CartService cartService;
     private final ProductServiceClient productServiceClient;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final IdempotencyService idempotencyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SellerStatsService sellerStatsService;
+    private final OrderIdGenerator orderIdGenerator;
 
     @Override
     public List<OrderDocument> getOrdersForUser(String userId) {
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<OrderDocument> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        // Unbounded, so the archive always has to be read
+        return mergeNewestFirst(orders, orderArchiveRepository.findByUserId(userId, null, null));
     }
 
     @Override
     public List<OrderDocument> getOrdersForSeller(String sellerId) {
-        return orderRepository.findByItemsSellerIdOrderByCreatedAtDesc(sellerId);
+        List<OrderDocument> orders = orderRepository.findByItemsSellerIdOrderByCreatedAtDesc(sellerId);
+        // Unbounded, so the archive always has to be read
+        return mergeNewestFirst(orders, orderArchiveRepository.findBySellerId(sellerId, null, null));
+    }
+
+    @Override
+    public List<OrderDocument> getOrdersForUser(String userId, Instant from, Instant to) {
+        List<OrderDocument> orders = orderRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(userId,
+                createdAtRange(from, to));
+        if (!orderArchiveRepository.mayContain(from)) {
+            return orders;
+        }
+        return mergeNewestFirst(orders, orderArchiveRepository.findByUserId(userId, from, to));
+    }
+
+    @Override
+    public List<OrderDocument> getOrdersForSeller(String sellerId, Instant from, Instant to) {
+        List<OrderDocument> orders = orderRepository.findByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(
+                sellerId, createdAtRange(from, to));
+        if (!orderArchiveRepository.mayContain(from)) {
+            return orders;
+        }
+        return mergeNewestFirst(orders, orderArchiveRepository.findBySellerId(sellerId, from, to));
     }
 
     @Override
@@ -42,8 +85,7 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
             throw new IllegalArgumentException("orderId must not be null");
         }
         
-        OrderDocument order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        OrderDocument order = findHotOrArchived(orderId);
         if (!order.getUserId().equals(userId)) {
             throw new IllegalArgumentException("Access denied to this order");
         }
@@ -60,7 +102,7 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
         }
 
         OrderDocument order = new OrderDocument();
-        order.setId(UUID.randomUUID().toString());
+        order.setId(orderIdGenerator.nextId());
         order.setUserId(userId);
         order.setPaymentMode(PaymentMode.PAY_ON_DELIVERY);
         order.setStatus(OrderStatus.PENDING);
@@ -74,7 +116,8 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
         try {
             for (CartItemDocument cartItem : cart.getItems()) {
                 // Reduce quantity in product service
-                productServiceClient.reduceQuantity(cartItem.getProductId(), cartItem.getQuantity());
+                productServiceClient.reduceQuantity(cartItem.getProductId(), cartItem.getQuantity(),
+                        stockKey(order.getId(), cartItem.getProductId()));
                 processedItems.add(cartItem);
 
                 OrderItemDocument item = new OrderItemDocument();
@@ -93,7 +136,8 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
             // Compensation: Restore quantity for items that were already processed
             for (CartItemDocument processed : processedItems) {
                 try {
-                    productServiceClient.restoreQuantity(processed.getProductId(), processed.getQuantity());
+                    productServiceClient.restoreQuantity(processed.getProductId(), processed.getQuantity(),
+                            stockKey(order.getId(), processed.getProductId()));
                 } catch (Exception ex) {
                     // Log error: Failed to compensate transaction
                     System.err.println("CRITICAL: Failed to restore quantity for product " + processed.getProductId() + " during checkout rollback.");
@@ -106,29 +150,54 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
 
         OrderDocument saved = orderRepository.save(order);
 
-        cartRepository.deleteByUserId(userId);
+        cartService.clearCart(userId);
+        sellerStatsService.recordOrderCreated(saved);
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderChangedEvent.Type.ORDER_CREATED, saved, null));
         return saved;
     }
 
+    @Override
+    public OrderDocument checkout(String userId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return checkout(userId);
+        }
+        // Checkout takes no parameters beyond the caller, who is already part of the scope
+        return idempotencyService.execute("checkout:" + userId, idempotencyKey, "",
+                () -> checkout(userId),
+                OrderDocument::getId,
+                this::findHotOrArchived);
+    }
+
     @Override
     public OrderDocument cancelOrder(String userId, String orderId) {
         if (orderId == null) {
             throw new IllegalArgumentException("orderId must not be null");
         }
 
-        OrderDocument order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
-        if (!order.getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Access denied to this order");
-        }
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new IllegalStateException("Only pending orders can be cancelled");
-        }
+        // Persist the cancellation first: if a seller updated the order concurrently the
+        // retry re-checks the status, and stock is only restored once the cancel has won.
+        AtomicReference<List<OrderItemStatus>> previousStatuses = new AtomicReference<>();
+        OrderDocument saved = OptimisticRetry.onConflict(() -> {
+            OrderDocument order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+            previousStatuses.set(itemStatuses(order));
+            if (!order.getUserId().equals(userId)) {
+                throw new IllegalArgumentException("Access denied to this order");
+            }
+            if (order.getStatus() != OrderStatus.PENDING) {
+                throw new IllegalStateException("Only pending orders can be cancelled");
+            }
+            order.setStatus(OrderStatus.CANCELLED);
+            order.getItems().forEach(i -> i.setStatus(OrderItemStatus.CANCELLED));
+            order.setUpdatedAt(Instant.now());
+            return saveExisting(order);
+        });
 
         // Restore quantities
-        for (OrderItemDocument item : order.getItems()) {
+        for (OrderItemDocument item : saved.getItems()) {
             try {
-                productServiceClient.restoreQuantity(item.getProductId(), item.getQuantity());
+                productServiceClient.restoreQuantity(item.getProductId(), item.getQuantity(),
+                        stockKey(saved.getId(), item.getProductId()));
             } catch (Exception e) {
                 System.err.println("Failed to restore quantity for product " + item.getProductId() + ": " + e.getMessage());
                 // We continue to cancel the order even if restore fails, or we could throw exception.
@@ -136,10 +205,9 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
             }
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        order.getItems().forEach(i -> i.setStatus(OrderItemStatus.CANCELLED));
-        order.setUpdatedAt(Instant.now());
-        return orderRepository.save(order);
+        sellerStatsService.recordItemStatusChanges(saved, previousStatuses.get());
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderChangedEvent.Type.ORDER_CANCELLED, saved, null));
+        return saved;
     }
 
     @Override
@@ -148,36 +216,21 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
             throw new IllegalArgumentException("orderId must not be null");
         }
 
-        OrderDocument order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        OrderDocument order = findHotOrArchived(orderId);
         if (!order.getUserId().equals(userId)) {
             throw new IllegalArgumentException("Access denied to this order");
         }
 
-        CartDocument cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    CartDocument c = new CartDocument();
-                    c.setUserId(userId);
-                    c.setCreatedAt(Instant.now());
-                    c.setUpdatedAt(Instant.now());
-                    return c;
-                });
-
-        cart.getItems().clear();
-        order.getItems().forEach(orderItem -> {
-            CartItemDocument cartItem = new CartItemDocument();
-            cartItem.setProductId(orderItem.getProductId());
-            cartItem.setSellerId(orderItem.getSellerId());
-            cartItem.setProductName(orderItem.getProductName());
-            cartItem.setPriceSnapshot(orderItem.getUnitPrice());
-            cartItem.setQuantity(orderItem.getQuantity());
-            cartItem.setImageUrl(orderItem.getImageUrl());
-            cartItem.setCreatedAt(Instant.now());
-            cartItem.setUpdatedAt(Instant.now());
-            cart.getItems().add(cartItem);
+        // Re-priced and stock-checked against the current catalogue, in one cart write
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        Map<String, String> imageUrls = new HashMap<>();
+        order.getItems().forEach(item -> {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            if (item.getImageUrl() != null) {
+                imageUrls.putIfAbsent(item.getProductId(), item.getImageUrl());
+            }
         });
-        cart.setUpdatedAt(Instant.now());
-        cartRepository.save(cart);
+        cartService.replaceItems(userId, quantities, imageUrls);
 
         return order;
     }
@@ -189,49 +242,56 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
             throw new IllegalArgumentException("orderId must not be null");
         }
 
-        OrderDocument order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
-
-        boolean found = false;
-        for (OrderItemDocument item : order.getItems()) {
-            if (item.getProductId().equals(itemId) && item.getSellerId().equals(sellerId)) {
-                item.setStatus(newStatus);
-                found = true;
+        AtomicReference<List<OrderItemStatus>> previousStatuses = new AtomicReference<>();
+        OrderDocument saved = OptimisticRetry.onConflict(() -> {
+            OrderDocument order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+            previousStatuses.set(itemStatuses(order));
+
+            boolean found = false;
+            for (OrderItemDocument item : order.getItems()) {
+                if (item.getProductId().equals(itemId) && item.getSellerId().equals(sellerId)) {
+                    item.setStatus(newStatus);
+                    found = true;
+                }
+            }
+            if (!found) {
+                throw new IllegalArgumentException("Order item not found or does not belong to this seller");
             }
-        }
-        if (!found) {
-            throw new IllegalArgumentException("Order item not found or does not belong to this seller");
-        }
 
-        // Update overall order status based on all item statuses
-        boolean allPending = order.getItems().stream()
-                .allMatch(i -> i.getStatus() == OrderItemStatus.PENDING);
-        boolean allConfirmed = order.getItems().stream()
-                .allMatch(i -> i.getStatus() == OrderItemStatus.CONFIRMED);
-        boolean allShipped = order.getItems().stream()
-                .allMatch(i -> i.getStatus() == OrderItemStatus.SHIPPED);
-        boolean allDelivered = order.getItems().stream()
-                .allMatch(i -> i.getStatus() == OrderItemStatus.DELIVERED);
-
-        if (allDelivered) {
-            order.setStatus(OrderStatus.DELIVERED);
-        } else if (allShipped) {
-            order.setStatus(OrderStatus.SHIPPED);
-        } else if (allConfirmed) {
-            order.setStatus(OrderStatus.CONFIRMED);
-        } else if (allPending) {
-            order.setStatus(OrderStatus.PENDING);
-        }
+            // Update overall order status based on all item statuses
+            boolean allPending = order.getItems().stream()
+                    .allMatch(i -> i.getStatus() == OrderItemStatus.PENDING);
+            boolean allConfirmed = order.getItems().stream()
+                    .allMatch(i -> i.getStatus() == OrderItemStatus.CONFIRMED);
+            boolean allShipped = order.getItems().stream()
+                    .allMatch(i -> i.getStatus() == OrderItemStatus.SHIPPED);
+            boolean allDelivered = order.getItems().stream()
+                    .allMatch(i -> i.getStatus() == OrderItemStatus.DELIVERED);
+
+            if (allDelivered) {
+                order.setStatus(OrderStatus.DELIVERED);
+            } else if (allShipped) {
+                order.setStatus(OrderStatus.SHIPPED);
+            } else if (allConfirmed) {
+                order.setStatus(OrderStatus.CONFIRMED);
+            } else if (allPending) {
+                order.setStatus(OrderStatus.PENDING);
+            }
 
-        order.setUpdatedAt(Instant.now());
-        return orderRepository.save(order);
+            order.setUpdatedAt(Instant.now());
+            return saveExisting(order);
+        });
+        sellerStatsService.recordItemStatusChanges(saved, previousStatuses.get());
+        eventPublisher.publishEvent(new OrderChangedEvent(OrderChangedEvent.Type.ITEM_STATUS_CHANGED, saved, itemId));
+        return saved;
     }
 
     @Override
     public List<OrderDocument> searchOrdersForUser(String userId, String query) {
         // Simple search implementation: filter by order ID or product name
         // In a real app, this should be done with a more complex MongoDB query
-        List<OrderDocument> allOrders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<OrderDocument> allOrders = getOrdersForUser(userId);
         String lowerQuery = query.toLowerCase();
         
         return allOrders.stream()
@@ -246,7 +306,7 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
 
     @Override
     public List<OrderDocument> searchOrdersForSeller(String sellerId, String query) {
-        List<OrderDocument> allOrders = orderRepository.findByItemsSellerIdOrderByCreatedAtDesc(sellerId);
+        List<OrderDocument> allOrders = getOrdersForSeller(sellerId);
         String lowerQuery = query.toLowerCase();
         
         return allOrders.stream()
@@ -259,4 +319,53 @@ public class OrderServiceImpl implements sn.dev.order_service.services.OrderServ
                 )
                 .toList();
     }
+
+    private OrderDocument saveExisting(OrderDocument order) {
+        if (order.getVersion() == null) {
+            // Written before optimistic locking and not backfilled yet
+            orderRepository.initVersionIfMissing(order.getId());
+            order.setVersion(0L);
+        }
+        return orderRepository.save(order);
+    }
+
+    private static List<OrderItemStatus> itemStatuses(OrderDocument order) {
+        return order.getItems().stream().map(OrderItemDocument::getStatus).toList();
+    }
+
+    /**
+     * Idempotency key for a stock change on one order line. Checkout rollback and
+     * cancellation never both happen for the same order, so they can share it.
+     */
+    private static String stockKey(String orderId, String productId) {
+        return orderId + ":" + productId;
+    }
+
+    private OrderDocument findHotOrArchived(String orderId) {
+        return orderRepository.findById(orderId)
+                .or(() -> orderArchiveRepository.findById(orderId))
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+    }
+
+    private static Range<Instant> createdAtRange(Instant from, Instant to) {
+        return Range.of(
+                from != null ? Range.Bound.inclusive(from) : Range.Bound.unbounded(),
+                to != null ? Range.Bound.exclusive(to) : Range.Bound.unbounded());
+    }
+
+    /**
+     * Merges hot and archived results. An order can briefly exist in both while it is
+     * being archived; the hot copy wins.
+     */
+    private static List<OrderDocument> mergeNewestFirst(List<OrderDocument> hot, List<OrderDocument> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<String, OrderDocument> byId = new LinkedHashMap<>();
+        hot.forEach(order -> byId.put(order.getId(), order));
+        archived.forEach(order -> byId.putIfAbsent(order.getId(), order));
+        List<OrderDocument> merged = new ArrayList<>(byId.values());
+        merged.sort(Comparator.comparing(OrderDocument::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged;
+    }
 }
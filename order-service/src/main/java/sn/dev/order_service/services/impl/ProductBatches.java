@@ -0,0 +1,38 @@
+package sn.dev.order_service.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sn.dev.order_service.data.Product;
+import sn.dev.order_service.services.ProductServiceClient;
+
+/**
+ * Resolves many products through product-service's batch endpoint, one call per
+ * {@link #BATCH_SIZE} ids, instead of one {@code getProductById} call each.
+ */
+final class ProductBatches {
+
+    /** Matches the product-service limit on {@code GET /api/products/batch}. */
+    static final int BATCH_SIZE = 100;
+
+    private ProductBatches() {
+    }
+
+    /**
+     * Unknown ids are absent from the returned map. Ask for images only where they are
+     * shown, as they cost product-service a media lookup.
+     */
+    static Map<String, Product> fetchById(ProductServiceClient client, Collection<String> productIds,
+            boolean withImages) {
+        List<String> ids = new ArrayList<>(productIds);
+        Map<String, Product> products = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + BATCH_SIZE));
+            client.getProductsByIds(chunk, withImages).forEach(p -> products.put(p.getId(), p));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,19 @@
+package sn.dev.order_service.services.impl;
+
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import sn.dev.order_service.services.OrderIdGenerator;
+
+/** The previous random (v4) UUID ids; kept for comparison and rollback. */
+@Component
+@ConditionalOnProperty(name = "orders.id-generator", havingValue = "uuid")
+public class RandomUuidOrderIdGenerator implements OrderIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,142 @@
+package sn.dev.order_service.services.impl;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.config.OrderStreamConfig;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemDocument;
+import sn.dev.order_service.services.SellerOrderStreamService;
+import sn.dev.order_service.services.events.OrderChangedEvent;
+import sn.dev.order_service.web.dto.SellerOrderEventDto;
+
+/**
+ * Fans order writes out to connected sellers. Each connection owns a bounded buffer
+ * drained by its own virtual thread, which also sends heartbeats, so an idle
+ * connection costs a parked virtual thread and a socket.
+ */
+@Slf4j
+@Service
+public class SellerOrderStreamServiceImpl implements SellerOrderStreamService {
+
+    private final OrderStreamConfig streamConfig;
+    private final Map<String, Set<SellerConnection>> connections = new ConcurrentHashMap<>();
+
+    public SellerOrderStreamServiceImpl(OrderStreamConfig streamConfig, MeterRegistry meterRegistry) {
+        this.streamConfig = streamConfig;
+        Gauge.builder("orders.stream.connections", connections,
+                        map -> map.values().stream().mapToInt(Set::size).sum())
+                .description("Open seller order streams")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe(String sellerId) {
+        SseEmitter emitter = new SseEmitter(streamConfig.timeout().toMillis());
+        SellerConnection connection = new SellerConnection(emitter, streamConfig.bufferSize());
+        connections.computeIfAbsent(sellerId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+
+        emitter.onCompletion(() -> unregister(sellerId, connection));
+        emitter.onTimeout(() -> unregister(sellerId, connection));
+        emitter.onError(e -> unregister(sellerId, connection));
+
+        connection.sender = Thread.ofVirtual()
+                .name("seller-stream-" + sellerId)
+                .start(() -> pump(sellerId, connection));
+        return emitter;
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDocument order = event.order();
+        for (OrderItemDocument item : order.getItems()) {
+            if (event.productId() != null && !event.productId().equals(item.getProductId())) {
+                continue;
+            }
+            Set<SellerConnection> sellerConnections = connections.get(item.getSellerId());
+            if (sellerConnections == null || sellerConnections.isEmpty()) {
+                continue;
+            }
+            SellerOrderEventDto dto = new SellerOrderEventDto(
+                    event.type().name(),
+                    order.getId(),
+                    order.getUserId(),
+                    item.getProductId(),
+                    item.getProductName(),
+                    item.getQuantity(),
+                    item.getSubtotal(),
+                    item.getStatus() != null ? item.getStatus().name() : null,
+                    order.getUpdatedAt());
+            for (SellerConnection connection : sellerConnections) {
+                if (!connection.buffer.offer(dto)) {
+                    // Slow consumer: drop it rather than buffer without limit. Its sender
+                    // closes the stream; completing here would wait behind a stuck send
+                    log.warn("[SellerOrderStream] Buffer full for seller {}, closing stream", item.getSellerId());
+                    unregister(item.getSellerId(), connection);
+                }
+            }
+        }
+    }
+
+    private void pump(String sellerId, SellerConnection connection) {
+        long heartbeatMillis = streamConfig.heartbeatInterval().toMillis();
+        try {
+            // Not the interrupt flag: a blocking write may swallow the interrupt
+            while (!connection.closed) {
+                SellerOrderEventDto event = connection.buffer.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    connection.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    connection.emitter.send(SseEmitter.event()
+                            .name(event.type())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Unregistered while waiting for events
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            unregister(sellerId, connection);
+            return;
+        }
+        // Unregistered: the stream completed, timed out or fell behind
+        connection.emitter.complete();
+    }
+
+    private void unregister(String sellerId, SellerConnection connection) {
+        connections.computeIfPresent(sellerId, (id, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+        connection.closed = true;
+        Thread sender = connection.sender;
+        if (sender != null && sender != Thread.currentThread()) {
+            sender.interrupt();
+        }
+    }
+
+    private static final class SellerConnection {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SellerOrderEventDto> buffer;
+        private volatile Thread sender;
+        private volatile boolean closed;
+
+        private SellerConnection(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package sn.dev.order_service.services.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.order_service.data.order.OrderArchiveRepository;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemDocument;
+import sn.dev.order_service.data.order.OrderItemStatus;
+import sn.dev.order_service.data.stats.SellerDailyStats;
+import sn.dev.order_service.data.stats.SellerStatsRepository;
+import sn.dev.order_service.services.SellerStatsService;
+import sn.dev.order_service.web.dto.SellerDailyStatsDto;
+import sn.dev.order_service.web.dto.SellerStatsDto;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SellerStatsServiceImpl implements SellerStatsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final SellerStatsRepository sellerStatsRepository;
+
+    /** Per-seller increments for one order, accumulated before building the $inc. */
+    private static final class Delta {
+        private double revenue;
+        private long items;
+        private final Map<OrderItemStatus, Long> statusCounts = new EnumMap<>(OrderItemStatus.class);
+
+        private void countStatus(OrderItemStatus status, long by) {
+            statusCounts.merge(status, by, Long::sum);
+        }
+    }
+
+    @Override
+    public void recordOrderCreated(OrderDocument order) {
+        apply(order, null);
+    }
+
+    @Override
+    public void recordItemStatusChanges(OrderDocument order, List<OrderItemStatus> previousStatuses) {
+        apply(order, previousStatuses);
+    }
+
+    /**
+     * Stats are derived data: a failed update must not fail the order operation that
+     * triggered it, and the nightly rebuild corrects any drift.
+     */
+    private void apply(OrderDocument order, List<OrderItemStatus> previousStatuses) {
+        try {
+            Map<String, Delta> deltas = new LinkedHashMap<>();
+            List<OrderItemDocument> items = order.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                OrderItemDocument item = items.get(i);
+                OrderItemStatus before = previousStatuses == null ? null : previousStatuses.get(i);
+                OrderItemStatus after = item.getStatus();
+                if (before == after) {
+                    continue;
+                }
+                Delta delta = deltas.computeIfAbsent(item.getSellerId(), s -> new Delta());
+                if (before != null) {
+                    delta.countStatus(before, -1);
+                }
+                delta.countStatus(after, 1);
+                int sign = countsTowardRevenue(after) - countsTowardRevenue(before);
+                delta.revenue += sign * item.getSubtotal();
+                delta.items += (long) sign * item.getQuantity();
+            }
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            String day = dayOf(order.getCreatedAt());
+            Instant now = Instant.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SellerDailyStats.class);
+            deltas.forEach((sellerId, delta) -> {
+                Update update = new Update()
+                        .setOnInsert("sellerId", sellerId)
+                        .setOnInsert("day", day)
+                        .set("updatedAt", now);
+                if (previousStatuses == null) {
+                    update.inc("orders", 1);
+                }
+                if (delta.revenue != 0) {
+                    update.inc("revenue", delta.revenue);
+                }
+                if (delta.items != 0) {
+                    update.inc("items", delta.items);
+                }
+                delta.statusCounts.forEach((status, count) -> {
+                    if (count != 0) {
+                        update.inc("statusCounts." + status.name(), count);
+                    }
+                });
+                bulk.upsert(Query.query(Criteria.where("_id").is(SellerDailyStats.idOf(sellerId, day))), update);
+            });
+            bulk.execute();
+        } catch (Exception e) {
+            log.warn("[SellerStats] Failed to update stats for order {}: {}", order.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public SellerStatsDto getSummary(String sellerId, LocalDate from, LocalDate to) {
+        Range<String> days = Range.of(
+                from == null ? Range.Bound.unbounded() : Range.Bound.inclusive(from.toString()),
+                to == null ? Range.Bound.unbounded() : Range.Bound.inclusive(to.toString()));
+        List<SellerDailyStats> buckets = sellerStatsRepository.findBySellerIdAndDayBetweenOrderByDayAsc(sellerId, days);
+
+        double revenue = 0.0;
+        long items = 0;
+        long orders = 0;
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        List<SellerDailyStatsDto> dailyStats = new ArrayList<>(buckets.size());
+        for (SellerDailyStats bucket : buckets) {
+            revenue += bucket.getRevenue();
+            items += bucket.getItems();
+            orders += bucket.getOrders();
+            bucket.getStatusCounts().forEach((status, count) -> statusCounts.merge(status, count, Long::sum));
+            dailyStats.add(new SellerDailyStatsDto(bucket.getDay(), bucket.getRevenue(), bucket.getItems(),
+                    bucket.getOrders(), bucket.getStatusCounts()));
+        }
+        return new SellerStatsDto(sellerId, revenue, items, orders, statusCounts, dailyStats);
+    }
+
+    @Scheduled(cron = "${orders.seller-stats.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        long started = System.currentTimeMillis();
+        rebuild();
+        log.info("[SellerStats] Rebuilt seller stats in {} ms", System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Replaces {@code seller_stats} wholesale via {@code $out}. Increments applied to
+     * orders already read by the pipeline but before {@code $out} completes are lost
+     * until the next rebuild, hence the off-peak schedule.
+     */
+    @Override
+    public void rebuild() {
+        Aggregation aggregation = Aggregation.newAggregation(rebuildPipeline())
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        mongoTemplate.aggregate(aggregation, OrderDocument.class, Document.class);
+    }
+
+    static List<AggregationOperation> rebuildPipeline() {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(UnionWithOperation.unionWith(OrderArchiveRepository.COLLECTION));
+        // An order copied to the archive but not yet removed from orders counts once
+        stages.add(stage("$group", new Document("_id", "$_id").append("order", new Document("$first", "$$ROOT"))));
+        stages.add(stage("$replaceRoot", new Document("newRoot", "$order")));
+        stages.add(stage("$unwind", "$items"));
+
+        Document counted = new Document("$ne", List.of("$items.status", OrderItemStatus.CANCELLED.name()));
+        Document group = new Document("_id", new Document("sellerId", "$items.sellerId")
+                .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                        .append("date", "$createdAt")
+                        .append("timezone", "UTC"))))
+                .append("revenue", new Document("$sum", new Document("$cond", List.of(counted, "$items.subtotal", 0))))
+                .append("items", new Document("$sum", new Document("$cond", List.of(counted, "$items.quantity", 0))))
+                .append("orderIds", new Document("$addToSet", "$_id"));
+        Document statusCounts = new Document();
+        for (OrderItemStatus status : OrderItemStatus.values()) {
+            String field = "status_" + status.name();
+            group.append(field, new Document("$sum", new Document("$cond",
+                    List.of(new Document("$eq", List.of("$items.status", status.name())), 1, 0))));
+            statusCounts.append(status.name(), "$" + field);
+        }
+        stages.add(stage("$group", group));
+
+        stages.add(stage("$project", new Document("_id", new Document("$concat", List.of("$_id.sellerId", ":", "$_id.day")))
+                .append("sellerId", "$_id.sellerId")
+                .append("day", "$_id.day")
+                .append("revenue", 1)
+                .append("items", 1)
+                .append("orders", new Document("$size", "$orderIds"))
+                .append("statusCounts", statusCounts)
+                .append("updatedAt", "$$NOW")));
+        stages.add(stage("$out", SellerDailyStats.COLLECTION));
+        return stages;
+    }
+
+    private static AggregationOperation stage(String operator, Object spec) {
+        return context -> new Document(operator, spec);
+    }
+
+    private static int countsTowardRevenue(OrderItemStatus status) {
+        return status != null && status != OrderItemStatus.CANCELLED ? 1 : 0;
+    }
+
+    private static String dayOf(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC).toString();
+    }
+}
@@ -0,0 +1,77 @@
+package sn.dev.order_service.services.impl;
+
+import java.security.SecureRandom;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import sn.dev.order_service.services.OrderIdGenerator;
+
+/**
+ * ULIDs: a 48-bit millisecond timestamp followed by 80 random bits, written as 26
+ * Crockford base32 characters (10 shorter than a UUID string). Ids sort by creation
+ * time, so new orders land on the right edge of the {@code _id} index instead of a
+ * random leaf. Within one millisecond the random part is incremented, keeping ids
+ * from this instance strictly increasing.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.id-generator", havingValue = "ulid", matchIfMissing = true)
+public class UlidOrderIdGenerator implements OrderIdGenerator {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final SecureRandom random = new SecureRandom();
+
+    private long lastMillis = -1;
+    // 80 random bits split as 16 high + 64 low
+    private long randomHigh;
+    private long randomLow;
+
+    @Override
+    public String nextId() {
+        long millis;
+        long high;
+        long low;
+        synchronized (this) {
+            millis = Math.max(System.currentTimeMillis(), lastMillis);
+            if (millis == lastMillis) {
+                randomLow++;
+                if (randomLow == 0) {
+                    randomHigh = (randomHigh + 1) & 0xFFFF;
+                    if (randomHigh == 0) {
+                        // Random part exhausted for this millisecond; borrow the next one
+                        millis++;
+                        reseed();
+                    }
+                }
+            } else {
+                reseed();
+            }
+            lastMillis = millis;
+            high = randomHigh;
+            low = randomLow;
+        }
+        return encode(millis, high, low);
+    }
+
+    private void reseed() {
+        randomHigh = random.nextInt() & 0xFFFF;
+        randomLow = random.nextLong();
+    }
+
+    static String encode(long millis, long randomHigh, long randomLow) {
+        char[] out = new char[26];
+        // 48-bit timestamp -> 10 chars (50 bits, top 2 always zero)
+        for (int i = 9; i >= 0; i--) {
+            out[i] = ALPHABET[(int) (millis & 31)];
+            millis >>>= 5;
+        }
+        // 80 random bits -> 16 chars, least significant first
+        for (int i = 25; i >= 10; i--) {
+            out[i] = ALPHABET[(int) (randomLow & 31)];
+            randomLow = (randomLow >>> 5) | ((randomHigh & 31) << 59);
+            randomHigh >>>= 5;
+        }
+        return new String(out);
+    }
+}
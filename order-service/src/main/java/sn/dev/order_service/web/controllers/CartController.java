@@ -4,7 +4,9 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import sn.dev.order_service.web.dto.CartResponseDto;
+import sn.dev.order_service.web.dto.CartSummaryDto;
 import sn.dev.order_service.web.dto.CartItemRequestDto;
+import sn.dev.order_service.web.dto.CartItemsRequestDto;
 
 @RequestMapping("/api/cart")
 public interface CartController {
@@ -12,10 +14,16 @@ public interface CartController {
     @GetMapping
     ResponseEntity<CartResponseDto> getCart();
 
+    @GetMapping("/summary")
+    ResponseEntity<CartSummaryDto> getSummary();
+
     @PostMapping("/items/{productId}")
     ResponseEntity<CartResponseDto> addItem(@PathVariable String productId,
                                             @Valid @RequestBody CartItemRequestDto requestDto);
 
+    @PostMapping("/items")
+    ResponseEntity<CartResponseDto> addItems(@Valid @RequestBody CartItemsRequestDto requestDto);
+
     @PutMapping("/items/{productId}")
     ResponseEntity<CartResponseDto> updateItemQuantity(@PathVariable String productId,
                                                        @Valid @RequestBody CartItemRequestDto requestDto);
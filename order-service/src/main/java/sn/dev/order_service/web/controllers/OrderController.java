@@ -1,12 +1,20 @@
 package sn.dev.order_service.web.controllers;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import sn.dev.order_service.web.dto.CheckoutQuoteDto;
+import sn.dev.order_service.web.dto.SellerStatsDto;
 import sn.dev.order_service.web.dto.UpdateOrderItemStatusRequestDto;
 import sn.dev.order_service.web.dto.OrderResponseDto;
 
@@ -14,10 +22,15 @@ import sn.dev.order_service.web.dto.OrderResponseDto;
 public interface OrderController {
 
     @PostMapping("/checkout")
-    ResponseEntity<OrderResponseDto> checkout();
+    ResponseEntity<OrderResponseDto> checkout(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey);
+
+    @PostMapping("/quote")
+    ResponseEntity<CheckoutQuoteDto> quote();
 
     @GetMapping
-    ResponseEntity<List<OrderResponseDto>> getMyOrders();
+    ResponseEntity<List<OrderResponseDto>> getMyOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to);
 
     @GetMapping("/{orderId}")
     ResponseEntity<OrderResponseDto> getOrder(@PathVariable String orderId);
@@ -30,7 +43,26 @@ public interface OrderController {
 
     @GetMapping("/seller")
     @PreAuthorize("hasAuthority('SELLER')")
-    ResponseEntity<List<OrderResponseDto>> getOrdersForSeller();
+    ResponseEntity<List<OrderResponseDto>> getOrdersForSeller(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to);
+
+    @GetMapping(value = "/seller/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('SELLER')")
+    SseEmitter streamSellerOrders();
+
+    @GetMapping("/seller/export")
+    @PreAuthorize("hasAuthority('SELLER')")
+    ResponseEntity<StreamingResponseBody> exportSellerOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to);
+
+    @GetMapping("/seller/stats")
+    @PreAuthorize("hasAuthority('SELLER')")
+    ResponseEntity<SellerStatsDto> getSellerStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to);
 
     @PatchMapping("/{orderId}/items/{itemId}/status")
     @PreAuthorize("hasAuthority('SELLER')")
@@ -12,12 +12,17 @@ import org.springframework.web.bind.annotation.RestController;
 import sn.dev.order_service.data.cart.CartDocument;
 import sn.dev.order_service.data.cart.CartItemDocument;
 import sn.dev.order_service.services.CartService;
+import sn.dev.order_service.services.CartSummaryService;
 import sn.dev.order_service.web.controllers.CartController;
 import sn.dev.order_service.web.dto.CartItemDto;
 import sn.dev.order_service.web.dto.CartItemRequestDto;
+import sn.dev.order_service.web.dto.CartItemsRequestDto;
 import sn.dev.order_service.web.dto.CartResponseDto;
+import sn.dev.order_service.web.dto.CartSummaryDto;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,6 +31,7 @@ import java.util.stream.Collectors;
 public class CartControllerImpl implements CartController {
 
     private final CartService cartService;
+    private final CartSummaryService cartSummaryService;
 
     @Override
     public ResponseEntity<CartResponseDto> getCart() {
@@ -35,6 +41,11 @@ public class CartControllerImpl implements CartController {
         return ResponseEntity.ok(mapToDto(cart));
     }
 
+    @Override
+    public ResponseEntity<CartSummaryDto> getSummary() {
+        return ResponseEntity.ok(cartSummaryService.getSummary(getCurrentUserId()));
+    }
+
     @Override
     public ResponseEntity<CartResponseDto> addItem(String productId, @Valid CartItemRequestDto requestDto) {
         log.info("[CartController] POST /api/cart/items/{} - addItem called", productId);
@@ -44,6 +55,16 @@ public class CartControllerImpl implements CartController {
         return ResponseEntity.ok(mapToDto(cart));
     }
 
+    @Override
+    public ResponseEntity<CartResponseDto> addItems(@Valid CartItemsRequestDto requestDto) {
+        log.info("[CartController] POST /api/cart/items - addItems called with {} items", requestDto.items().size());
+        String userId = getCurrentUserId();
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        requestDto.items().forEach(item -> quantities.merge(item.productId(), item.quantity(), Integer::sum));
+        CartDocument cart = cartService.addItems(userId, quantities);
+        return ResponseEntity.ok(mapToDto(cart));
+    }
+
     @Override
     public ResponseEntity<CartResponseDto> updateItemQuantity(String productId, @Valid CartItemRequestDto requestDto) {
         log.info("[CartController] PUT /api/cart/items/{} - updateItemQuantity called", productId);
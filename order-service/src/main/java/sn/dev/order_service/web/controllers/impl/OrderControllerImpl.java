@@ -1,24 +1,37 @@
 package sn.dev.order_service.web.controllers.impl;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import sn.dev.order_service.data.order.OrderDocument;
 import sn.dev.order_service.data.order.OrderItemDocument;
 import sn.dev.order_service.data.order.OrderItemStatus;
+import sn.dev.order_service.services.CheckoutQuoteService;
+import sn.dev.order_service.services.OrderExportFormat;
+import sn.dev.order_service.services.OrderExportService;
 import sn.dev.order_service.services.OrderService;
+import sn.dev.order_service.services.SellerOrderStreamService;
+import sn.dev.order_service.services.SellerStatsService;
 import sn.dev.order_service.web.controllers.OrderController;
+import sn.dev.order_service.web.dto.CheckoutQuoteDto;
 import sn.dev.order_service.web.dto.OrderItemDto;
 import sn.dev.order_service.web.dto.OrderResponseDto;
+import sn.dev.order_service.web.dto.SellerStatsDto;
 import sn.dev.order_service.web.dto.UpdateOrderItemStatusRequestDto;
 
 @Slf4j
@@ -27,6 +40,10 @@ import sn.dev.order_service.web.dto.UpdateOrderItemStatusRequestDto;
 public class OrderControllerImpl implements OrderController {
 
     private final OrderService orderService;
+    private final SellerOrderStreamService sellerOrderStreamService;
+    private final OrderExportService orderExportService;
+    private final CheckoutQuoteService checkoutQuoteService;
+    private final SellerStatsService sellerStatsService;
 
     private String getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -101,14 +118,28 @@ public class OrderControllerImpl implements OrderController {
     }
 
     @Override
-    public ResponseEntity<OrderResponseDto> checkout() {
+    public ResponseEntity<OrderResponseDto> checkout(String idempotencyKey) {
         log.info("[OrderController] POST /api/orders/checkout - checkout called");
         String userId = getCurrentUserId();
         // The checkout process includes reducing product quantities via ProductServiceClient
-        OrderDocument order = orderService.checkout(userId);
+        OrderDocument order = idempotencyKey == null
+                ? orderService.checkout(userId)
+                : orderService.checkout(userId, idempotencyKey);
         return ResponseEntity.ok(toDto(order));
     }
 
+    @Override
+    public ResponseEntity<SellerStatsDto> getSellerStats(LocalDate from, LocalDate to) {
+        log.info("[OrderController] GET /api/orders/seller/stats - getSellerStats called");
+        return ResponseEntity.ok(sellerStatsService.getSummary(getCurrentSellerId(), from, to));
+    }
+
+    @Override
+    public ResponseEntity<CheckoutQuoteDto> quote() {
+        log.info("[OrderController] POST /api/orders/quote - quote called");
+        return ResponseEntity.ok(checkoutQuoteService.quote(getCurrentUserId()));
+    }
+
     @Override
     public ResponseEntity<List<OrderResponseDto>> searchOrders(String query) {
         String userId = getCurrentUserId();
@@ -124,10 +155,13 @@ public class OrderControllerImpl implements OrderController {
     }
 
     @Override
-    public ResponseEntity<List<OrderResponseDto>> getMyOrders() {
+    public ResponseEntity<List<OrderResponseDto>> getMyOrders(Instant from, Instant to) {
         log.info("[OrderController] GET /api/orders - getMyOrders called");
         String userId = getCurrentUserId();
-        List<OrderResponseDto> orders = orderService.getOrdersForUser(userId)
+        List<OrderDocument> found = (from == null && to == null)
+                ? orderService.getOrdersForUser(userId)
+                : orderService.getOrdersForUser(userId, from, to);
+        List<OrderResponseDto> orders = found
                 .stream()
                 .map(this::toDto)
                 .toList();
@@ -159,16 +193,46 @@ public class OrderControllerImpl implements OrderController {
     }
 
     @Override
-    public ResponseEntity<List<OrderResponseDto>> getOrdersForSeller() {
+    public ResponseEntity<List<OrderResponseDto>> getOrdersForSeller(Instant from, Instant to) {
         log.info("[OrderController] GET /api/orders/seller - getOrdersForSeller called");
         String sellerId = getCurrentSellerId();
-        List<OrderResponseDto> orders = orderService.getOrdersForSeller(sellerId)
+        List<OrderDocument> found = (from == null && to == null)
+                ? orderService.getOrdersForSeller(sellerId)
+                : orderService.getOrdersForSeller(sellerId, from, to);
+        List<OrderResponseDto> orders = found
                 .stream()
                 .map(order -> toDtoForSeller(order, sellerId))
                 .toList();
         return ResponseEntity.ok(orders);
     }
 
+    @Override
+    public SseEmitter streamSellerOrders() {
+        log.info("[OrderController] GET /api/orders/seller/stream - streamSellerOrders called");
+        return sellerOrderStreamService.subscribe(getCurrentSellerId());
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportSellerOrders(String format, Instant from, Instant to) {
+        log.info("[OrderController] GET /api/orders/seller/export - exportSellerOrders called");
+        String sellerId = getCurrentSellerId();
+
+        OrderExportFormat exportFormat;
+        try {
+            exportFormat = OrderExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid export format: " + format);
+        }
+
+        StreamingResponseBody body = out -> orderExportService.exportSellerOrders(sellerId, from, to, exportFormat, out);
+        String fileName = "orders." + exportFormat.name().toLowerCase();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
     @Override
     public ResponseEntity<OrderResponseDto> updateItemStatus(String orderId,
                                                              String itemId,
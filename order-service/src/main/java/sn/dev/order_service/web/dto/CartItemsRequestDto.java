@@ -0,0 +1,21 @@
+package sn.dev.order_service.web.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public record CartItemsRequestDto(
+        @NotEmpty @Size(max = 100) List<@Valid @NotNull Item> items
+) {
+
+    public record Item(
+            @NotBlank String productId,
+            @NotNull @Min(1) @Max(100) Integer quantity
+    ) {}
+}
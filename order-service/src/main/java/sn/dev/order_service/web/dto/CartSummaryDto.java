@@ -0,0 +1,6 @@
+package sn.dev.order_service.web.dto;
+
+public record CartSummaryDto(
+        int itemCount,
+        double totalPrice
+) {}
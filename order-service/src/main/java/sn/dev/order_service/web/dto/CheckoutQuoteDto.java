@@ -0,0 +1,18 @@
+package sn.dev.order_service.web.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@code totalPrice} is what checkout would charge (cart price snapshots);
+ * {@code currentTotalPrice} uses today's product prices.
+ */
+public record CheckoutQuoteDto(
+        Long cartVersion,
+        List<CheckoutQuoteLineDto> lines,
+        int totalItems,
+        double totalPrice,
+        double currentTotalPrice,
+        boolean checkoutReady,
+        Instant quotedAt
+) {}
@@ -0,0 +1,13 @@
+package sn.dev.order_service.web.dto;
+
+public record CheckoutQuoteLineDto(
+        String productId,
+        String productName,
+        int quantity,
+        double priceSnapshot,
+        Double currentPrice,
+        boolean priceChanged,
+        int availableQuantity,
+        boolean available,
+        double subtotal
+) {}
@@ -0,0 +1,11 @@
+package sn.dev.order_service.web.dto;
+
+import java.util.Map;
+
+public record SellerDailyStatsDto(
+        String day,
+        double revenue,
+        long items,
+        long orders,
+        Map<String, Long> statusCounts
+) {}
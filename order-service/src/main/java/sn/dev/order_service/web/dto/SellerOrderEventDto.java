@@ -0,0 +1,15 @@
+package sn.dev.order_service.web.dto;
+
+import java.time.Instant;
+
+public record SellerOrderEventDto(
+        String type,
+        String orderId,
+        String buyerId,
+        String productId,
+        String productName,
+        int quantity,
+        double subtotal,
+        String status,
+        Instant updatedAt
+) {}
@@ -0,0 +1,16 @@
+package sn.dev.order_service.web.dto;
+
+import java.time.Instant;
+
+public record SellerOrderExportLineDto(
+        String orderId,
+        Instant createdAt,
+        String buyerId,
+        String orderStatus,
+        String productId,
+        String productName,
+        double unitPrice,
+        int quantity,
+        double subtotal,
+        String itemStatus
+) {}
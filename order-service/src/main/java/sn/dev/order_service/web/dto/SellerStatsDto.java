@@ -0,0 +1,13 @@
+package sn.dev.order_service.web.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record SellerStatsDto(
+        String sellerId,
+        double revenue,
+        long items,
+        long orders,
+        Map<String, Long> statusCounts,
+        List<SellerDailyStatsDto> days
+) {}
@@ -0,0 +1,131 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartItemDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.services.CartSummaryService;
+import sn.dev.order_service.services.ProductServiceClient;
+
+/**
+ * Hammers one cart from several threads against a repository stub that enforces the
+ * same version check as Mongo, and checks that every increment survives.
+ */
+class CartServiceImplContentionTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 50;
+
+    private final VersionedCartStore store = new VersionedCartStore();
+
+    @Test
+    void concurrentAddItem_losesNoUpdates() throws Exception {
+        CartRepository cartRepository = mock(CartRepository.class);
+        when(cartRepository.findByUserId("user-1")).thenAnswer(inv -> store.find());
+        when(cartRepository.save(any(CartDocument.class))).thenAnswer(inv -> store.save(inv.getArgument(0)));
+        CartServiceImpl cartService = new CartServiceImpl(cartRepository, mock(ProductServiceClient.class),
+                mock(CartSummaryService.class));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long began;
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        cartService.addItem("user-1", "prod-1", 1);
+                    }
+                    return null;
+                }));
+            }
+            began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        int total = THREADS * UPDATES_PER_THREAD;
+        assertEquals(total, store.find().orElseThrow().getItems().get(0).getQuantity());
+        assertEquals(total, store.version());
+        System.out.printf("cart contention: %d updates in %.3fs (%.0f/s), %d version conflicts retried%n",
+                total, seconds, total / seconds, store.conflicts());
+    }
+
+    /** In-memory single-cart store with Mongo's optimistic-locking semantics. */
+    private static final class VersionedCartStore {
+
+        private CartDocument current;
+        private int conflicts;
+
+        VersionedCartStore() {
+            CartItemDocument item = new CartItemDocument();
+            item.setProductId("prod-1");
+            item.setQuantity(0);
+            item.setAvailableQuantity(Integer.MAX_VALUE);
+            current = new CartDocument();
+            current.setId("cart-1");
+            current.setUserId("user-1");
+            current.setVersion(0L);
+            current.getItems().add(item);
+        }
+
+        synchronized Optional<CartDocument> find() {
+            return Optional.of(copy(current));
+        }
+
+        synchronized CartDocument save(CartDocument cart) {
+            if (!current.getVersion().equals(cart.getVersion())) {
+                conflicts++;
+                throw new OptimisticLockingFailureException("Version mismatch for cart " + cart.getId());
+            }
+            CartDocument stored = copy(cart);
+            stored.setVersion(cart.getVersion() + 1);
+            current = stored;
+            return copy(stored);
+        }
+
+        synchronized long version() {
+            return current.getVersion();
+        }
+
+        synchronized int conflicts() {
+            return conflicts;
+        }
+
+        private static CartDocument copy(CartDocument source) {
+            CartDocument copy = new CartDocument();
+            copy.setId(source.getId());
+            copy.setVersion(source.getVersion());
+            copy.setUserId(source.getUserId());
+            copy.setCreatedAt(source.getCreatedAt());
+            copy.setUpdatedAt(Instant.now());
+            for (CartItemDocument item : source.getItems()) {
+                CartItemDocument itemCopy = new CartItemDocument();
+                itemCopy.setProductId(item.getProductId());
+                itemCopy.setQuantity(item.getQuantity());
+                itemCopy.setAvailableQuantity(item.getAvailableQuantity());
+                copy.getItems().add(itemCopy);
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import sn.dev.order_service.data.Media;
+import sn.dev.order_service.data.Product;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartItemDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.services.CartSummaryService;
+import sn.dev.order_service.services.ProductServiceClient;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceImplTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    @Mock
+    private CartSummaryService cartSummaryService;
+
+    @InjectMocks
+    private CartServiceImpl cartService;
+
+    @Test
+    void addItems_UsesOneLookupAndOneSave() {
+        CartDocument cart = new CartDocument();
+        cart.setUserId("user-1");
+        CartItemDocument existing = new CartItemDocument();
+        existing.setProductId("prod-1");
+        existing.setQuantity(1);
+        cart.getItems().add(existing);
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        quantities.put("prod-1", 2);
+        quantities.put("prod-2", 3);
+        when(productServiceClient.getProductsByIds(any(), eq(true)))
+                .thenReturn(List.of(product("prod-1", 10), product("prod-2", 5)));
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.of(cart));
+        when(cartRepository.save(any(CartDocument.class))).thenAnswer(i -> i.getArgument(0));
+
+        CartDocument result = cartService.addItems("user-1", quantities);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(3, result.getItems().get(0).getQuantity());
+        assertEquals(10, result.getItems().get(0).getAvailableQuantity());
+        assertEquals(3, result.getItems().get(1).getQuantity());
+        assertEquals("seller-1", result.getItems().get(1).getSellerId());
+        verify(productServiceClient, times(1)).getProductsByIds(any(), eq(true));
+        verify(productServiceClient, never()).getProductById(any());
+        verify(cartRepository, times(1)).save(any(CartDocument.class));
+        verify(cartSummaryService).update(result);
+    }
+
+    @Test
+    void replaceItems_RejectsWholeRequestWhenOneLineIsShortOfStock() {
+        when(productServiceClient.getProductsByIds(any(), eq(true)))
+                .thenReturn(List.of(product("prod-1", 10), product("prod-2", 1)));
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.of(new CartDocument()));
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        quantities.put("prod-1", 2);
+        quantities.put("prod-2", 3);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cartService.replaceItems("user-1", quantities, Map.of()));
+        verify(cartRepository, never()).save(any(CartDocument.class));
+    }
+
+    @Test
+    void replaceItems_KeepsOrderImageWhenCatalogueHasNone() {
+        Product withImage = product("prod-2", 5);
+        withImage.setImages(List.of(new Media("m-2", "https://cdn/prod-2-new.png", "prod-2")));
+        when(productServiceClient.getProductsByIds(any(), eq(true))).thenReturn(List.of(product("prod-1", 10), withImage));
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.of(new CartDocument()));
+        when(cartRepository.save(any(CartDocument.class))).thenAnswer(i -> i.getArgument(0));
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        quantities.put("prod-1", 1);
+        quantities.put("prod-2", 1);
+        CartDocument result = cartService.replaceItems("user-1", quantities,
+                Map.of("prod-1", "https://cdn/prod-1.png", "prod-2", "https://cdn/prod-2-old.png"));
+
+        assertEquals("https://cdn/prod-1.png", result.getItems().get(0).getImageUrl());
+        assertEquals("https://cdn/prod-2-new.png", result.getItems().get(1).getImageUrl());
+    }
+
+    @Test
+    void addItem_RetriesConflictsOnlyAtTheOuterLevel() {
+        // Every attempt to create the cart loses to a concurrent creator that never shows up
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.empty());
+        when(cartRepository.save(any(CartDocument.class))).thenThrow(new DuplicateKeyException("user-1"));
+
+        assertThrows(IllegalStateException.class, () -> cartService.addItem("user-1", "prod-1", 1));
+        verify(cartRepository, times(OptimisticRetry.MAX_ATTEMPTS)).save(any(CartDocument.class));
+    }
+
+    @Test
+    void addItem_StampsAnInitialVersionOnACartWrittenBeforeVersioning() {
+        CartDocument cart = new CartDocument();
+        cart.setId("cart-1");
+        cart.setUserId("user-1");
+        CartItemDocument existing = new CartItemDocument();
+        existing.setProductId("prod-1");
+        existing.setQuantity(1);
+        existing.setAvailableQuantity(5);
+        cart.getItems().add(existing);
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.of(cart));
+        when(cartRepository.save(any(CartDocument.class))).thenAnswer(i -> i.getArgument(0));
+
+        CartDocument result = cartService.addItem("user-1", "prod-1", 1);
+
+        verify(cartRepository).initVersionIfMissing("cart-1");
+        assertEquals(0L, result.getVersion());
+        assertEquals(2, result.getItems().get(0).getQuantity());
+    }
+
+    private static Product product(String id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(9.99);
+        product.setQuantity(quantity);
+        product.setUserId("seller-1");
+        return product;
+    }
+}
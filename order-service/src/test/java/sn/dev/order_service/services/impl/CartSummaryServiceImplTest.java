@@ -0,0 +1,87 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import sn.dev.order_service.config.CartSummaryConfig;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartItemDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.web.dto.CartSummaryDto;
+
+@ExtendWith(MockitoExtension.class)
+class CartSummaryServiceImplTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    private CartSummaryServiceImpl summaryService;
+
+    @BeforeEach
+    void setUp() {
+        summaryService = new CartSummaryServiceImpl(cartRepository, new CartSummaryConfig(Duration.ofMinutes(10), 100));
+    }
+
+    @Test
+    void getSummary_ReadsMongoOnlyOnMiss() {
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.of(cart(1L, 2, 9.995)));
+
+        CartSummaryDto first = summaryService.getSummary("user-1");
+        CartSummaryDto second = summaryService.getSummary("user-1");
+
+        assertEquals(new CartSummaryDto(2, 19.99), first);
+        assertEquals(first, second);
+        verify(cartRepository, times(1)).findByUserId("user-1");
+    }
+
+    @Test
+    void update_KeepsNewestVersionAndClearEmptiesIt() {
+        summaryService.update(cart(5L, 3, 1.0));
+        summaryService.update(cart(4L, 1, 1.0));
+        assertEquals(3, summaryService.getSummary("user-1").itemCount());
+
+        summaryService.clear("user-1");
+        assertEquals(new CartSummaryDto(0, 0.0), summaryService.getSummary("user-1"));
+        verifyNoInteractions(cartRepository);
+    }
+
+    @Test
+    void update_EvictsASliceWhenFullRatherThanEverything() {
+        summaryService = new CartSummaryServiceImpl(cartRepository, new CartSummaryConfig(Duration.ofMinutes(10), 10));
+        for (int i = 0; i < 11; i++) {
+            summaryService.update(cart("user-" + i, 1L, 1, 1.0));
+        }
+
+        assertEquals(9, summaryService.size());
+        summaryService.update(cart("user-11", 1L, 1, 1.0));
+        assertEquals(10, summaryService.size());
+    }
+
+    private static CartDocument cart(Long version, int quantity, double price) {
+        return cart("user-1", version, quantity, price);
+    }
+
+    private static CartDocument cart(String userId, Long version, int quantity, double price) {
+        CartItemDocument item = new CartItemDocument();
+        item.setProductId("prod-1");
+        item.setQuantity(quantity);
+        item.setPriceSnapshot(price);
+        CartDocument cart = new CartDocument();
+        cart.setUserId(userId);
+        cart.setVersion(version);
+        cart.getItems().add(item);
+        return cart;
+    }
+}
@@ -0,0 +1,116 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import sn.dev.order_service.config.OrderQuoteConfig;
+import sn.dev.order_service.data.Product;
+import sn.dev.order_service.data.cart.CartDocument;
+import sn.dev.order_service.data.cart.CartItemDocument;
+import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.services.ProductServiceClient;
+import sn.dev.order_service.web.dto.CheckoutQuoteDto;
+import sn.dev.order_service.web.dto.CheckoutQuoteLineDto;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutQuoteServiceImplTest {
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    private CheckoutQuoteServiceImpl quoteService;
+
+    @BeforeEach
+    void setUp() {
+        quoteService = new CheckoutQuoteServiceImpl(cartRepository, productServiceClient,
+                new OrderQuoteConfig(Duration.ofMinutes(1), 100));
+    }
+
+    @Test
+    void quote_FlagsShortStockAndPriceChangesWithOneBatchedLookup() {
+        CartDocument cart = cart(3L, item("prod-1", 2, 10.0), item("prod-2", 5, 4.0));
+        when(cartRepository.findByUserId("user-1")).thenReturn(Optional.of(cart));
+        when(productServiceClient.getProductsByIds(List.of("prod-1", "prod-2"), false))
+                .thenReturn(List.of(product("prod-1", 12.0, 10), product("prod-2", 4.0, 3)));
+
+        CheckoutQuoteDto quote = quoteService.quote("user-1");
+
+        verify(productServiceClient, times(1)).getProductsByIds(any(), eq(false));
+        verify(productServiceClient, never()).getProductById(any());
+        assertFalse(quote.checkoutReady());
+        assertEquals(7, quote.totalItems());
+        assertEquals(40.0, quote.totalPrice());
+        assertEquals(44.0, quote.currentTotalPrice());
+
+        CheckoutQuoteLineDto first = quote.lines().get(0);
+        assertTrue(first.available());
+        assertTrue(first.priceChanged());
+        CheckoutQuoteLineDto second = quote.lines().get(1);
+        assertFalse(second.available());
+        assertEquals(3, second.availableQuantity());
+    }
+
+    @Test
+    void quote_IsCachedUntilCartVersionChanges() {
+        when(cartRepository.findByUserId("user-1"))
+                .thenReturn(Optional.of(cart(1L, item("prod-1", 1, 10.0))))
+                .thenReturn(Optional.of(cart(1L, item("prod-1", 1, 10.0))))
+                .thenReturn(Optional.of(cart(2L, item("prod-1", 2, 10.0))));
+        when(productServiceClient.getProductsByIds(List.of("prod-1"), false))
+                .thenReturn(List.of(product("prod-1", 10.0, 5)));
+
+        CheckoutQuoteDto first = quoteService.quote("user-1");
+        CheckoutQuoteDto cached = quoteService.quote("user-1");
+        CheckoutQuoteDto refreshed = quoteService.quote("user-1");
+
+        assertSame(first, cached);
+        assertEquals(2, refreshed.totalItems());
+        verify(productServiceClient, times(2)).getProductsByIds(any(), eq(false));
+    }
+
+    private static CartDocument cart(Long version, CartItemDocument... items) {
+        CartDocument cart = new CartDocument();
+        cart.setId("cart-1");
+        cart.setUserId("user-1");
+        cart.setVersion(version);
+        cart.getItems().addAll(List.of(items));
+        return cart;
+    }
+
+    private static CartItemDocument item(String productId, int quantity, double price) {
+        CartItemDocument item = new CartItemDocument();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setPriceSnapshot(price);
+        return item;
+    }
+
+    private static Product product(String id, double price, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        product.setQuantity(quantity);
+        return product;
+    }
+}
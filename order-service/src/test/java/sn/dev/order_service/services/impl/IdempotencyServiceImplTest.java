@@ -0,0 +1,119 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.UpdateResult;
+
+import sn.dev.order_service.config.IdempotencyConfig;
+import sn.dev.order_service.data.idempotency.IdempotencyRecord;
+import sn.dev.order_service.data.idempotency.IdempotencyRecordRepository;
+import sn.dev.order_service.data.idempotency.IdempotencyStatus;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository, mongoTemplate,
+                new IdempotencyConfig(Duration.ofHours(24), Duration.ofSeconds(60)));
+    }
+
+    @Test
+    void testExecute_FirstCallRunsActionAndStoresResult() {
+        AtomicInteger runs = new AtomicInteger();
+
+        String result = idempotencyService.execute("checkout:user-1", "key-1", "",
+                () -> "order-" + runs.incrementAndGet(), r -> r, id -> "replayed-" + id);
+
+        assertEquals("order-1", result);
+        assertEquals(1, runs.get());
+        verify(idempotencyRecordRepository).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testExecute_CompletedKeyReplaysWithoutRunning() {
+        IdempotencyRecord completed = new IdempotencyRecord();
+        completed.setId("checkout:user-1:key-1");
+        completed.setStatus(IdempotencyStatus.COMPLETED);
+        completed.setResultId("order-1");
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepository.findById("checkout:user-1:key-1")).thenReturn(Optional.of(completed));
+        AtomicInteger runs = new AtomicInteger();
+
+        String result = idempotencyService.execute("checkout:user-1", "key-1", "",
+                () -> "order-" + runs.incrementAndGet(), r -> r, id -> "replayed-" + id);
+
+        assertEquals("replayed-order-1", result);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testExecute_KeyReusedForADifferentRequestIsRejected() {
+        idempotencyService.execute("checkout:user-1", "key-1", "quantity=2", () -> "order-1", r -> r, id -> id);
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(stored.capture());
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepository.findById("checkout:user-1:key-1")).thenReturn(Optional.of(stored.getValue()));
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("checkout:user-1", "key-1",
+                "quantity=5", () -> "order-" + runs.incrementAndGet(), r -> r, id -> id));
+        assertEquals(0, runs.get());
+        assertEquals("order-1", idempotencyService.execute("checkout:user-1", "key-1", "quantity=2",
+                () -> "order-" + runs.incrementAndGet(), r -> r, id -> id));
+    }
+
+    @Test
+    void testExecute_InProgressKeyIsRejected() {
+        IdempotencyRecord inProgress = new IdempotencyRecord();
+        inProgress.setStatus(IdempotencyStatus.IN_PROGRESS);
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepository.findById("checkout:user-1:key-1")).thenReturn(Optional.of(inProgress));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("checkout:user-1", "key-1", "",
+                () -> "order-1", r -> r, id -> id));
+    }
+
+    @Test
+    void testExecute_FailedActionReleasesKey() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("checkout:user-1", "key-1", "",
+                () -> {
+                    throw new IllegalStateException("Cart is empty");
+                }, r -> r, id -> id));
+
+        verify(idempotencyRecordRepository).deleteById("checkout:user-1:key-1");
+    }
+}
@@ -0,0 +1,148 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import sn.dev.order_service.data.order.OrderArchiveRepository;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemDocument;
+import sn.dev.order_service.data.order.OrderItemStatus;
+import sn.dev.order_service.data.order.OrderRepository;
+import sn.dev.order_service.data.order.OrderStatus;
+import sn.dev.order_service.services.OrderExportFormat;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+
+    private OrderExportServiceImpl orderExportService;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportServiceImpl(orderRepository, orderArchiveRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    private OrderDocument order() {
+        return order("order-1");
+    }
+
+    private OrderDocument order(String id) {
+        OrderDocument order = new OrderDocument();
+        order.setId(id);
+        order.setUserId("buyer-1");
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+
+        OrderItemDocument mine = new OrderItemDocument();
+        mine.setProductId("prod-1");
+        mine.setSellerId("seller-1");
+        mine.setProductName("Chair, oak");
+        mine.setUnitPrice(10.0);
+        mine.setQuantity(2);
+        mine.setSubtotal(20.0);
+        mine.setStatus(OrderItemStatus.PENDING);
+
+        OrderItemDocument other = new OrderItemDocument();
+        other.setProductId("prod-2");
+        other.setSellerId("seller-2");
+        other.setProductName("Lamp");
+        other.setStatus(OrderItemStatus.PENDING);
+
+        order.setItems(List.of(mine, other));
+        return order;
+    }
+
+    @Test
+    void testExportCsv_OnlySellerLinesWithEscaping() throws Exception {
+        when(orderRepository.streamByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(eq("seller-1"), any()))
+                .thenReturn(Stream.of(order()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportSellerOrders("seller-1", null, null, OrderExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("order-1,2026-01-01T00:00:00Z,buyer-1,PENDING,prod-1,\"Chair, oak\",10.0,2,20.0,PENDING",
+                lines[1]);
+    }
+
+    @Test
+    void testExportNdjson_IncludesArchiveWhenRangeNeedsIt() throws Exception {
+        when(orderRepository.streamByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(eq("seller-1"), any()))
+                .thenReturn(Stream.empty());
+        when(orderArchiveRepository.mayContain(null)).thenReturn(true);
+        when(orderArchiveRepository.streamBySellerId("seller-1", null, null)).thenReturn(Stream.of(order()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportSellerOrders("seller-1", null, null, OrderExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        assertEquals("prod-1", new ObjectMapper().readTree(lines[0]).get("productId").asText());
+    }
+
+    @Test
+    void testExport_OrderInBothCollectionsIsWrittenOnce() throws Exception {
+        // More orders than an archive page, a third of them archived but not yet deleted
+        int count = OrderExportServiceImpl.ARCHIVE_PAGE_SIZE * 3 + 7;
+        List<OrderDocument> hot = IntStream.range(0, count).mapToObj(i -> order("order-" + i)).toList();
+        List<OrderDocument> archived = IntStream.range(0, count)
+                .mapToObj(i -> order(i % 3 == 0 ? "order-" + i : "archived-" + i))
+                .toList();
+        Set<String> hotIds = hot.stream().map(OrderDocument::getId).collect(Collectors.toSet());
+        when(orderRepository.streamByItemsSellerIdAndCreatedAtBetweenOrderByCreatedAtDesc(eq("seller-1"), any()))
+                .thenReturn(hot.stream());
+        when(orderArchiveRepository.mayContain(null)).thenReturn(true);
+        when(orderArchiveRepository.streamBySellerId("seller-1", null, null)).thenReturn(archived.stream());
+        when(orderRepository.findByIdIn(any())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            assertTrue(ids.size() <= OrderExportServiceImpl.ARCHIVE_PAGE_SIZE);
+            return ids.stream().filter(hotIds::contains)
+                    .map(id -> (OrderRepository.OrderIdOnly) () -> id)
+                    .toList();
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportSellerOrders("seller-1", null, null, OrderExportFormat.CSV, out);
+
+        List<String> orderIds = Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+                .skip(1)
+                .map(line -> line.substring(0, line.indexOf(',')))
+                .toList();
+        assertEquals(count + count * 2 / 3, orderIds.size());
+        assertEquals(orderIds.size(), new HashSet<>(orderIds).size());
+        verify(orderRepository, times(4)).findByIdIn(any());
+    }
+}
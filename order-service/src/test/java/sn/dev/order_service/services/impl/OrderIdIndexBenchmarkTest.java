@@ -0,0 +1,77 @@
+package sn.dev.order_service.services.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+
+import sn.dev.order_service.services.OrderIdGenerator;
+
+/**
+ * Compares insert throughput and {@code _id} index size for ULID and random UUID
+ * order ids. Needs a scratch MongoDB, so it only runs when asked for:
+ *
+ * <pre>
+ * mvn test -Dtest=OrderIdIndexBenchmarkTest \
+ *     -Dbenchmark.mongo.uri=mongodb://localhost:27017 -Dbenchmark.orders=10000000
+ * </pre>
+ *
+ * Each run drops and refills {@code order_id_benchmark.*}.
+ */
+@EnabledIfSystemProperty(named = "benchmark.mongo.uri", matches = ".+")
+class OrderIdIndexBenchmarkTest {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Test
+    void compareUlidWithRandomUuid() {
+        long orders = Long.getLong("benchmark.orders", 10_000_000L);
+        try (MongoClient client = MongoClients.create(System.getProperty("benchmark.mongo.uri"))) {
+            MongoDatabase database = client.getDatabase("order_id_benchmark");
+            run(database, "ulid", new UlidOrderIdGenerator(), orders);
+            run(database, "uuid", new RandomUuidOrderIdGenerator(), orders);
+        }
+    }
+
+    private static void run(MongoDatabase database, String name, OrderIdGenerator generator, long orders) {
+        MongoCollection<Document> collection = database.getCollection(name);
+        collection.drop();
+
+        long started = System.nanoTime();
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (long i = 0; i < orders; i++) {
+            batch.add(new Document("_id", generator.nextId())
+                    .append("userId", "user-" + (i % 100_000))
+                    .append("status", "PENDING")
+                    .append("totalPrice", 42.0)
+                    .append("createdAt", new Date())
+                    .append("items", List.of(new Document("sellerId", "seller-" + (i % 1_000))
+                            .append("quantity", 1)
+                            .append("subtotal", 42.0))));
+            if (batch.size() == BATCH_SIZE) {
+                collection.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Document stats = database.runCommand(new Document("collStats", name));
+        Document indexSizes = stats.get("indexSizes", Document.class);
+        System.out.printf("%s: %d orders in %.1fs (%.0f inserts/s), _id index %.1f MB, data %.1f MB%n",
+                name, orders, seconds, orders / seconds,
+                indexSizes.get("_id_", Number.class).doubleValue() / (1024 * 1024),
+                stats.get("size", Number.class).doubleValue() / (1024 * 1024));
+    }
+}
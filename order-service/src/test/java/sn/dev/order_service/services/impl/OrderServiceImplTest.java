@@ -4,11 +4,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -16,14 +20,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import sn.dev.order_service.data.cart.CartDocument;
 import sn.dev.order_service.data.cart.CartRepository;
+import sn.dev.order_service.data.order.OrderArchiveRepository;
 import sn.dev.order_service.data.order.OrderDocument;
 import sn.dev.order_service.data.order.OrderItemDocument;
 import sn.dev.order_service.data.order.OrderRepository;
 import sn.dev.order_service.data.order.OrderStatus;
+import sn.dev.order_service.services.CartService;
+import sn.dev.order_service.services.OrderIdGenerator;
 import sn.dev.order_service.services.ProductServiceClient;
+import sn.dev.order_service.services.SellerStatsService;
+import sn.dev.order_service.services.events.OrderChangedEvent;
 
 @ExtendWith(MockitoExtension.class)
 class OrderServiceImplTest {
@@ -34,9 +44,24 @@ class OrderServiceImplTest {
     @Mock
     private CartRepository cartRepository;
 
+    @Mock
+    private CartService cartService;
+
     @Mock
     private ProductServiceClient productServiceClient;
 
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SellerStatsService sellerStatsService;
+
+    @Mock
+    private OrderIdGenerator orderIdGenerator;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -53,6 +78,37 @@ class OrderServiceImplTest {
         assertEquals("order-1", result.get(0).getId());
     }
 
+    @Test
+    void testGetOrdersForUser_MergesArchivedOrders() {
+        String userId = "user-1";
+        OrderDocument recent = new OrderDocument();
+        recent.setId("order-2");
+        recent.setCreatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        OrderDocument archived = new OrderDocument();
+        archived.setId("order-1");
+        archived.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+
+        when(orderRepository.findByUserIdOrderByCreatedAtDesc(userId)).thenReturn(List.of(recent));
+        when(orderArchiveRepository.findByUserId(userId, null, null)).thenReturn(List.of(archived, recent));
+
+        List<OrderDocument> result = orderService.getOrdersForUser(userId);
+
+        assertEquals(List.of("order-2", "order-1"), result.stream().map(OrderDocument::getId).toList());
+    }
+
+    @Test
+    void testGetOrdersForUser_RecentRangeSkipsArchive() {
+        String userId = "user-1";
+        Instant from = Instant.now().minusSeconds(3600);
+        when(orderRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(eq(userId), any()))
+                .thenReturn(List.of());
+        when(orderArchiveRepository.mayContain(from)).thenReturn(false);
+
+        orderService.getOrdersForUser(userId, from, null);
+
+        verify(orderArchiveRepository, never()).findByUserId(any(), any(), any());
+    }
+
     @Test
     void testCheckout_EmptyCart() {
         String userId = "user-1";
@@ -85,7 +141,9 @@ class OrderServiceImplTest {
         OrderDocument result = orderService.cancelOrder(userId, orderId);
 
         assertEquals(OrderStatus.CANCELLED, result.getStatus());
-        verify(productServiceClient).restoreQuantity("prod-1", 2);
+        verify(productServiceClient).restoreQuantity("prod-1", 2, "order-1:prod-1");
+        verify(sellerStatsService).recordItemStatusChanges(eq(result), any());
+        verify(eventPublisher).publishEvent(any(OrderChangedEvent.class));
     }
 
     @Test
@@ -100,13 +158,13 @@ class OrderServiceImplTest {
         item.setProductId("prod-1");
         item.setQuantity(2);
         item.setUnitPrice(10.0);
+        item.setImageUrl("https://cdn/prod-1.png");
         order.setItems(List.of(item));
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
-        when(cartRepository.findByUserId(userId)).thenReturn(Optional.empty());
-        
+
         orderService.redoOrderToCart(userId, orderId);
 
-        verify(cartRepository).save(any(CartDocument.class));
+        verify(cartService).replaceItems(userId, Map.of("prod-1", 2), Map.of("prod-1", "https://cdn/prod-1.png"));
     }
 }
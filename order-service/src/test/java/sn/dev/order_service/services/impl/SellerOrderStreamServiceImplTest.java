@@ -0,0 +1,234 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import sn.dev.order_service.config.OrderStreamConfig;
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemDocument;
+import sn.dev.order_service.data.order.OrderItemStatus;
+import sn.dev.order_service.services.events.OrderChangedEvent;
+
+class SellerOrderStreamServiceImplTest {
+
+    private static final Duration NO_HEARTBEAT = Duration.ofMinutes(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Event writes wait for a permit, so a test can stand in for a client that stops reading
+    private final Semaphore writes = new Semaphore(Integer.MAX_VALUE);
+
+    private SellerOrderStreamServiceImpl streamService;
+    private MockMvc mockMvc;
+
+    @Test
+    void onOrderChanged_SendsLinesOnlyToTheirSeller() throws Exception {
+        start(NO_HEARTBEAT, 8);
+        MvcResult seller1 = subscribe("seller-1");
+        MvcResult seller2 = subscribe("seller-2");
+
+        streamService.onOrderChanged(event("order-1", item("seller-1", "prod-1")));
+        streamService.onOrderChanged(event("order-2", item("seller-2", "prod-2")));
+
+        // Each buffer is drained in order, so order-1 would reach seller-2 ahead of order-2
+        await(() -> content(seller1).contains("\"orderId\":\"order-1\""));
+        await(() -> content(seller2).contains("\"orderId\":\"order-2\""));
+        assertTrue(content(seller1).contains("event:ORDER_CREATED"));
+        assertFalse(content(seller1).contains("order-2"));
+        assertFalse(content(seller2).contains("order-1"));
+    }
+
+    @Test
+    void onOrderChanged_ProductIdNarrowsToThatLine() throws Exception {
+        start(NO_HEARTBEAT, 8);
+        MvcResult seller1 = subscribe("seller-1");
+        MvcResult seller2 = subscribe("seller-2");
+
+        streamService.onOrderChanged(new OrderChangedEvent(OrderChangedEvent.Type.ITEM_STATUS_CHANGED,
+                order("order-1", item("seller-1", "prod-1"), item("seller-2", "prod-2")), "prod-2"));
+        streamService.onOrderChanged(event("order-2", item("seller-1", "prod-3")));
+
+        await(() -> content(seller2).contains("\"productId\":\"prod-2\""));
+        await(() -> content(seller1).contains("\"orderId\":\"order-2\""));
+        assertFalse(content(seller1).contains("order-1"));
+    }
+
+    @Test
+    void subscribe_SendsHeartbeatsWhileIdle() throws Exception {
+        start(Duration.ofMillis(20), 8);
+        MvcResult seller1 = subscribe("seller-1");
+
+        await(() -> content(seller1).split(":heartbeat", -1).length > 2);
+    }
+
+    @Test
+    void onOrderChanged_ClosesSlowConsumerWithoutWaitingForIt() throws Exception {
+        start(NO_HEARTBEAT, 1);
+        MvcResult seller1 = subscribe("seller-1");
+        MvcResult seller2 = subscribe("seller-2");
+        writes.drainPermits();
+
+        // The first event is stuck being written, the second fills the buffer
+        streamService.onOrderChanged(event("order-1", item("seller-1", "prod-1")));
+        await(writes::hasQueuedThreads);
+        streamService.onOrderChanged(event("order-2", item("seller-1", "prod-1")));
+        assertEquals(2, connections());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> streamService.onOrderChanged(event("order-3", item("seller-1", "prod-1"))));
+        assertEquals(1, connections());
+
+        writes.release(Integer.MAX_VALUE / 2);
+        seller1.getAsyncResult(5_000);
+        assertTrue(content(seller1).contains("\"orderId\":\"order-1\""));
+        assertFalse(content(seller1).contains("order-2"));
+        assertFalse(content(seller1).contains("order-3"));
+
+        // Other sellers keep streaming
+        streamService.onOrderChanged(event("order-4", item("seller-2", "prod-2")));
+        await(() -> content(seller2).contains("\"orderId\":\"order-4\""));
+    }
+
+    @Test
+    void subscribe_UnregistersOnCompletion() throws Exception {
+        start(NO_HEARTBEAT, 8);
+        MvcResult seller1 = subscribe("seller-1");
+        assertEquals(1, connections());
+
+        seller1.getRequest().getAsyncContext().complete();
+
+        assertEquals(0, connections());
+        streamService.onOrderChanged(event("order-1", item("seller-1", "prod-1")));
+        assertFalse(content(seller1).contains("order-1"));
+    }
+
+    @Test
+    void subscribe_UnregistersAndCompletesOnTimeout() throws Exception {
+        start(NO_HEARTBEAT, 8);
+        MvcResult seller1 = subscribe("seller-1");
+        subscribe("seller-1");
+        assertEquals(2, connections());
+
+        AsyncContext asyncContext = seller1.getRequest().getAsyncContext();
+        for (AsyncListener listener : ((MockAsyncContext) asyncContext).getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        assertEquals(1, connections());
+        seller1.getAsyncResult(5_000);
+    }
+
+    private void start(Duration heartbeatInterval, int bufferSize) {
+        streamService = new SellerOrderStreamServiceImpl(
+                new OrderStreamConfig(Duration.ofMinutes(30), heartbeatInterval, bufferSize), meterRegistry);
+        MappingJackson2HttpMessageConverter json =
+                new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build()) {
+                    @Override
+                    protected void writeInternal(Object object, Type type,
+                            HttpOutputMessage outputMessage) throws IOException {
+                        // Uninterruptibly, like a blocking socket write
+                        writes.acquireUninterruptibly();
+                        super.writeInternal(object, type, outputMessage);
+                    }
+                };
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(streamService))
+                .setMessageConverters(new StringHttpMessageConverter(), json)
+                .build();
+    }
+
+    private MvcResult subscribe(String sellerId) throws Exception {
+        return mockMvc.perform(get("/stream/{sellerId}", sellerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private double connections() {
+        return meterRegistry.get("orders.stream.connections").gauge().value();
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static OrderChangedEvent event(String orderId, OrderItemDocument item) {
+        return new OrderChangedEvent(OrderChangedEvent.Type.ORDER_CREATED, order(orderId, item), null);
+    }
+
+    private static OrderDocument order(String orderId, OrderItemDocument... items) {
+        OrderDocument order = new OrderDocument();
+        order.setId(orderId);
+        order.setUserId("user-1");
+        order.setUpdatedAt(Instant.parse("2026-03-01T10:00:00Z"));
+        order.setItems(List.of(items));
+        return order;
+    }
+
+    private static OrderItemDocument item(String sellerId, String productId) {
+        OrderItemDocument item = new OrderItemDocument();
+        item.setSellerId(sellerId);
+        item.setProductId(productId);
+        item.setProductName("Product " + productId);
+        item.setQuantity(1);
+        item.setSubtotal(10.0);
+        item.setStatus(OrderItemStatus.PENDING);
+        return item;
+    }
+
+    @RestController
+    static class StreamController {
+        private final SellerOrderStreamServiceImpl streamService;
+
+        StreamController(SellerOrderStreamServiceImpl streamService) {
+            this.streamService = streamService;
+        }
+
+        @GetMapping("/stream/{sellerId}")
+        SseEmitter stream(@PathVariable String sellerId) {
+            return streamService.subscribe(sellerId);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import sn.dev.order_service.data.order.OrderDocument;
+import sn.dev.order_service.data.order.OrderItemDocument;
+import sn.dev.order_service.data.order.OrderItemStatus;
+import sn.dev.order_service.data.stats.SellerDailyStats;
+import sn.dev.order_service.data.stats.SellerStatsRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SellerStatsServiceImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SellerStatsRepository sellerStatsRepository;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private SellerStatsServiceImpl sellerStatsService;
+
+    @Test
+    void recordOrderCreated_IncrementsOneBucketPerSeller() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SellerDailyStats.class))
+                .thenReturn(bulkOperations);
+        OrderDocument order = order(
+                item("seller-1", 2, 20.0, OrderItemStatus.PENDING),
+                item("seller-1", 1, 5.0, OrderItemStatus.PENDING));
+
+        sellerStatsService.recordOrderCreated(order);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(query.capture(), update.capture());
+        verify(bulkOperations).execute();
+        assertEquals("seller-1:2026-03-01", query.getValue().getQueryObject().get("_id"));
+
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(1, inc.get("orders"));
+        assertEquals(25.0, inc.get("revenue"));
+        assertEquals(3L, inc.get("items"));
+        assertEquals(2L, inc.get("statusCounts.PENDING"));
+    }
+
+    @Test
+    void recordItemStatusChanges_MovesCountsAndRemovesCancelledRevenue() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SellerDailyStats.class))
+                .thenReturn(bulkOperations);
+        OrderDocument order = order(
+                item("seller-1", 2, 20.0, OrderItemStatus.CANCELLED),
+                item("seller-2", 1, 5.0, OrderItemStatus.CONFIRMED));
+
+        sellerStatsService.recordItemStatusChanges(order,
+                List.of(OrderItemStatus.PENDING, OrderItemStatus.CONFIRMED));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(any(Query.class), update.capture());
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertFalse(inc.containsKey("orders"));
+        assertEquals(-20.0, inc.get("revenue"));
+        assertEquals(-2L, inc.get("items"));
+        assertEquals(-1L, inc.get("statusCounts.PENDING"));
+        assertEquals(1L, inc.get("statusCounts.CANCELLED"));
+        verify(mongoTemplate).bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(SellerDailyStats.class));
+    }
+
+    private static OrderDocument order(OrderItemDocument... items) {
+        OrderDocument order = new OrderDocument();
+        order.setId("order-1");
+        order.setCreatedAt(Instant.parse("2026-03-01T22:15:00Z"));
+        order.setItems(List.of(items));
+        return order;
+    }
+
+    private static OrderItemDocument item(String sellerId, int quantity, double subtotal, OrderItemStatus status) {
+        OrderItemDocument item = new OrderItemDocument();
+        item.setProductId(sellerId + "-product");
+        item.setSellerId(sellerId);
+        item.setQuantity(quantity);
+        item.setSubtotal(subtotal);
+        item.setStatus(status);
+        return item;
+    }
+}
@@ -0,0 +1,35 @@
+package sn.dev.order_service.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class UlidOrderIdGeneratorTest {
+
+    private final UlidOrderIdGenerator generator = new UlidOrderIdGenerator();
+
+    @Test
+    void nextId_IsStrictlyIncreasingAndUnique() {
+        Set<String> seen = new HashSet<>();
+        String previous = "";
+        for (int i = 0; i < 100_000; i++) {
+            String id = generator.nextId();
+            assertEquals(26, id.length());
+            assertTrue(id.compareTo(previous) > 0, id + " should sort after " + previous);
+            assertTrue(seen.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void encode_UsesCrockfordBase32WithTimestampFirst() {
+        assertEquals("00000000000000000000000000", UlidOrderIdGenerator.encode(0, 0, 0));
+        assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ",
+                UlidOrderIdGenerator.encode((1L << 48) - 1, 0xFFFF, -1L));
+        assertEquals("01ARZ3NDEK0000000000000001", UlidOrderIdGenerator.encode(1469922850259L, 0, 1));
+    }
+}
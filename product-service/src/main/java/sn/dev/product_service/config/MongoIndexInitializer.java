@@ -0,0 +1,48 @@
+package sn.dev.product_service.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import sn.dev.product_service.data.entities.IdempotencyRecord;
+
+/**
+ * Creates the indexes product-service relies on. Runs once after startup on its own
+ * virtual thread, so the service still boots when Mongo is not reachable.
+ */
+@Slf4j
+@Component
+public class MongoIndexInitializer {
+    private final MongoTemplate mongoTemplate;
+    private final Duration idempotencyTtl;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+            @Value("${products.idempotency.ttl:24h}") Duration idempotencyTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.idempotencyTtl = idempotencyTtl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("mongo-index-initializer").start(this::ensureIndexes);
+    }
+
+    void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(IdempotencyRecord.class).createIndex(new Index()
+                    .on("createdAt", Sort.Direction.ASC)
+                    .expire(idempotencyTtl)
+                    .named("createdAt_ttl"));
+            log.info("Mongo indexes ensured");
+        } catch (Exception e) {
+            log.error("Failed to ensure Mongo indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package sn.dev.product_service.data.entities;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id;
+    private boolean completed;
+    private String requestHash;
+    private Instant createdAt;
+
+    public IdempotencyRecord(String id, String requestHash) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.createdAt = Instant.now();
+    }
+}
@@ -2,11 +2,22 @@ package sn.dev.product_service.data.entities;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class Media {
     private String id;
     private String imageUrl;
     private String productId;
+    // Pixel size, so clients can reserve layout space; null for images uploaded before it was recorded
+    private Integer width;
+    private Integer height;
+    // Placeholder computed by media-service after upload; null until it is ready
+    private String blurHash;
+
+    public Media(String id, String imageUrl, String productId) {
+        this(id, imageUrl, productId, null, null, null);
+    }
 }
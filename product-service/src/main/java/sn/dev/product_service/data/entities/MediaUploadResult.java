@@ -0,0 +1,12 @@
+package sn.dev.product_service.data.entities;
+
+/**
+ * One entry of media-service's batch upload response; {@code media} is set when
+ * {@code status} is UPLOADED, {@code error} when it is FAILED.
+ */
+public record MediaUploadResult(int index, String fileName, String status, Media media, String error) {
+
+    public boolean uploaded() {
+        return "UPLOADED".equals(status);
+    }
+}
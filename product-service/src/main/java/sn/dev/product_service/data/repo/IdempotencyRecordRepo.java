@@ -0,0 +1,8 @@
+package sn.dev.product_service.data.repo;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import sn.dev.product_service.data.entities.IdempotencyRecord;
+
+public interface IdempotencyRecordRepo extends MongoRepository<IdempotencyRecord, String> {
+}
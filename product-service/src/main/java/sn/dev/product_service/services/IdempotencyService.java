@@ -0,0 +1,11 @@
+package sn.dev.product_service.services;
+
+public interface IdempotencyService {
+    /**
+     * Runs {@code action} at most once per {@code scope} and {@code key}; a replay of a
+     * completed key is a no-op. A failed run releases the key so it can be retried.
+     * {@code request} describes the parameters the key was sent with; reusing the key
+     * with a different {@code request} is rejected with 422.
+     */
+    void execute(String scope, String key, String request, Runnable action);
+}
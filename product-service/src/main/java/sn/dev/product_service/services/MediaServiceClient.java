@@ -9,20 +9,28 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.multipart.MultipartFile;
 
 import sn.dev.product_service.config.FeignSupportConfig;
 import sn.dev.product_service.data.entities.Media;
+import sn.dev.product_service.data.entities.MediaUploadResult;
 
 @FeignClient(name = "media-service", url = "${media.service.url}", configuration = FeignSupportConfig.class)
 public interface MediaServiceClient {
     @PutMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     Media upload(@RequestPart("file") MultipartFile file, @RequestPart("productId") String productId);
 
+    @PutMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    List<MediaUploadResult> uploadBatch(@RequestPart("files") MultipartFile[] files, @RequestPart("productId") String productId);
+
     @GetMapping("/product/{productId}")
     ResponseEntity<List<Media>> getByProductId(@PathVariable String productId);
 
+    @GetMapping("/products")
+    ResponseEntity<List<Media>> getByProductIds(@RequestParam("productIds") List<String> productIds);
+
     @DeleteMapping("/product/{productId}")
     ResponseEntity<Void> deleteByProductId(@PathVariable String productId);
 }
\ No newline at end of file
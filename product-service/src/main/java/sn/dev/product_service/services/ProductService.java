@@ -1,5 +1,6 @@
 package sn.dev.product_service.services;
 
+import java.util.Collection;
 import java.util.List;
 
 import sn.dev.product_service.data.entities.Product;
@@ -11,6 +12,8 @@ public interface ProductService {
 
     Product getById(String id);
 
+    List<Product> getByIds(Collection<String> ids);
+
     List<Product> getByUserId(String userId);
 
     List<Product> getAll();
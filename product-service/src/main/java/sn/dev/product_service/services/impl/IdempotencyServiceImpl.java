@@ -0,0 +1,103 @@
+package sn.dev.product_service.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import sn.dev.product_service.data.entities.IdempotencyRecord;
+import sn.dev.product_service.data.repo.IdempotencyRecordRepo;
+import sn.dev.product_service.services.IdempotencyService;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepo idempotencyRecordRepo;
+    private final MongoTemplate mongoTemplate;
+    private final Duration lockTimeout;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepo idempotencyRecordRepo, MongoTemplate mongoTemplate,
+            @Value("${products.idempotency.lock-timeout:60s}") Duration lockTimeout) {
+        this.idempotencyRecordRepo = idempotencyRecordRepo;
+        this.mongoTemplate = mongoTemplate;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Override
+    public void execute(String scope, String key, String request, Runnable action) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String requestHash = sha256(request);
+        if (!claim(id, requestHash)) {
+            return;
+        }
+
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            idempotencyRecordRepo.deleteById(id);
+            throw e;
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord(id, requestHash);
+        record.setCompleted(true);
+        idempotencyRecordRepo.save(record);
+    }
+
+    /**
+     * Returns true when the caller now owns the key, false when it was already completed.
+     */
+    private boolean claim(String id, String requestHash) {
+        try {
+            idempotencyRecordRepo.insert(new IdempotencyRecord(id, requestHash));
+            return true;
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord existing = idempotencyRecordRepo.findById(id).orElse(null);
+            // Records written before request hashing have none to compare against
+            if (existing != null && existing.getRequestHash() != null
+                    && !existing.getRequestHash().equals(requestHash)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used with different request parameters");
+            }
+            if (existing != null && existing.isCompleted()) {
+                return false;
+            }
+        }
+
+        // Still in progress: only take it over if the original request looks abandoned
+        Query stale = Query.query(Criteria.where("_id").is(id)
+                .and("completed").is(false)
+                .and("createdAt").lt(Instant.now().minus(lockTimeout)));
+        Update takeOver = Update.update("createdAt", Instant.now()).set("requestHash", requestHash);
+        if (mongoTemplate.updateFirst(stale, takeOver, IdempotencyRecord.class).getModifiedCount() == 1) {
+            return true;
+        }
+        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is already being processed");
+    }
+
+    private static String sha256(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package sn.dev.product_service.services.impl;
 
+import java.util.Collection;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -14,6 +15,8 @@ import sn.dev.product_service.services.ProductService;
 @Service
 @AllArgsConstructor
 public class ProductServiceImpl implements ProductService {
+    static final int MAX_BATCH_IDS = 100;
+
     private final ProductRepo productRepo;
 
     @Override
@@ -38,6 +41,16 @@ public class ProductServiceImpl implements ProductService {
                         () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + id));
     }
 
+    @Override
+    public List<Product> getByIds(Collection<String> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BATCH_IDS + " product ids can be fetched at once");
+        }
+        // Unknown ids are simply absent from the result
+        return productRepo.findAllById(ids);
+    }
+
     @Override
     public List<Product> getByUserId(String userId) {
         return productRepo.findByUserId(userId);
@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -27,6 +28,15 @@ public interface ProductController {
     @GetMapping
     ResponseEntity<List<ProductResponseDTO>> getAll(@RequestParam(required = false) String search);
 
+    /**
+     * Looks up several products in one query. Images are left out unless
+     * {@code withImages} is set; then each carries only its primary image, which is
+     * what a cart or order line shows, all fetched in one media lookup.
+     */
+    @GetMapping("/batch")
+    ResponseEntity<List<ProductResponseDTO>> getByIds(@RequestParam List<String> ids,
+            @RequestParam(defaultValue = "false") boolean withImages);
+
     @GetMapping("/{id}")
     ResponseEntity<ProductResponseDTO> getById(@PathVariable String id);
 
@@ -40,8 +50,10 @@ public interface ProductController {
     ResponseEntity<Void> delete(@PathVariable String id);
 
     @PutMapping("/{id}/reduce-quantity/{quantity}")
-    ResponseEntity<Void> reduceQuantity(@PathVariable String id, @PathVariable int quantity);
+    ResponseEntity<Void> reduceQuantity(@PathVariable String id, @PathVariable int quantity,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey);
 
     @PutMapping("/{id}/restore-quantity/{quantity}")
-    ResponseEntity<Void> restoreQuantity(@PathVariable String id, @PathVariable int quantity);
+    ResponseEntity<Void> restoreQuantity(@PathVariable String id, @PathVariable int quantity,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey);
 }
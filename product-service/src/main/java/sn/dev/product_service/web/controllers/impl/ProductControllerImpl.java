@@ -1,10 +1,14 @@
 package sn.dev.product_service.web.controllers.impl;
 
 import jakarta.validation.Valid;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,9 +16,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import sn.dev.product_service.data.entities.Media;
+import sn.dev.product_service.data.entities.MediaUploadResult;
 import sn.dev.product_service.data.entities.Product;
+import sn.dev.product_service.services.IdempotencyService;
 import sn.dev.product_service.services.MediaServiceClient;
 import sn.dev.product_service.services.ProductService;
 import sn.dev.product_service.web.controllers.ProductController;
@@ -29,8 +36,16 @@ public class ProductControllerImpl implements ProductController {
 
     private final ProductService productService;
     private final MediaServiceClient mediaServiceClient;
+    private final IdempotencyService idempotencyService;
     private String maxAge = "300";
 
+    // Product ids per media lookup, so the query string stays short
+    private static final int MEDIA_LOOKUP_SIZE = 100;
+
+    // Must not exceed media-service's own file.upload.max-files
+    @Value("${file.upload.max-files:5}")
+    private int maxFiles = 5;
+
     @Override
     public ResponseEntity<ProductResponseDTO> create(
         @Valid ProductCreateDTO productCreateDTO
@@ -45,11 +60,10 @@ public class ProductControllerImpl implements ProductController {
         Product product = productService.create(
             productCreateDTO.toProduct(userId)
         );
-        List<Media> medias = productCreateDTO
-            .getImages()
-            .stream()
-            .map(file -> mediaServiceClient.upload(file, product.getId()))
-            .toList();
+        List<Media> medias = uploadImages(
+            productCreateDTO.getImages(),
+            product.getId()
+        );
 
         return ResponseEntity.status(HttpStatus.CREATED)
             .header(HttpHeaders.CACHE_CONTROL, "public, max-age=" + maxAge)
@@ -67,19 +81,10 @@ public class ProductControllerImpl implements ProductController {
             products = productService.getAll();
         }
 
+        Map<String, List<Media>> medias = mediasOf(products);
         List<ProductResponseDTO> responseList = products
             .stream()
-            .map(product -> {
-                List<Media> medias = List.of();
-                try {
-                    medias = Optional.ofNullable(
-                        mediaServiceClient.getByProductId(product.getId()).getBody()
-                    ).orElseGet(List::of);
-                } catch (Exception e) {
-                    log.error("Error fetching media for product {}: {}", product.getId(), e.getMessage());
-                }
-                return new ProductResponseDTO(product, medias);
-            })
+            .map(product -> new ProductResponseDTO(product, medias.getOrDefault(product.getId(), List.of())))
             .toList();
 
         return ResponseEntity.ok(responseList);
@@ -95,6 +100,20 @@ public class ProductControllerImpl implements ProductController {
         return ResponseEntity.ok(new ProductResponseDTO(product, medias));
     }
 
+    @Override
+    public ResponseEntity<List<ProductResponseDTO>> getByIds(List<String> ids, boolean withImages) {
+        List<Product> products = productService.getByIds(ids);
+        Map<String, List<Media>> medias = withImages ? mediasOf(products) : Map.of();
+        List<ProductResponseDTO> responseList = products
+            .stream()
+            // Only the primary image, which is all a cart line shows
+            .map(product -> new ProductResponseDTO(product,
+                medias.getOrDefault(product.getId(), List.of()).stream().limit(1).toList()))
+            .toList();
+
+        return ResponseEntity.ok(responseList);
+    }
+
     @Override
     public ResponseEntity<ProductResponseDTO> update(
         @Valid ProductUpdateDTO productUpdateDTO,
@@ -131,14 +150,7 @@ public class ProductControllerImpl implements ProductController {
                 " new images for product " +
                 id
             );
-            productUpdateDTO
-                .getImages()
-                .forEach(file -> {
-                    System.out.println(
-                        "Uploading image: " + file.getOriginalFilename()
-                    );
-                    mediaServiceClient.upload(file, updatedProduct.getId());
-                });
+            uploadImages(productUpdateDTO.getImages(), updatedProduct.getId());
         }
 
         // Get all medias (existing + newly uploaded)
@@ -175,14 +187,69 @@ public class ProductControllerImpl implements ProductController {
     }
 
     @Override
-    public ResponseEntity<Void> reduceQuantity(String id, int quantity) {
-        productService.reduceQuantity(id, quantity);
+    public ResponseEntity<Void> reduceQuantity(String id, int quantity, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            productService.reduceQuantity(id, quantity);
+        } else {
+            idempotencyService.execute("reduce-quantity:" + id, idempotencyKey, "quantity=" + quantity,
+                () -> productService.reduceQuantity(id, quantity));
+        }
         return ResponseEntity.ok().build();
     }
 
     @Override
-    public ResponseEntity<Void> restoreQuantity(String id, int quantity) {
-        productService.restoreQuantity(id, quantity);
+    public ResponseEntity<Void> restoreQuantity(String id, int quantity, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            productService.restoreQuantity(id, quantity);
+        } else {
+            idempotencyService.execute("restore-quantity:" + id, idempotencyKey, "quantity=" + quantity,
+                () -> productService.restoreQuantity(id, quantity));
+        }
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * The media of each product, looked up {@link #MEDIA_LOOKUP_SIZE} products at a
+     * time rather than one call per product. Products are listed without images when
+     * media-service fails.
+     */
+    private Map<String, List<Media>> mediasOf(List<Product> products) {
+        Map<String, List<Media>> medias = new HashMap<>();
+        List<String> ids = products.stream().map(Product::getId).toList();
+        for (int i = 0; i < ids.size(); i += MEDIA_LOOKUP_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + MEDIA_LOOKUP_SIZE));
+            try {
+                Optional.ofNullable(mediaServiceClient.getByProductIds(chunk).getBody())
+                    .orElseGet(List::of)
+                    .forEach(media -> medias.computeIfAbsent(media.getProductId(), id -> new ArrayList<>()).add(media));
+            } catch (Exception e) {
+                log.error("Error fetching media for {} products: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return medias;
+    }
+
+    /**
+     * Uploads the images in batch requests of at most {@code file.upload.max-files}, the
+     * most media-service takes at once. A rejected image fails the request with its
+     * reason, as a failed single upload did before.
+     */
+    private List<Media> uploadImages(List<MultipartFile> images, String productId) {
+        List<MediaUploadResult> results = new ArrayList<>(images.size());
+        for (int from = 0; from < images.size(); from += maxFiles) {
+            List<MultipartFile> batch = images.subList(from, Math.min(images.size(), from + maxFiles));
+            results.addAll(mediaServiceClient.uploadBatch(batch.toArray(MultipartFile[]::new), productId));
+        }
+        results
+            .stream()
+            .filter(result -> !result.uploaded())
+            .findFirst()
+            .ifPresent(failed -> {
+                throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    failed.fileName() + ": " + failed.error()
+                );
+            });
+        return results.stream().map(MediaUploadResult::media).toList();
+    }
 }
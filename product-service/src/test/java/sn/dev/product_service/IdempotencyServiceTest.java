@@ -0,0 +1,84 @@
+package sn.dev.product_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import sn.dev.product_service.data.entities.IdempotencyRecord;
+import sn.dev.product_service.data.repo.IdempotencyRecordRepo;
+import sn.dev.product_service.services.impl.IdempotencyServiceImpl;
+
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+    @Mock
+    private IdempotencyRecordRepo idempotencyRecordRepo;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepo, mongoTemplate, Duration.ofSeconds(60));
+    }
+
+    @Test
+    void testReplayWithSameQuantityIsANoOp() {
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute("reduce-quantity:prod-1", "key-1", "quantity=2", runs::incrementAndGet);
+
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepo).save(stored.capture());
+        when(idempotencyRecordRepo.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepo.findById("reduce-quantity:prod-1:key-1"))
+                .thenReturn(Optional.of(stored.getValue()));
+
+        idempotencyService.execute("reduce-quantity:prod-1", "key-1", "quantity=2", runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+
+        System.out.println("✅ PRODUCT/IDEMPOTENCY : testReplayWithSameQuantityIsANoOp() passed successfully.");
+    }
+
+    @Test
+    void testReplayWithDifferentQuantityIsRejected() {
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute("reduce-quantity:prod-1", "key-1", "quantity=2", runs::incrementAndGet);
+
+        ArgumentCaptor<IdempotencyRecord> stored = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepo).save(stored.capture());
+        when(idempotencyRecordRepo.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepo.findById("reduce-quantity:prod-1:key-1"))
+                .thenReturn(Optional.of(stored.getValue()));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute("reduce-quantity:prod-1", "key-1", "quantity=5",
+                        runs::incrementAndGet));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+        assertEquals(1, runs.get());
+
+        System.out.println("✅ PRODUCT/IDEMPOTENCY : testReplayWithDifferentQuantityIsRejected() passed successfully.");
+    }
+}
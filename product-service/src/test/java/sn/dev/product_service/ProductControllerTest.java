@@ -2,9 +2,14 @@ package sn.dev.product_service;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -24,6 +29,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.multipart.MultipartFile;
 
 import sn.dev.product_service.data.entities.Media;
+import sn.dev.product_service.data.entities.MediaUploadResult;
 import sn.dev.product_service.data.entities.Product;
 import sn.dev.product_service.services.MediaServiceClient;
 import sn.dev.product_service.services.ProductService;
@@ -56,13 +62,13 @@ public class ProductControllerTest {
         @WithMockUser
         void testGetAllReturnsProductResponseDTOList() throws Exception {
                 Product product = new Product("1", "Test Product");
-                Media media1 = new Media("m1", "image1.png", "1");
+                Media media1 = new Media("m1", "image1.png", "1", 800, 600, "LEHV6nWB2yk8pyo0adR*.7kCMdnj");
                 Media media2 = new Media("m2", "image2.png", "1");
                 Media media3 = new Media("m3", "image3.png", "1");
 
                 // Mock service responses
                 when(productService.getAll()).thenReturn(List.of(product));
-                when(mediaServiceClient.getByProductId("1"))
+                when(mediaServiceClient.getByProductIds(List.of("1")))
                                 .thenReturn(ResponseEntity.ok(List.of(media1, media2, media3)));
 
                 mockMvc.perform(get("/api/products"))
@@ -71,6 +77,9 @@ public class ProductControllerTest {
                                 .andExpect(jsonPath("$[0].images").isArray())
                                 .andExpect(jsonPath("$[0].images.length()").value(3))
                                 .andExpect(jsonPath("$[0].images[0].imageUrl").value("image1.png"))
+                                .andExpect(jsonPath("$[0].images[0].width").value(800))
+                                .andExpect(jsonPath("$[0].images[0].height").value(600))
+                                .andExpect(jsonPath("$[0].images[0].blurHash").value("LEHV6nWB2yk8pyo0adR*.7kCMdnj"))
                                 .andExpect(jsonPath("$[0].images[1].imageUrl").value("image2.png"))
                                 .andExpect(jsonPath("$[0].images[2].imageUrl").value("image3.png"));
 
@@ -100,24 +109,16 @@ public class ProductControllerTest {
 
                 when(productService.create(any(Product.class))).thenReturn(savedProduct);
 
-                when(mediaServiceClient.upload(
-                                any(MultipartFile.class),
-                                eq("1")))
+                when(mediaServiceClient.uploadBatch(any(MultipartFile[].class), eq("1")))
                                 .thenAnswer(invocation -> {
-                                        MultipartFile file = invocation.getArgument(0);
-                                        if (file == null) {
-                                                return new Media("m0", "null-file", "1"); // Handle null case
-                                        }
-                                        switch (file.getOriginalFilename()) {
-                                                case null:
-                                                        return new Media("m0", "null-file", "1");
-                                                case "image1.png":
-                                                        return new Media("m1", "image1.png", "1");
-                                                case "image2.png":
-                                                        return new Media("m2", "image2.png", "1");
-                                                default:
-                                                        return new Media("mX", file.getOriginalFilename(), "1");
+                                        MultipartFile[] files = invocation.getArgument(0);
+                                        List<MediaUploadResult> results = new ArrayList<>();
+                                        for (int i = 0; i < files.length; i++) {
+                                                String name = files[i].getOriginalFilename();
+                                                results.add(new MediaUploadResult(i, name, "UPLOADED",
+                                                                new Media("m" + (i + 1), name, "1"), null));
                                         }
+                                        return results;
                                 });
                 // Perform multipart request
                 mockMvc.perform(
@@ -150,6 +151,47 @@ public class ProductControllerTest {
                 System.out.println("✅ PRODUCT/CONTROLLER : testCreateProduct() passed successfully.");
         }
 
+        @Test
+        @WithMockUser
+        void testCreateProductSplitsImagesIntoBatchesOfMaxFiles() throws Exception {
+                Product savedProduct = new Product("New Product", "Description", 100.0, 5, "user-123");
+                savedProduct.setId("1");
+                when(productService.create(any(Product.class))).thenReturn(savedProduct);
+                when(mediaServiceClient.uploadBatch(any(MultipartFile[].class), eq("1")))
+                                .thenAnswer(invocation -> {
+                                        MultipartFile[] files = invocation.getArgument(0);
+                                        List<MediaUploadResult> results = new ArrayList<>();
+                                        for (int i = 0; i < files.length; i++) {
+                                                String name = files[i].getOriginalFilename();
+                                                results.add(new MediaUploadResult(i, name, "UPLOADED",
+                                                                new Media("m" + name, name, "1"), null));
+                                        }
+                                        return results;
+                                });
+
+                var request = org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+                                .multipart("/api/products");
+                for (int i = 1; i <= 7; i++) {
+                        request.file(new MockMultipartFile("images", "image" + i + ".png", MediaType.IMAGE_PNG_VALUE,
+                                        ("fake-image-content-" + i).getBytes(StandardCharsets.UTF_8)));
+                }
+                mockMvc.perform(request
+                                .param("name", "New Product")
+                                .param("description", "Description")
+                                .param("price", "100.0")
+                                .param("quantity", "5")
+                                .with(SecurityMockMvcRequestPostProcessors.jwt().jwt(fakeJwt())
+                                                .authorities(new SimpleGrantedAuthority("SELLER")))
+                                .contentType(MediaType.MULTIPART_FORM_DATA))
+                                .andExpect(status().isCreated())
+                                .andExpect(jsonPath("$.images.length()").value(7))
+                                .andExpect(jsonPath("$.images[6].imageUrl").value("image7.png"));
+
+                org.mockito.Mockito.verify(mediaServiceClient, org.mockito.Mockito.times(2))
+                                .uploadBatch(any(MultipartFile[].class), eq("1"));
+                System.out.println("✅ PRODUCT/CONTROLLER : testCreateProductSplitsImagesIntoBatchesOfMaxFiles() passed successfully.");
+        }
+
         @Test
         void testCreateProductFailsWhenNameMissing() throws Exception {
                 MockMultipartFile image1 = new MockMultipartFile(
@@ -188,6 +230,44 @@ public class ProductControllerTest {
                                 "✅ PRODUCT/CONTROLLER : testCreateProductFailsWhenNoImages() passed successfully.");
         }
 
+        @Test
+        @WithMockUser
+        void testGetByIdsReturnsPrimaryImageOnly() throws Exception {
+                Product product1 = new Product("1", "Test Product");
+                Product product2 = new Product("2", "Other Product");
+                when(productService.getByIds(List.of("1", "2"))).thenReturn(List.of(product1, product2));
+                when(mediaServiceClient.getByProductIds(List.of("1", "2"))).thenReturn(ResponseEntity.ok(List.of(
+                                new Media("m1", "image1.png", "1"), new Media("m2", "image2.png", "1"),
+                                new Media("m3", "image3.png", "2"))));
+
+                mockMvc.perform(get("/api/products/batch").param("ids", "1,2").param("withImages", "true"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].images.length()").value(1))
+                                .andExpect(jsonPath("$[0].images[0].imageUrl").value("image1.png"))
+                                .andExpect(jsonPath("$[1].images[0].imageUrl").value("image3.png"));
+
+                // One media lookup for the whole batch
+                verify(mediaServiceClient, times(1)).getByProductIds(any());
+                verify(mediaServiceClient, never()).getByProductId(any());
+                System.out.println(
+                                "✅ PRODUCT/CONTROLLER : testGetByIdsReturnsPrimaryImageOnly() passed successfully.");
+        }
+
+        @Test
+        @WithMockUser
+        void testGetByIdsWithoutImagesSkipsMediaService() throws Exception {
+                when(productService.getByIds(List.of("1"))).thenReturn(List.of(new Product("1", "Test Product")));
+
+                mockMvc.perform(get("/api/products/batch").param("ids", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].name").value("Test Product"))
+                                .andExpect(jsonPath("$[0].images.length()").value(0));
+
+                verifyNoInteractions(mediaServiceClient);
+                System.out.println(
+                                "✅ PRODUCT/CONTROLLER : testGetByIdsWithoutImagesSkipsMediaService() passed successfully.");
+        }
+
         @Test
         @WithMockUser
         void testGetProductByIdReturnsProductResponseDTO() throws Exception {
@@ -240,8 +320,9 @@ public class ProductControllerTest {
                 when(productService.update(any(Product.class))).thenReturn(updatedProduct);
 
                 // Mock uploading new image
-                when(mediaServiceClient.upload(any(MultipartFile.class), eq(productId)))
-                                .thenReturn(new Media("m1", "new-image.png", productId));
+                when(mediaServiceClient.uploadBatch(any(MultipartFile[].class), eq(productId)))
+                                .thenReturn(List.of(new MediaUploadResult(0, "new-image.png", "UPLOADED",
+                                                new Media("m1", "new-image.png", productId), null)));
 
                 // Mock returning all medias including new one
                 when(mediaServiceClient.getByProductId(productId))
@@ -243,4 +243,31 @@ public class ProductServiceTest {
         System.out.println("✅ PRODUCT/SERVICE : testDeleteByUserId() passed successfully.");
     }
 
+    @Test
+    void testGetByIds() {
+        // Given
+        Product product = new Product();
+        product.setId("p1");
+        when(productRepo.findAllById(List.of("p1", "missing"))).thenReturn(List.of(product));
+
+        // When
+        List<Product> products = productService.getByIds(List.of("p1", "missing"));
+
+        // Then
+        assertEquals(1, products.size());
+        assertEquals("p1", products.get(0).getId());
+
+        System.out.println("✅ PRODUCT/SERVICE : testGetByIds() passed successfully.");
+    }
+
+    @Test
+    void testGetByIds_TooManyIds() {
+        List<String> ids = Collections.nCopies(101, "p1");
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> productService.getByIds(ids));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+
+        System.out.println("✅ PRODUCT/SERVICE : testGetByIds_TooManyIds() passed successfully.");
+    }
 }